@@ -0,0 +1,108 @@
+package com.bbbrewery.backend.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource (Hikari) placée derrière le disjoncteur : la demande de connexion est
+ * refusée immédiatement si le circuit est ouvert, et les échecs de connexion ou
+ * d'exécution (erreur réseau, délai de lecture dépassé) sont remontés au disjoncteur.
+ * Les instructions exécutées pendant une requête HTTP sont bornées par son échéance
+ * (RequestDeadline) ; ces annulations ne comptent pas comme des pannes de la base.
+ */
+public class CircuitBreakingDataSource extends DelegatingDataSource {
+
+    private final DatabaseCircuitBreaker circuitBreaker;
+
+    public CircuitBreakingDataSource(DataSource target, DatabaseCircuitBreaker circuitBreaker) {
+        super(target);
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        circuitBreaker.acquirePermission();
+        try {
+            Connection connection = super.getConnection();
+            circuitBreaker.recordConnectionAcquired();
+            return wrap(connection);
+        } catch (SQLException e) {
+            circuitBreaker.recordFailure(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        circuitBreaker.acquirePermission();
+        try {
+            Connection connection = super.getConnection(username, password);
+            circuitBreaker.recordConnectionAcquired();
+            return wrap(connection);
+        } catch (SQLException e) {
+            circuitBreaker.recordFailure(e);
+            throw e;
+        }
+    }
+
+    // Les instructions créées par la connexion reçoivent l'échéance de la requête
+    // et signalent leurs échecs réseau au disjoncteur
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getReturnType().isInterface()
+                            && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                                new Class<?>[]{method.getReturnType()}, new StatementHandler(statement));
+                    }
+                    return result;
+                });
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+
+        StatementHandler(Statement target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return CircuitBreakingDataSource.invoke(target, method, args);
+            }
+            RequestDeadline deadline = RequestDeadline.current();
+            if (deadline != null) {
+                deadline.applyTo(target);
+            }
+            try {
+                Object result = CircuitBreakingDataSource.invoke(target, method, args);
+                circuitBreaker.recordSuccess();
+                return result;
+            } catch (SQLException e) {
+                if (deadline != null) {
+                    deadline.recordFailure(e);
+                }
+                circuitBreaker.recordFailure(e);
+                throw e;
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
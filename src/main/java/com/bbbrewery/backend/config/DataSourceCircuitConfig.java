@@ -0,0 +1,29 @@
+package com.bbbrewery.backend.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Place la DataSource de l'application derrière le disjoncteur (CircuitBreakingDataSource)
+ */
+@Configuration
+public class DataSourceCircuitConfig {
+
+    @Bean
+    public static BeanPostProcessor circuitBreakingDataSourcePostProcessor(
+            ObjectProvider<DatabaseCircuitBreaker> circuitBreaker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof CircuitBreakingDataSource)) {
+                    return new CircuitBreakingDataSource(dataSource, circuitBreaker.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
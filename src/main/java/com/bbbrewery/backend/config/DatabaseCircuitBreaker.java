@@ -0,0 +1,174 @@
+package com.bbbrewery.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disjoncteur devant la base Oracle distante. Après failure-threshold échecs de
+ * connexion consécutifs (connexion impossible, erreur réseau, délai de lecture
+ * dépassé), le circuit s'ouvre : toute nouvelle demande de connexion échoue
+ * immédiatement pendant open-ms. Ensuite une seule demande passe comme sonde
+ * (semi-ouvert) : si elle réussit le circuit se referme, sinon il se rouvre.
+ */
+@Component
+public class DatabaseCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseCircuitBreaker.class);
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMs;
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private volatile long openedAt;
+    private boolean probeInFlight;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong openings = new AtomicLong();
+    private volatile String lastFailure;
+
+    public DatabaseCircuitBreaker(@Value("${datasource.circuit.failure-threshold:3}") int failureThreshold,
+                                  @Value("${datasource.circuit.open-ms:30000}") long openMs) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+    }
+
+    /**
+     * Autorise une demande de connexion, ou échoue immédiatement si le circuit est ouvert
+     */
+    public void acquirePermission() throws SQLException {
+        if (state == State.CLOSED) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                log.info("Circuit de la base semi-ouvert : tentative de connexion de sonde");
+                return;
+            }
+        }
+        rejected.incrementAndGet();
+        throw new SQLTransientConnectionException("Base de données indisponible (circuit ouvert)", "08001");
+    }
+
+    public void recordSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (state != State.CLOSED) {
+                log.info("Base de données de nouveau disponible : circuit refermé");
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Connexion obtenue du pool : referme le circuit si c'était la sonde. Hors sonde,
+     * les échecs d'exécution ne sont pas remis à zéro, le pool pouvant rendre une
+     * connexion inactive sans contacter la base.
+     */
+    public void recordConnectionAcquired() {
+        if (state == State.HALF_OPEN) {
+            recordSuccess();
+        }
+    }
+
+    /**
+     * Enregistre une erreur ; seules les erreurs de connexion comptent
+     */
+    public void recordFailure(SQLException e) {
+        if (!isConnectivityFailure(e)) {
+            return;
+        }
+        synchronized (this) {
+            lastFailure = e.getMessage();
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAt = System.currentTimeMillis();
+                probeInFlight = false;
+                openings.incrementAndGet();
+                log.warn("Base de données indisponible ({} échecs consécutifs) : circuit ouvert pour {} ms - {}",
+                        consecutiveFailures, openMs, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vrai tant que le circuit est ouvert et que la sonde n'est pas encore permise
+     */
+    public boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() - openedAt < openMs;
+    }
+
+    /**
+     * Vrai si le circuit n'est pas fermé (ouvert ou en attente du résultat de la sonde)
+     */
+    public boolean isDegraded() {
+        return state != State.CLOSED;
+    }
+
+    /**
+     * Secondes avant la prochaine sonde (en-tête Retry-After)
+     */
+    public long getRetryAfterSeconds() {
+        long remainingMs = openMs - (System.currentTimeMillis() - openedAt);
+        return Math.max(1, (remainingMs + 999) / 1000);
+    }
+
+    /**
+     * État du disjoncteur
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("state", state.name());
+        statistics.put("consecutiveFailures", consecutiveFailures);
+        statistics.put("openings", openings.get());
+        statistics.put("rejectedConnections", rejected.get());
+        statistics.put("openedAt", openedAt > 0
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(openedAt), ZoneId.systemDefault()) : null);
+        statistics.put("lastFailure", lastFailure);
+        return statistics;
+    }
+
+    // Erreurs réseau ou de connexion (SQLState 08xxx) ; pas les erreurs SQL ordinaires
+    public static boolean isConnectivityFailure(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLRecoverableException
+                    || cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.bbbrewery.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Modifications de panier refusées immédiatement (503 + Retry-After) tant que le
+ * circuit de la base est ouvert, au lieu d'occuper un thread jusqu'au délai réseau.
+ */
+@Component
+public class DatabaseCircuitFilter extends OncePerRequestFilter {
+
+    private static final String BASKETS_PATH = "/api/baskets";
+
+    @Autowired
+    private DatabaseCircuitBreaker databaseCircuitBreaker;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean mutation = "POST".equals(method) || "PUT".equals(method)
+                || "PATCH".equals(method) || "DELETE".equals(method);
+        return !mutation || !request.getRequestURI().startsWith(BASKETS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (databaseCircuitBreaker.isOpen()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(databaseCircuitBreaker.getRetryAfterSeconds()));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
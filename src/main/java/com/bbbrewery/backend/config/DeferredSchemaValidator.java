@@ -0,0 +1,92 @@
+package com.bbbrewery.backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.tool.schema.spi.SchemaManagementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Profil faststart : le schéma n'est plus validé au démarrage (ddl-auto=none) mais
+ * en arrière-plan une fois l'application prête. Un écart entre les entités et le
+ * schéma arrête l'application (code de sortie 1), comme l'aurait fait ddl-auto=validate
+ * au démarrage. Une base injoignable n'est pas un écart : la validation est retentée.
+ */
+@Component
+@Profile("faststart")
+public class DeferredSchemaValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(DeferredSchemaValidator.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${schema.validation.retry-ms:30000}")
+    private long retryMs;
+
+    private volatile String outcome = "en attente";
+    private volatile LocalDateTime validatedAt;
+    private volatile long durationMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void validateAfterStartup() {
+        Thread thread = new Thread(this::validate, "schema-validation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void validate() {
+        while (true) {
+            long start = System.currentTimeMillis();
+            try {
+                entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().validateMappedObjects();
+                outcome = "valide";
+                log.info("Schéma validé en arrière-plan en {} ms", System.currentTimeMillis() - start);
+                return;
+            } catch (SchemaManagementException e) {
+                outcome = "invalide : " + e.getMessage();
+                log.error("Le schéma ne correspond pas aux entités, arrêt de l'application : {}", e.getMessage());
+                System.exit(SpringApplication.exit(applicationContext, () -> 1));
+                return;
+            } catch (RuntimeException e) {
+                outcome = "non vérifié : " + e.getMessage();
+                log.warn("Validation du schéma impossible, nouvel essai dans {} ms : {}", retryMs, e.getMessage());
+            } finally {
+                durationMs = System.currentTimeMillis() - start;
+                validatedAt = LocalDateTime.now();
+            }
+            try {
+                Thread.sleep(retryMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Résultat de la validation différée
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("outcome", outcome);
+        status.put("validatedAt", validatedAt);
+        status.put("durationMs", durationMs);
+        return status;
+    }
+}
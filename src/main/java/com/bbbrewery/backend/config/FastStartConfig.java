@@ -0,0 +1,54 @@
+package com.bbbrewery.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+
+/**
+ * Profil de démarrage rapide (faststart) : les beans non critiques listés dans
+ * startup.lazy-beans (rapports, contrôleur de test) ne sont créés qu'au premier usage.
+ * La validation du schéma est différée après le démarrage (DeferredSchemaValidator),
+ * comme le chargement des caches en mémoire (startup.async-cache-warmup, StartupCacheWarmup).
+ */
+@Configuration
+@Profile("faststart")
+public class FastStartConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyNonCriticalBeans() {
+        return new LazyBeansPostProcessor();
+    }
+
+    private static class LazyBeansPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+        private static final Logger log = LoggerFactory.getLogger(LazyBeansPostProcessor.class);
+
+        private String[] beanNames = new String[0];
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            beanNames = environment.getProperty("startup.lazy-beans", String[].class, new String[0]);
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            Arrays.stream(beanNames)
+                    .map(String::trim)
+                    .filter(beanFactory::containsBeanDefinition)
+                    .forEach(name -> {
+                        BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                        definition.setLazyInit(true);
+                        log.debug("Bean {} initialisé au premier usage", name);
+                    });
+        }
+    }
+}
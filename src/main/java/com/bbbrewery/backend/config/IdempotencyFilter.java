@@ -0,0 +1,242 @@
+package com.bbbrewery.backend.config;
+
+import com.bbbrewery.backend.service.IdempotencyCache;
+import com.bbbrewery.backend.service.IdempotencyCache.IdempotencyKeyReusedException;
+import com.bbbrewery.backend.service.IdempotencyCache.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Déduplication des mutations de panier via l'en-tête Idempotency-Key.
+ * La première réponse est mémorisée et rejouée telle quelle pour les relances, sans
+ * nouvel accès à la base, si elle est définitive : succès 2xx ou refus 4xx qui ne
+ * changerait pas en réessayant. Une clé réutilisée avec une autre méthode, ressource
+ * ou un autre corps est refusée (422).
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String BASKETS_PATH = "/api/baskets";
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Value("${idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean mutation = "POST".equals(method) || "PUT".equals(method)
+                || "PATCH".equals(method) || "DELETE".equals(method);
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        return !mutation
+                || key == null || key.isBlank()
+                || !request.getRequestURI().startsWith(BASKETS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        HttpServletRequest readable = isForm(request) ? request : new CachedBodyRequest(request);
+        String fingerprint = fingerprint(readable);
+
+        while (true) {
+            CompletableFuture<StoredResponse> candidate = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> current;
+            try {
+                current = idempotencyCache.reserve(key, fingerprint, candidate);
+            } catch (IdempotencyKeyReusedException e) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), e.getMessage());
+                return;
+            }
+
+            if (current == candidate) {
+                execute(key, candidate, readable, response, chain);
+                return;
+            }
+
+            try {
+                replay(current.get(waitTimeoutMs, TimeUnit.MILLISECONDS), response);
+                return;
+            } catch (ExecutionException | CancellationException e) {
+                // L'exécution d'origine a échoué : on retente la réservation
+            } catch (TimeoutException e) {
+                response.sendError(HttpStatus.CONFLICT.value(), "Requête identique toujours en cours");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+                return;
+            }
+        }
+    }
+
+    private void execute(String key, CompletableFuture<StoredResponse> owned, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            if (isFinal(status) && !request.isAsyncStarted()) {
+                idempotencyCache.complete(owned, new StoredResponse(status, wrapper.getContentType(),
+                        wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyCache.abandon(key, owned);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        if (stored.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+        }
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    // Les 400 du contrôleur couvrent aussi des refus passagers (stock, panier occupé) :
+    // seuls les statuts qui ne dépendent pas de l'état courant sont rejoués
+    private static boolean isFinal(int status) {
+        return (status >= 200 && status < 300)
+                || status == HttpStatus.NOT_FOUND.value()
+                || status == HttpStatus.METHOD_NOT_ALLOWED.value()
+                || status == HttpStatus.GONE.value()
+                || status == HttpStatus.PAYLOAD_TOO_LARGE.value()
+                || status == HttpStatus.UNSUPPORTED_MEDIA_TYPE.value()
+                || status == HttpStatus.UNPROCESSABLE_ENTITY.value();
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    // Empreinte SHA-256 de la méthode, de la ressource et du contenu de la requête
+    private static String fingerprint(HttpServletRequest request) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String query = request.getQueryString();
+            digest.update((request.getMethod() + ' ' + request.getRequestURI()
+                    + (query != null ? '?' + query : "") + '\n').getBytes(StandardCharsets.UTF_8));
+            if (request instanceof CachedBodyRequest cached) {
+                digest.update(cached.body);
+            } else {
+                Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+                parameters.forEach((name, values) ->
+                        digest.update((name + '=' + String.join(",", values) + '&').getBytes(StandardCharsets.UTF_8)));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Requête dont le corps est lu une fois pour l'empreinte puis relu par le contrôleur
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Corps déjà en mémoire : tout est disponible dès l'enregistrement de l'écouteur
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    if (listener == null) {
+                        throw new NullPointerException("ReadListener null");
+                    }
+                    if (!isAsyncStarted()) {
+                        throw new IllegalStateException("Lecture non bloquante hors d'une requête asynchrone");
+                    }
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
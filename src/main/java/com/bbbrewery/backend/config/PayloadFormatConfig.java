@@ -0,0 +1,42 @@
+package com.bbbrewery.backend.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Négociation de contenu : Accept: application/x-jackson-smile ou application/cbor
+ * pour une réponse binaire plus compacte ; JSON reste le format par défaut.
+ */
+@Configuration
+public class PayloadFormatConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private PayloadFormats payloadFormats;
+
+    // Sans paramètre fields=, les classes filtrables sont sérialisées en entier
+    @Bean
+    public static Jackson2ObjectMapperBuilderCustomizer sparseFieldsetFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Les convertisseurs par défaut ignorent la configuration Jackson de l'application
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        // Après JSON : un client sans préférence reçoit toujours du JSON
+        converters.add(new MappingJackson2SmileHttpMessageConverter(payloadFormats.getSmileMapper()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(payloadFormats.getCborMapper()));
+    }
+}
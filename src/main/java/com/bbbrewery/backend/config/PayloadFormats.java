@@ -0,0 +1,42 @@
+package com.bbbrewery.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mappers Jackson des formats de réponse : JSON (mapper de l'application) et les
+ * encodages binaires compatibles JSON Smile et CBOR, construits avec la même
+ * configuration (modules, dates, filtre fields=).
+ */
+@Component
+public class PayloadFormats {
+
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String CBOR = "application/cbor";
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final ObjectMapper cborMapper;
+
+    public PayloadFormats(ObjectMapper jsonMapper, ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+        this.jsonMapper = jsonMapper;
+        this.smileMapper = builder.getObject().factory(new SmileFactory()).build();
+        this.cborMapper = builder.getObject().factory(new CBORFactory()).build();
+    }
+
+    public ObjectMapper getJsonMapper() {
+        return jsonMapper;
+    }
+
+    public ObjectMapper getSmileMapper() {
+        return smileMapper;
+    }
+
+    public ObjectMapper getCborMapper() {
+        return cborMapper;
+    }
+}
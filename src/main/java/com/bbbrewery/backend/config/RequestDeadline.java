@@ -0,0 +1,152 @@
+package com.bbbrewery.backend.config;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Échéance de la requête HTTP en cours, attachée au thread qui la traite.
+ * Chaque instruction JDBC exécutée sur ce thread (JdbcTemplate comme Hibernate)
+ * reçoit le temps restant comme délai d'exécution : à expiration, le pilote Oracle
+ * annule la requête côté serveur et la connexion est rendue au pool.
+ * Les tâches confiées à un pool de threads pour le compte de la requête emportent
+ * l'échéance avec elles (wrap), sinon leurs instructions ne sont pas bornées.
+ */
+public final class RequestDeadline {
+
+    // Erreur Oracle levée quand le délai d'exécution annule la requête
+    private static final int ORA_USER_REQUESTED_CANCEL = 1013;
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final long expiresAtNanos;
+    private final EndpointCounters counters;
+
+    RequestDeadline(String endpoint, long budgetMs, EndpointCounters counters) {
+        this.endpoint = endpoint;
+        this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        this.counters = counters;
+    }
+
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    static void start(RequestDeadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Tâche exécutée sous l'échéance du thread appelant, capturée maintenant
+     * (au moment de la soumission au pool) ; sans échéance, la tâche est rendue telle quelle
+     */
+    public static Runnable wrap(Runnable task) {
+        RequestDeadline deadline = current();
+        return deadline != null ? deadline.bind(task) : task;
+    }
+
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        RequestDeadline deadline = current();
+        return deadline != null ? deadline.bind(task) : task;
+    }
+
+    /**
+     * Échéance la plus tardive de deux appelants d'un même traitement partagé ;
+     * un appelant sans échéance (null) rend le traitement non borné
+     */
+    public static RequestDeadline latest(RequestDeadline first, RequestDeadline second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        return second.expiresAtNanos - first.expiresAtNanos > 0 ? second : first;
+    }
+
+    /**
+     * Tâche exécutée sous cette échéance, sur n'importe quel thread ; l'échéance
+     * précédente du thread est rétablie à la fin
+     */
+    public Runnable bind(Runnable task) {
+        return () -> {
+            RequestDeadline previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public <V> Callable<V> bind(Callable<V> task) {
+        return () -> {
+            RequestDeadline previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(RequestDeadline previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRemainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime());
+    }
+
+    /**
+     * Borne le délai d'exécution de l'instruction au temps restant (arrondi à la
+     * seconde supérieure, granularité JDBC). Une échéance déjà dépassée n'envoie
+     * rien à la base.
+     */
+    void applyTo(Statement statement) throws SQLException {
+        long remainingMs = getRemainingMillis();
+        if (remainingMs <= 0) {
+            counters.expired.incrementAndGet();
+            throw new SQLTimeoutException("Échéance de la requête dépassée avant l'exécution (" + endpoint + ")");
+        }
+        int seconds = (int) Math.min(Integer.MAX_VALUE, (remainingMs + 999) / 1000);
+        int current = statement.getQueryTimeout();
+        if (current == 0 || seconds < current) {
+            statement.setQueryTimeout(seconds);
+        }
+    }
+
+    /**
+     * Compte l'annulation si l'erreur vient du délai d'exécution
+     */
+    void recordFailure(SQLException e) {
+        if (e instanceof SQLTimeoutException || e.getErrorCode() == ORA_USER_REQUESTED_CANCEL) {
+            counters.cancelled.incrementAndGet();
+        }
+    }
+
+    /**
+     * Compteurs d'un endpoint (méthode + motif du chemin)
+     */
+    static final class EndpointCounters {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong cancelled = new AtomicLong();
+        final AtomicLong expired = new AtomicLong();
+        volatile long budgetMs;
+    }
+}
@@ -0,0 +1,125 @@
+package com.bbbrewery.backend.config;
+
+import com.bbbrewery.backend.config.RequestDeadline.EndpointCounters;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ouvre l'échéance de chaque appel d'API avant le contrôleur. Le budget de l'endpoint
+ * est le délai configuré pour le chemin (request.deadline.endpoints, premier motif
+ * correspondant), sinon le délai par défaut, borné par max-ms. L'en-tête
+ * X-Request-Timeout-Ms peut le réduire, pas le dépasser. Les annulations sont comptées par endpoint.
+ */
+@Component
+public class RequestDeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, EndpointCounters> counters = new ConcurrentHashMap<>();
+
+    private final long defaultMs;
+    private final long maxMs;
+    // Motif de chemin -> délai (ms), dans l'ordre de la configuration
+    private final Map<String, Long> endpointBudgets = new LinkedHashMap<>();
+
+    public RequestDeadlineInterceptor(@Value("${request.deadline.default-ms:10000}") long defaultMs,
+                                      @Value("${request.deadline.max-ms:60000}") long maxMs,
+                                      @Value("${request.deadline.endpoints:}") String[] endpoints) {
+        this.defaultMs = defaultMs;
+        this.maxMs = maxMs;
+        for (String entry : endpoints) {
+            int separator = entry.lastIndexOf(':');
+            if (separator > 0) {
+                endpointBudgets.put(entry.substring(0, separator).trim(),
+                        Long.parseLong(entry.substring(separator + 1).trim()));
+            }
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String endpoint = endpointOf(request);
+        EndpointCounters endpointCounters = counters.computeIfAbsent(endpoint, key -> new EndpointCounters());
+        long budgetMs = budgetOf(request);
+        endpointCounters.requests.incrementAndGet();
+        endpointCounters.budgetMs = budgetMs;
+        RequestDeadline.start(new RequestDeadline(endpoint, budgetMs, endpointCounters));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+
+    // Réponse asynchrone (SSE) : le thread de la requête est libéré, l'échéance aussi
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+    }
+
+    /**
+     * Budgets et annulations par endpoint
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> endpoints = new TreeMap<>();
+        counters.forEach((endpoint, endpointCounters) -> {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("requests", endpointCounters.requests.get());
+            entry.put("budgetMs", endpointCounters.budgetMs);
+            entry.put("cancelledQueries", endpointCounters.cancelled.get());
+            entry.put("expiredBeforeExecution", endpointCounters.expired.get());
+            endpoints.put(endpoint, entry);
+        });
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("defaultMs", defaultMs);
+        statistics.put("maxMs", maxMs);
+        statistics.put("configuredEndpoints", endpointBudgets);
+        statistics.put("cancelledQueries", counters.values().stream().mapToLong(c -> c.cancelled.get()).sum());
+        statistics.put("endpoints", endpoints);
+        return statistics;
+    }
+
+    // L'en-tête peut raccourcir le budget de l'endpoint, jamais l'allonger
+    private long budgetOf(HttpServletRequest request) {
+        long endpointBudget = endpointBudgetOf(request);
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                long requested = Long.parseLong(header.trim());
+                if (requested > 0) {
+                    return Math.min(requested, endpointBudget);
+                }
+            } catch (NumberFormatException e) {
+                // En-tête invalide : délai de l'endpoint
+            }
+        }
+        return endpointBudget;
+    }
+
+    private long endpointBudgetOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Map.Entry<String, Long> entry : endpointBudgets.entrySet()) {
+            if (pathMatcher.match(entry.getKey(), path)) {
+                return Math.min(entry.getValue(), maxMs);
+            }
+        }
+        return Math.min(defaultMs, maxMs);
+    }
+
+    // Méthode + motif de la route (/api/products/{id}) : une entrée par endpoint, pas par URL
+    private static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
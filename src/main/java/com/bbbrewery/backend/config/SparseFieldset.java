@@ -0,0 +1,38 @@
+package com.bbbrewery.backend.config;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Paramètre fields= des API : liste des propriétés à sérialiser, séparées par des
+ * virgules (ex. ?fields=id,productName,price). Les classes annotées
+ * {@code @JsonFilter(SparseFieldset.FILTER_ID)} ne sérialisent que ces propriétés.
+ * Seuls GET /api/products et /api/products/active lisent alors moins de colonnes
+ * (ProductProjectionRepository) ; ailleurs la ligne complète est chargée et seule
+ * la réponse est réduite.
+ */
+public final class SparseFieldset {
+
+    public static final String PARAMETER = "fields";
+    public static final String FILTER_ID = "sparseFieldset";
+
+    private SparseFieldset() {
+    }
+
+    /**
+     * Propriétés demandées, dans l'ordre ; vide si le paramètre est absent
+     */
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Collections.emptySet();
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+}
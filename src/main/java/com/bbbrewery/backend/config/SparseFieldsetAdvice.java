@@ -0,0 +1,40 @@
+package com.bbbrewery.backend.config;
+
+import com.bbbrewery.backend.controller.BasketController;
+import com.bbbrewery.backend.controller.ProductController;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Set;
+
+/**
+ * Applique le paramètre fields= aux réponses des produits et des paniers, quel que
+ * soit le format négocié (JSON, Smile, CBOR). Seules les propriétés de premier niveau
+ * sont filtrées : les articles d'un panier demandés via items restent complets.
+ */
+@RestControllerAdvice(assignableTypes = {ProductController.class, BasketController.class})
+public class SparseFieldsetAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        Set<String> fields = SparseFieldset.parse(servletRequest.getServletRequest().getParameter(SparseFieldset.PARAMETER));
+        if (!fields.isEmpty()) {
+            bodyContainer.setFilters(new SimpleFilterProvider()
+                    .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                    .addFilter(SparseFieldset.FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.bbbrewery.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chargement initial des caches en mémoire (lecture complète d'une table au démarrage).
+ * Par défaut le chargement a lieu tout de suite, pendant le démarrage du contexte.
+ * Avec startup.async-cache-warmup=true (profil faststart), les chargements sont mis en
+ * attente puis exécutés l'un après l'autre sur un thread d'arrière-plan une fois
+ * l'application prête : les caches répondent par SQL tant qu'ils ne sont pas chargés,
+ * et un seul chargement à la fois occupe une connexion du pool.
+ */
+@Component
+public class StartupCacheWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupCacheWarmup.class);
+
+    private final boolean async;
+
+    // Chargements en attente de l'application prête ; modifiés sous le verrou de l'instance
+    private final Map<String, Runnable> pending = new LinkedHashMap<>();
+    private boolean ready;
+
+    public StartupCacheWarmup(@Value("${startup.async-cache-warmup:false}") boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Charge un cache maintenant, ou après le démarrage en mode asynchrone
+     */
+    public void load(String cacheName, Runnable loader) {
+        if (!async) {
+            loader.run();
+            return;
+        }
+        synchronized (this) {
+            if (!ready) {
+                pending.put(cacheName, loader);
+                return;
+            }
+        }
+        // Bean créé après le démarrage (initialisation différée) : chargé à part
+        start(Map.of(cacheName, loader));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpAfterStartup() {
+        Map<String, Runnable> loaders;
+        synchronized (this) {
+            ready = true;
+            loaders = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        if (!loaders.isEmpty()) {
+            start(loaders);
+        }
+    }
+
+    private void start(Map<String, Runnable> loaders) {
+        Thread thread = new Thread(() -> warmUp(loaders), "cache-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp(Map<String, Runnable> loaders) {
+        long start = System.currentTimeMillis();
+        List<String> timings = new ArrayList<>(loaders.size());
+        loaders.forEach((cacheName, loader) -> {
+            long cacheStart = System.currentTimeMillis();
+            try {
+                loader.run();
+            } catch (RuntimeException e) {
+                log.warn("Chargement en arrière-plan du cache {} impossible : {}", cacheName, e.getMessage());
+            }
+            timings.add(cacheName + "=" + (System.currentTimeMillis() - cacheStart) + " ms");
+        });
+        log.info("{} cache(s) chargé(s) en arrière-plan en {} ms ({})",
+                loaders.size(), System.currentTimeMillis() - start, String.join(", ", timings));
+    }
+}
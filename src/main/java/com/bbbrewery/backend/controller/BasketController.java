@@ -1,26 +1,58 @@
 package com.bbbrewery.backend.controller;
 
+import com.bbbrewery.backend.dto.BasketDTO;
+import com.bbbrewery.backend.dto.ProcedureItemDTO;
 import com.bbbrewery.backend.model.Basket;
+import com.bbbrewery.backend.model.BasketFetchPlan;
 import com.bbbrewery.backend.model.BasketStatus;
+import com.bbbrewery.backend.service.AbandonedBasketSweeper;
+import com.bbbrewery.backend.service.BasketLockRegistry.BasketBusyException;
 import com.bbbrewery.backend.service.BasketService;
+import com.bbbrewery.backend.service.CheckoutQueue;
+import com.bbbrewery.backend.service.CheckoutTicket;
+import com.bbbrewery.backend.service.IdempotencyCache;
+import com.bbbrewery.backend.service.ProcedureBatchService;
+import com.bbbrewery.backend.service.ProcedureBatchService.ProcedureBatchResult;
+import com.bbbrewery.backend.service.ShopperVisitTracker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/baskets")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:4200"}, allowCredentials = "false")
 public class BasketController {
 
+    private static final long MAX_TICKET_WAIT_MS = 25_000;
+
     @Autowired
     private BasketService basketService;
 
+    @Autowired
+    private CheckoutQueue checkoutQueue;
+
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+
+    @Autowired
+    private AbandonedBasketSweeper abandonedBasketSweeper;
+
+    @Autowired
+    private ProcedureBatchService procedureBatchService;
+
+    @Autowired
+    private ShopperVisitTracker shopperVisitTracker;
+
     // ========== RÉCUPÉRATION DES PANIERS ==========
     /**
      * Test endpoint - données simulées
@@ -117,15 +149,20 @@ public class BasketController {
     }
 
     /**
-     * Récupère un panier par son ID
-     * GET /api/baskets/{id}
+     * Récupère un panier par son ID (en-tête, ou selon un plan de chargement)
+     * GET /api/baskets/{id}?fetch={summary|with-items|with-items-and-products|full}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Basket> getBasketById(@PathVariable Long id) {
+    public ResponseEntity<BasketDTO> getBasketById(@PathVariable Long id,
+                                                   @RequestParam(required = false) String fetch) {
         try {
-            Optional<Basket> basket = basketService.getBasketById(id);
+            Optional<BasketDTO> basket = fetch == null
+                    ? basketService.getBasketDTOById(id)
+                    : basketService.getBasketDTOById(id, BasketFetchPlan.fromParameter(fetch));
             return basket.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -136,9 +173,9 @@ public class BasketController {
      * GET /api/baskets/{id}/with-items
      */
     @GetMapping("/{id}/with-items")
-    public ResponseEntity<Basket> getBasketByIdWithItems(@PathVariable Long id) {
+    public ResponseEntity<BasketDTO> getBasketByIdWithItems(@PathVariable Long id) {
         try {
-            Optional<Basket> basket = basketService.getBasketByIdWithItems(id);
+            Optional<BasketDTO> basket = basketService.getBasketDTOWithItems(id);
             return basket.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
@@ -151,9 +188,9 @@ public class BasketController {
      * GET /api/baskets/shopper/{shopperId}
      */
     @GetMapping("/shopper/{shopperId}")
-    public ResponseEntity<List<Basket>> getBasketsByShopperId(@PathVariable Long shopperId) {
+    public ResponseEntity<List<BasketDTO>> getBasketsByShopperId(@PathVariable Long shopperId) {
         try {
-            List<Basket> baskets = basketService.getBasketsByShopperId(shopperId);
+            List<BasketDTO> baskets = basketService.getBasketDTOsByShopperId(shopperId);
             return ResponseEntity.ok(baskets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -161,15 +198,22 @@ public class BasketController {
     }
 
     /**
-     * Récupère le panier actif d'un client
-     * GET /api/baskets/shopper/{shopperId}/active
+     * Récupère le panier actif d'un client (en-tête, ou selon un plan de chargement)
+     * GET /api/baskets/shopper/{shopperId}/active?fetch={summary|with-items|with-items-and-products|full}
      */
     @GetMapping("/shopper/{shopperId}/active")
-    public ResponseEntity<Basket> getActiveBasketByShopperId(@PathVariable Long shopperId) {
-        try {
-            Optional<Basket> basket = basketService.getActiveBasketByShopperId(shopperId);
+    public ResponseEntity<BasketDTO> getActiveBasketByShopperId(@PathVariable Long shopperId,
+                                                                @RequestParam(required = false) String fetch) {
+        // Le client consulte son panier : visite (DTLAST écrit en différé)
+        shopperVisitTracker.recordVisit(shopperId);
+        try {
+            Optional<BasketDTO> basket = fetch == null
+                    ? basketService.getActiveBasketDTOByShopperId(shopperId)
+                    : basketService.getActiveBasketDTOByShopperId(shopperId, BasketFetchPlan.fromParameter(fetch));
             return basket.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -180,9 +224,10 @@ public class BasketController {
      * GET /api/baskets/shopper/{shopperId}/active/with-items
      */
     @GetMapping("/shopper/{shopperId}/active/with-items")
-    public ResponseEntity<Basket> getActiveBasketWithItemsByShopperId(@PathVariable Long shopperId) {
+    public ResponseEntity<BasketDTO> getActiveBasketWithItemsByShopperId(@PathVariable Long shopperId) {
+        shopperVisitTracker.recordVisit(shopperId);
         try {
-            Optional<Basket> basket = basketService.getActiveBasketWithItemsByShopperId(shopperId);
+            Optional<BasketDTO> basket = basketService.getActiveBasketDTOWithItemsByShopperId(shopperId);
             return basket.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
@@ -195,9 +240,9 @@ public class BasketController {
      * GET /api/baskets/status/{status}
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Basket>> getBasketsByStatus(@PathVariable BasketStatus status) {
+    public ResponseEntity<List<BasketDTO>> getBasketsByStatus(@PathVariable BasketStatus status) {
         try {
-            List<Basket> baskets = basketService.getBasketsByStatus(status);
+            List<BasketDTO> baskets = basketService.getBasketDTOsByStatus(status);
             return ResponseEntity.ok(baskets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -209,11 +254,11 @@ public class BasketController {
      * GET /api/baskets/created-between
      */
     @GetMapping("/created-between")
-    public ResponseEntity<List<Basket>> getBasketsByDateCreated(
+    public ResponseEntity<List<BasketDTO>> getBasketsByDateCreated(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         try {
-            List<Basket> baskets = basketService.getBasketsByDateCreated(startDate, endDate);
+            List<BasketDTO> baskets = basketService.getBasketDTOsByDateCreated(startDate, endDate);
             return ResponseEntity.ok(baskets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -225,11 +270,11 @@ public class BasketController {
      * GET /api/baskets/ordered-between
      */
     @GetMapping("/ordered-between")
-    public ResponseEntity<List<Basket>> getBasketsByDateOrdered(
+    public ResponseEntity<List<BasketDTO>> getBasketsByDateOrdered(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         try {
-            List<Basket> baskets = basketService.getBasketsByDateOrdered(startDate, endDate);
+            List<BasketDTO> baskets = basketService.getBasketDTOsByDateOrdered(startDate, endDate);
             return ResponseEntity.ok(baskets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -241,9 +286,9 @@ public class BasketController {
      * GET /api/baskets/minimum-total/{minAmount}
      */
     @GetMapping("/minimum-total/{minAmount}")
-    public ResponseEntity<List<Basket>> getBasketsByMinimumTotal(@PathVariable BigDecimal minAmount) {
+    public ResponseEntity<List<BasketDTO>> getBasketsByMinimumTotal(@PathVariable BigDecimal minAmount) {
         try {
-            List<Basket> baskets = basketService.getBasketsByMinimumTotal(minAmount);
+            List<BasketDTO> baskets = basketService.getBasketDTOsByMinimumTotal(minAmount);
             return ResponseEntity.ok(baskets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -255,11 +300,11 @@ public class BasketController {
      * GET /api/baskets/recent
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<Basket>> getRecentBaskets(
+    public ResponseEntity<List<BasketDTO>> getRecentBaskets(
             @RequestParam(defaultValue = "24") int hours) {
         try {
             LocalDateTime since = LocalDateTime.now().minusHours(hours);
-            List<Basket> baskets = basketService.getRecentBaskets(since);
+            List<BasketDTO> baskets = basketService.getRecentBasketDTOs(since);
             return ResponseEntity.ok(baskets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -271,17 +316,38 @@ public class BasketController {
      * GET /api/baskets/abandoned
      */
     @GetMapping("/abandoned")
-    public ResponseEntity<List<Basket>> getAbandonedBaskets(
+    public ResponseEntity<List<BasketDTO>> getAbandonedBaskets(
             @RequestParam(defaultValue = "7") int days) {
         try {
             LocalDateTime cutoffDate = LocalDateTime.now().minusDays(days);
-            List<Basket> baskets = basketService.getAbandonedBaskets(cutoffDate);
+            List<BasketDTO> baskets = basketService.getAbandonedBasketDTOs(cutoffDate);
             return ResponseEntity.ok(baskets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Métriques du balayage des paniers abandonnés
+     * GET /api/baskets/sweeper/status
+     */
+    @GetMapping("/sweeper/status")
+    public ResponseEntity<Map<String, Object>> getSweeperStatus() {
+        return ResponseEntity.ok(abandonedBasketSweeper.getStatistics());
+    }
+
+    /**
+     * Lance immédiatement un balayage des paniers abandonnés
+     * POST /api/baskets/sweeper/run
+     */
+    @PostMapping("/sweeper/run")
+    public ResponseEntity<Map<String, Object>> runSweeper() {
+        if (!abandonedBasketSweeper.sweep()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(abandonedBasketSweeper.getStatistics());
+        }
+        return ResponseEntity.ok(abandonedBasketSweeper.getStatistics());
+    }
+
     // ========== CRÉATION ET MODIFICATION ==========
 
     /**
@@ -289,10 +355,11 @@ public class BasketController {
      * POST /api/baskets
      */
     @PostMapping
-    public ResponseEntity<Basket> createBasket(@RequestParam Long shopperId) {
+    public ResponseEntity<BasketDTO> createBasket(@RequestParam Long shopperId) {
         try {
             Basket createdBasket = basketService.createBasket(shopperId);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdBasket);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(basketService.getBasketDTOById(createdBasket.getId()).orElseThrow());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -305,12 +372,14 @@ public class BasketController {
      * POST /api/baskets/{basketId}/items
      */
     @PostMapping("/{basketId}/items")
-    public ResponseEntity<Basket> addItemToBasket(@PathVariable Long basketId,
+    public ResponseEntity<BasketDTO> addItemToBasket(@PathVariable Long basketId,
                                                   @RequestParam Long productId,
                                                   @RequestParam int quantity) {
         try {
-            Basket updatedBasket = basketService.addItemToBasket(basketId, productId, quantity);
-            return ResponseEntity.ok(updatedBasket);
+            basketService.addItemToBasket(basketId, productId, quantity);
+            return ResponseEntity.ok(basketService.getBasketDTOWithItems(basketId).orElseThrow());
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -329,6 +398,8 @@ public class BasketController {
         try {
             basketService.addItemViaProcedure(basketId, productId, quantity);
             return ResponseEntity.ok().build();
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -336,17 +407,33 @@ public class BasketController {
         }
     }
 
+    /**
+     * Ajoute des articles à plusieurs paniers via procédure stockée, par blocs d'appels
+     * POST /api/baskets/items/procedure/batch
+     */
+    @PostMapping("/items/procedure/batch")
+    public ResponseEntity<ProcedureBatchResult> addItemsViaProcedure(@RequestBody List<ProcedureItemDTO> items) {
+        try {
+            ProcedureBatchResult result = procedureBatchService.addItems(items);
+            return ResponseEntity.status(result.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Met à jour la quantité d'un article
      * PUT /api/baskets/{basketId}/items/{productId}
      */
     @PutMapping("/{basketId}/items/{productId}")
-    public ResponseEntity<Basket> updateItemQuantity(@PathVariable Long basketId,
+    public ResponseEntity<BasketDTO> updateItemQuantity(@PathVariable Long basketId,
                                                      @PathVariable Long productId,
                                                      @RequestParam int quantity) {
         try {
-            Basket updatedBasket = basketService.updateItemQuantity(basketId, productId, quantity);
-            return ResponseEntity.ok(updatedBasket);
+            basketService.updateItemQuantity(basketId, productId, quantity);
+            return ResponseEntity.ok(basketService.getBasketDTOWithItems(basketId).orElseThrow());
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -359,11 +446,13 @@ public class BasketController {
      * DELETE /api/baskets/{basketId}/items/{productId}
      */
     @DeleteMapping("/{basketId}/items/{productId}")
-    public ResponseEntity<Basket> removeItemFromBasket(@PathVariable Long basketId,
+    public ResponseEntity<BasketDTO> removeItemFromBasket(@PathVariable Long basketId,
                                                        @PathVariable Long productId) {
         try {
-            Basket updatedBasket = basketService.removeItemFromBasket(basketId, productId);
-            return ResponseEntity.ok(updatedBasket);
+            basketService.removeItemFromBasket(basketId, productId);
+            return ResponseEntity.ok(basketService.getBasketDTOWithItems(basketId).orElseThrow());
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -376,10 +465,12 @@ public class BasketController {
      * DELETE /api/baskets/{basketId}/items
      */
     @DeleteMapping("/{basketId}/items")
-    public ResponseEntity<Basket> clearBasket(@PathVariable Long basketId) {
+    public ResponseEntity<BasketDTO> clearBasket(@PathVariable Long basketId) {
         try {
-            Basket clearedBasket = basketService.clearBasket(basketId);
-            return ResponseEntity.ok(clearedBasket);
+            basketService.clearBasket(basketId);
+            return ResponseEntity.ok(basketService.getBasketDTOWithItems(basketId).orElseThrow());
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -396,6 +487,8 @@ public class BasketController {
         try {
             basketService.deleteBasket(basketId);
             return ResponseEntity.noContent().build();
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -410,10 +503,12 @@ public class BasketController {
      * POST /api/baskets/{basketId}/checkout
      */
     @PostMapping("/{basketId}/checkout")
-    public ResponseEntity<Basket> checkoutBasket(@PathVariable Long basketId) {
+    public ResponseEntity<BasketDTO> checkoutBasket(@PathVariable Long basketId) {
         try {
-            Basket checkedOutBasket = basketService.checkoutBasket(basketId);
-            return ResponseEntity.ok(checkedOutBasket);
+            basketService.checkoutBasket(basketId);
+            return ResponseEntity.ok(basketService.getBasketDTOWithItems(basketId).orElseThrow());
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -421,16 +516,82 @@ public class BasketController {
         }
     }
 
+    /**
+     * Dépose une commande dans la file de checkout asynchrone
+     * POST /api/baskets/{basketId}/checkout?async=true
+     */
+    @PostMapping(value = "/{basketId}/checkout", params = "async=true")
+    public ResponseEntity<CheckoutTicket> checkoutBasketAsync(@PathVariable Long basketId) {
+        try {
+            CheckoutTicket ticket = checkoutQueue.submit(basketId);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/baskets/checkout/tickets/" + ticket.getTicketId()))
+                    .body(ticket);
+        } catch (CheckoutQueue.CheckoutQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .build();
+        }
+    }
+
+    /**
+     * Consulte l'état d'un ticket de checkout (attente optionnelle jusqu'à waitMs)
+     * GET /api/baskets/checkout/tickets/{ticketId}?waitMs=5000
+     */
+    @GetMapping("/checkout/tickets/{ticketId}")
+    public DeferredResult<ResponseEntity<CheckoutTicket>> getCheckoutTicket(@PathVariable String ticketId,
+                                                                           @RequestParam(defaultValue = "0") long waitMs) {
+        DeferredResult<ResponseEntity<CheckoutTicket>> result = new DeferredResult<>();
+        Optional<CheckoutTicket> ticket = checkoutQueue.getTicket(ticketId);
+        if (ticket.isEmpty()) {
+            result.setResult(ResponseEntity.notFound().build());
+            return result;
+        }
+
+        CheckoutTicket current = ticket.get();
+        long wait = Math.min(Math.max(waitMs, 0), MAX_TICKET_WAIT_MS);
+        if (current.isDone() || wait == 0) {
+            result.setResult(ResponseEntity.ok(current));
+            return result;
+        }
+
+        // copy() : le délai ne doit pas compléter le future partagé du ticket
+        current.getCompletion().copy()
+                .completeOnTimeout(current, wait, TimeUnit.MILLISECONDS)
+                .thenAccept(done -> result.setResult(ResponseEntity.ok(done)));
+        return result;
+    }
+
+    /**
+     * État de la file de checkout asynchrone
+     * GET /api/baskets/checkout/queue/status
+     */
+    @GetMapping("/checkout/queue/status")
+    public ResponseEntity<Map<String, Object>> getCheckoutQueueStatus() {
+        return ResponseEntity.ok(checkoutQueue.getStatistics());
+    }
+
+    /**
+     * État du cache d'idempotence des mutations (en-tête Idempotency-Key)
+     * GET /api/baskets/idempotency/status
+     */
+    @GetMapping("/idempotency/status")
+    public ResponseEntity<Map<String, Object>> getIdempotencyStatus() {
+        return ResponseEntity.ok(idempotencyCache.getStatistics());
+    }
+
     /**
      * Met à jour le statut du panier
      * PATCH /api/baskets/{basketId}/status
      */
     @PatchMapping("/{basketId}/status")
-    public ResponseEntity<Basket> updateBasketStatus(@PathVariable Long basketId,
+    public ResponseEntity<BasketDTO> updateBasketStatus(@PathVariable Long basketId,
                                                      @RequestParam BasketStatus status) {
         try {
-            Basket updatedBasket = basketService.updateBasketStatus(basketId, status);
-            return ResponseEntity.ok(updatedBasket);
+            basketService.updateBasketStatus(basketId, status);
+            return ResponseEntity.ok(basketService.getBasketDTOWithItems(basketId).orElseThrow());
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -445,11 +606,13 @@ public class BasketController {
      * PATCH /api/baskets/{basketId}/tax
      */
     @PatchMapping("/{basketId}/tax")
-    public ResponseEntity<Basket> updateBasketTax(@PathVariable Long basketId,
+    public ResponseEntity<BasketDTO> updateBasketTax(@PathVariable Long basketId,
                                                   @RequestParam BigDecimal tax) {
         try {
-            Basket updatedBasket = basketService.updateBasketTax(basketId, tax);
-            return ResponseEntity.ok(updatedBasket);
+            basketService.updateBasketTax(basketId, tax);
+            return ResponseEntity.ok(basketService.getBasketDTOWithItems(basketId).orElseThrow());
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -462,11 +625,13 @@ public class BasketController {
      * PATCH /api/baskets/{basketId}/shipping
      */
     @PatchMapping("/{basketId}/shipping")
-    public ResponseEntity<Basket> updateBasketShipping(@PathVariable Long basketId,
+    public ResponseEntity<BasketDTO> updateBasketShipping(@PathVariable Long basketId,
                                                        @RequestParam BigDecimal shipping) {
         try {
-            Basket updatedBasket = basketService.updateBasketShipping(basketId, shipping);
-            return ResponseEntity.ok(updatedBasket);
+            basketService.updateBasketShipping(basketId, shipping);
+            return ResponseEntity.ok(basketService.getBasketDTOWithItems(basketId).orElseThrow());
+        } catch (BasketBusyException e) {
+            return basketBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -522,6 +687,23 @@ public class BasketController {
         }
     }
 
+    /**
+     * Récupère le montant cumulé et le nombre de commandes d'un client (agrégats en mémoire)
+     * GET /api/baskets/shopper/{shopperId}/lifetime-value
+     */
+    @GetMapping("/shopper/{shopperId}/lifetime-value")
+    public ResponseEntity<Map<String, Object>> getLifetimeValueByShopperId(@PathVariable Long shopperId) {
+        return basketService.getLifetimeValueByShopperId(shopperId)
+                .map(value -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("shopperId", shopperId);
+                    response.put("totalSpent", value.getTotalSpent());
+                    response.put("orderCount", value.getOrderCount());
+                    return ResponseEntity.ok(response);
+                })
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
     /**
      * Vérifie si un produit est en promotion via fonction stockée
      * GET /api/baskets/product/{productId}/on-sale
@@ -635,10 +817,8 @@ public class BasketController {
     @GetMapping("/{basketId}/is-empty")
     public ResponseEntity<Boolean> isBasketEmpty(@PathVariable Long basketId) {
         try {
-            Optional<Basket> basketOpt = basketService.getBasketByIdWithItems(basketId);
-            if (basketOpt.isPresent()) {
-                return ResponseEntity.ok(basketOpt.get().isEmpty());
-            }
+            return ResponseEntity.ok(basketService.isBasketEmpty(basketId));
+        } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -652,10 +832,8 @@ public class BasketController {
     @GetMapping("/{basketId}/is-active")
     public ResponseEntity<Boolean> isBasketActive(@PathVariable Long basketId) {
         try {
-            Optional<Basket> basketOpt = basketService.getBasketById(basketId);
-            if (basketOpt.isPresent()) {
-                return ResponseEntity.ok(basketOpt.get().isActive());
-            }
+            return ResponseEntity.ok(basketService.isBasketActive(basketId));
+        } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -669,10 +847,8 @@ public class BasketController {
     @GetMapping("/{basketId}/contains-product/{productId}")
     public ResponseEntity<Boolean> containsProduct(@PathVariable Long basketId, @PathVariable Long productId) {
         try {
-            Optional<Basket> basketOpt = basketService.getBasketByIdWithItems(basketId);
-            if (basketOpt.isPresent()) {
-                return ResponseEntity.ok(basketOpt.get().containsProduct(productId));
-            }
+            return ResponseEntity.ok(basketService.basketContainsProduct(basketId, productId));
+        } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -695,4 +871,19 @@ public class BasketController {
         }
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erreur interne du serveur");
     }
+
+    /**
+     * Gestion d'exception pour les paniers verrouillés (503 + Retry-After)
+     */
+    @ExceptionHandler(BasketBusyException.class)
+    public ResponseEntity<String> handleBasketBusy(BasketBusyException e) {
+        return basketBusy();
+    }
+
+    // Panier verrouillé ou en conflit : réessayable, pas une requête invalide
+    private static <T> ResponseEntity<T> basketBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
 package com.bbbrewery.backend.controller;
 
+import com.bbbrewery.backend.config.DatabaseCircuitBreaker;
+import com.bbbrewery.backend.config.DeferredSchemaValidator;
+import com.bbbrewery.backend.config.RequestDeadlineInterceptor;
+import com.bbbrewery.backend.config.SparseFieldset;
+import com.bbbrewery.backend.service.PayloadBenchmark;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.sql.DataSource;
@@ -17,9 +24,25 @@ import java.util.Map;
 @RequestMapping("/api/test")
 public class DatabaseTestController {
 
+    // Chaque itération sérialise le catalogue entier trois fois, sur le thread de la requête
+    private static final int MAX_BENCHMARK_ITERATIONS = 50;
+
     @Autowired
     private DataSource dataSource;
 
+    // Présent uniquement avec le profil faststart
+    @Autowired
+    private ObjectProvider<DeferredSchemaValidator> deferredSchemaValidator;
+
+    @Autowired
+    private DatabaseCircuitBreaker databaseCircuitBreaker;
+
+    @Autowired
+    private RequestDeadlineInterceptor requestDeadlineInterceptor;
+
+    @Autowired
+    private PayloadBenchmark payloadBenchmark;
+
     /**
      * Test de connexion à la base de données
      * GET /api/test/db-connection
@@ -135,4 +158,51 @@ public class DatabaseTestController {
 
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+    /**
+     * Résultat de la validation du schéma (différée avec le profil faststart)
+     * GET /api/test/schema-validation
+     */
+    @GetMapping("/schema-validation")
+    public ResponseEntity<Map<String, Object>> getSchemaValidation() {
+        DeferredSchemaValidator validator = deferredSchemaValidator.getIfAvailable();
+        if (validator == null) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("outcome", "validé au démarrage (ddl-auto)");
+            return ResponseEntity.ok(result);
+        }
+        return ResponseEntity.ok(validator.getStatus());
+    }
+
+    /**
+     * État du disjoncteur de la base
+     * GET /api/test/circuit
+     */
+    @GetMapping("/circuit")
+    public ResponseEntity<Map<String, Object>> getCircuitStatus() {
+        return ResponseEntity.ok(databaseCircuitBreaker.getStatistics());
+    }
+
+    /**
+     * Échéances des requêtes et requêtes SQL annulées, par endpoint
+     * GET /api/test/query-deadlines
+     */
+    @GetMapping("/query-deadlines")
+    public ResponseEntity<Map<String, Object>> getQueryDeadlines() {
+        return ResponseEntity.ok(requestDeadlineInterceptor.getStatistics());
+    }
+
+    /**
+     * Taille et temps de sérialisation du catalogue en mémoire en JSON, Smile et CBOR
+     * GET /api/test/payload-benchmark?iterations=20&fields=id,productName,price
+     */
+    @GetMapping("/payload-benchmark")
+    public ResponseEntity<Map<String, Object>> getPayloadBenchmark(
+            @RequestParam(defaultValue = "20") int iterations,
+            @RequestParam(required = false) String fields) {
+        if (iterations < 1 || iterations > MAX_BENCHMARK_ITERATIONS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(payloadBenchmark.run(SparseFieldset.parse(fields), iterations));
+    }
+}
@@ -1,19 +1,39 @@
 package com.bbbrewery.backend.controller;
 
+import com.bbbrewery.backend.config.SparseFieldset;
+import com.bbbrewery.backend.dto.BulkProductUpdateDTO;
 import com.bbbrewery.backend.dto.ProductDTO;
 import jakarta.validation.Valid;
 import com.bbbrewery.backend.model.Product;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.bbbrewery.backend.service.CatalogFallback;
+import com.bbbrewery.backend.service.CatalogSnapshotStore;
+import com.bbbrewery.backend.service.CatalogStatistics;
+import com.bbbrewery.backend.service.LowStockFeed;
+import com.bbbrewery.backend.service.ProcedureBatchService;
+import com.bbbrewery.backend.service.ProcedureBatchService.ProcedureBatchResult;
+import com.bbbrewery.backend.service.ProductBatchLoader;
+import com.bbbrewery.backend.service.ProductBulkService;
+import com.bbbrewery.backend.service.ProductBulkService.BulkUpdateResult;
+import com.bbbrewery.backend.service.ProductImportService;
+import com.bbbrewery.backend.service.ProductImportService.ImportResult;
+import com.bbbrewery.backend.service.ProductSalesCounters;
 import com.bbbrewery.backend.service.ProductService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/products")
@@ -23,34 +43,53 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSalesCounters productSalesCounters;
+
+    @Autowired
+    private CatalogStatistics catalogStatistics;
+
+    @Autowired
+    private LowStockFeed lowStockFeed;
+
+    @Autowired
+    private ProductBulkService productBulkService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProcedureBatchService procedureBatchService;
+
+    @Autowired
+    private CatalogSnapshotStore catalogSnapshotStore;
+
+    @Autowired
+    private CatalogFallback catalogFallback;
+
+    @Autowired
+    private ProductBatchLoader productBatchLoader;
+
     // =================== CONSULTATION DES PRODUITS ===================
 
     /**
      * Récupère tous les produits
-     * GET /api/products
+     * GET /api/products?fields=id,productName,price
      */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        try {
-            List<Product> products = productService.getAllProducts();
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public ResponseEntity<List<Product>> getAllProducts(@RequestParam(required = false) String fields) {
+        return readCatalog(() -> productService.getProducts(SparseFieldset.parse(fields), false),
+                () -> catalogFallback.getAllProducts());
     }
 
     /**
      * Récupère tous les produits actifs
-     * GET /api/products/active
+     * GET /api/products/active?fields=id,productName,price
      */
     @GetMapping("/active")
-    public ResponseEntity<List<Product>> getActiveProducts() {
-        try {
-            List<Product> products = productService.getActiveProducts();
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public ResponseEntity<List<Product>> getActiveProducts(@RequestParam(required = false) String fields) {
+        return readCatalog(() -> productService.getProducts(SparseFieldset.parse(fields), true),
+                () -> catalogFallback.getActiveProducts());
     }
 
     /**
@@ -59,12 +98,7 @@ public class ProductController {
      */
     @GetMapping("/inactive")
     public ResponseEntity<List<Product>> getInactiveProducts() {
-        try {
-            List<Product> products = productService.getInactiveProducts();
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.getInactiveProducts(), () -> catalogFallback.getInactiveProducts());
     }
 
     /**
@@ -73,13 +107,15 @@ public class ProductController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        try {
-            Optional<Product> product = productService.getProductById(id);
-            return product.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        ResponseEntity<Optional<Product>> response = readCatalog(
+                () -> productService.getProductById(id), () -> catalogFallback.getProductById(id));
+        if (response.getBody() == null || response.getBody().isEmpty()) {
+            return response.getStatusCode().isError()
+                    ? ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).build()
+                    : ResponseEntity.notFound().headers(response.getHeaders()).build();
         }
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders())
+                .body(response.getBody().get());
     }
 
     /**
@@ -88,12 +124,7 @@ public class ProductController {
      */
     @GetMapping("/search")
     public ResponseEntity<List<Product>> searchProductsByName(@RequestParam String name) {
-        try {
-            List<Product> products = productService.searchProductsByName(name);
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.searchProductsByName(name), () -> catalogFallback.searchProductsByName(name));
     }
 
     /**
@@ -102,12 +133,7 @@ public class ProductController {
      */
     @GetMapping("/search/global")
     public ResponseEntity<List<Product>> searchProducts(@RequestParam String keyword) {
-        try {
-            List<Product> products = productService.searchProducts(keyword);
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.searchProducts(keyword), () -> catalogFallback.searchProducts(keyword));
     }
 
     /**
@@ -116,12 +142,7 @@ public class ProductController {
      */
     @GetMapping("/search/description")
     public ResponseEntity<List<Product>> searchProductsByDescription(@RequestParam String keyword) {
-        try {
-            List<Product> products = productService.searchProductsByDescription(keyword);
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.searchProductsByDescription(keyword), () -> catalogFallback.searchProductsByDescription(keyword));
     }
 
     /**
@@ -130,12 +151,7 @@ public class ProductController {
      */
     @GetMapping("/category/{category}")
     public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        try {
-            List<Product> products = productService.getProductsByCategory(category);
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.getProductsByCategory(category), () -> catalogFallback.getProductsByCategory(category));
     }
 
     /**
@@ -144,12 +160,7 @@ public class ProductController {
      */
     @GetMapping("/type/{type}")
     public ResponseEntity<List<Product>> getProductsByType(@PathVariable String type) {
-        try {
-            List<Product> products = productService.getProductsByType(type);
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.getProductsByType(type), () -> catalogFallback.getProductsByType(type));
     }
 
     /**
@@ -160,12 +171,7 @@ public class ProductController {
     public ResponseEntity<List<Product>> getProductsByCategoryAndType(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String type) {
-        try {
-            List<Product> products = productService.getProductsByCategoryAndType(category, type);
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.getProductsByCategoryAndType(category, type), () -> catalogFallback.getProductsByCategoryAndType(category, type));
     }
 
     /**
@@ -174,12 +180,7 @@ public class ProductController {
      */
     @GetMapping("/in-stock")
     public ResponseEntity<List<Product>> getProductsInStock() {
-        try {
-            List<Product> products = productService.getProductsInStock();
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.getProductsInStock(), () -> catalogFallback.getProductsInStock());
     }
 
     /**
@@ -188,12 +189,7 @@ public class ProductController {
      */
     @GetMapping("/out-of-stock")
     public ResponseEntity<List<Product>> getProductsOutOfStock() {
-        try {
-            List<Product> products = productService.getProductsOutOfStock();
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.getProductsOutOfStock(), () -> catalogFallback.getProductsOutOfStock());
     }
 
     /**
@@ -202,12 +198,7 @@ public class ProductController {
      */
     @GetMapping("/low-stock")
     public ResponseEntity<List<Product>> getLowStockProducts() {
-        try {
-            List<Product> products = productService.getLowStockProducts();
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.getLowStockProducts(), () -> catalogFallback.getLowStockProducts());
     }
 
     /**
@@ -216,12 +207,30 @@ public class ProductController {
      */
     @GetMapping("/low-stock/{threshold}")
     public ResponseEntity<List<Product>> getLowStockProducts(@PathVariable int threshold) {
-        try {
-            List<Product> products = productService.getLowStockProducts(threshold);
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.getLowStockProducts(threshold), () -> catalogFallback.getLowStockProducts(threshold));
+    }
+
+    /**
+     * Flux des franchissements du seuil de stock faible (Server-Sent Events)
+     * GET /api/products/low-stock/stream
+     */
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLowStock(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return lowStockFeed.subscribe(lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
+    }
+
+    /**
+     * État du flux de stock faible
+     * GET /api/products/low-stock/stream/status
+     */
+    @GetMapping("/low-stock/stream/status")
+    public ResponseEntity<Map<String, Object>> getLowStockStreamStatus() {
+        return ResponseEntity.ok(lowStockFeed.getStatistics());
     }
 
     /**
@@ -232,12 +241,7 @@ public class ProductController {
     public ResponseEntity<List<Product>> getProductsByPriceRange(
             @RequestParam BigDecimal min,
             @RequestParam BigDecimal max) {
-        try {
-            List<Product> products = productService.getProductsByPriceRange(min, max);
-            return ResponseEntity.ok(products);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return readCatalog(() -> productService.getProductsByPriceRange(min, max), () -> catalogFallback.getProductsByPriceRange(min, max));
     }
 
     /**
@@ -259,15 +263,27 @@ public class ProductController {
      * GET /api/products/top-selling
      */
     @GetMapping("/top-selling")
-    public ResponseEntity<List<Product>> getTopSellingProducts() {
+    public ResponseEntity<List<Product>> getTopSellingProducts(@RequestParam(required = false) Integer limit) {
         try {
-            List<Product> products = productService.getTopSellingProducts();
+            if (limit != null && limit <= 0) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<Product> products = productService.getTopSellingProducts(limit);
             return ResponseEntity.ok(products);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * État des compteurs de ventes par produit
+     * GET /api/products/top-selling/status
+     */
+    @GetMapping("/top-selling/status")
+    public ResponseEntity<Map<String, Object>> getSalesCountersStatus() {
+        return ResponseEntity.ok(productSalesCounters.getStatistics());
+    }
+
     // =================== GESTION DES PRODUITS ===================
 
     /**
@@ -379,6 +395,86 @@ public class ProductController {
         }
     }
 
+    // =================== MODIFICATIONS EN MASSE ===================
+
+    /**
+     * Active/désactive des produits en masse (lots JDBC, résultat par lot)
+     * PATCH /api/products/bulk/status?parallel={parallel}
+     */
+    @PatchMapping("/bulk/status")
+    public ResponseEntity<BulkUpdateResult> bulkUpdateStatus(@Valid @RequestBody BulkProductUpdateDTO request,
+                                                             @RequestParam(defaultValue = "false") boolean parallel) {
+        return bulkUpdate(() -> productBulkService.updateStatus(request, parallel));
+    }
+
+    /**
+     * Fixe ou ajuste en pourcentage le prix de produits en masse
+     * PATCH /api/products/bulk/price?parallel={parallel}
+     */
+    @PatchMapping("/bulk/price")
+    public ResponseEntity<BulkUpdateResult> bulkUpdatePrice(@Valid @RequestBody BulkProductUpdateDTO request,
+                                                            @RequestParam(defaultValue = "false") boolean parallel) {
+        return bulkUpdate(() -> productBulkService.updatePrice(request, parallel));
+    }
+
+    /**
+     * Fixe ou supprime la promotion de produits en masse
+     * PATCH /api/products/bulk/sale?parallel={parallel}
+     */
+    @PatchMapping("/bulk/sale")
+    public ResponseEntity<BulkUpdateResult> bulkUpdateSale(@Valid @RequestBody BulkProductUpdateDTO request,
+                                                           @RequestParam(defaultValue = "false") boolean parallel) {
+        return bulkUpdate(() -> productBulkService.updateSale(request, parallel));
+    }
+
+    /**
+     * Change la catégorie de produits en masse
+     * PATCH /api/products/bulk/category?parallel={parallel}
+     */
+    @PatchMapping("/bulk/category")
+    public ResponseEntity<BulkUpdateResult> bulkUpdateCategory(@Valid @RequestBody BulkProductUpdateDTO request,
+                                                               @RequestParam(defaultValue = "false") boolean parallel) {
+        return bulkUpdate(() -> productBulkService.updateCategory(request, parallel));
+    }
+
+    // 200 si tous les lots ont réussi, 207 si certains ont échoué
+    private ResponseEntity<BulkUpdateResult> bulkUpdate(Supplier<BulkUpdateResult> update) {
+        try {
+            BulkUpdateResult result = update.get();
+            HttpStatus status = result.getFailedChunks() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+            return ResponseEntity.status(status).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Importe des produits depuis un flux CSV (avec en-tête) ou NDJSON, lu au fil de l'eau
+     * POST /api/products/import?format={csv|ndjson}
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", MediaType.TEXT_PLAIN_VALUE,
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ImportResult> importProducts(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) {
+        String resolvedFormat = format != null ? format
+                : contentType != null && contentType.contains("ndjson") ? ProductImportService.FORMAT_NDJSON
+                : ProductImportService.FORMAT_CSV;
+        try {
+            ImportResult result = productImportService.importProducts(body, resolvedFormat);
+            HttpStatus status = result.isAborted() ? HttpStatus.GATEWAY_TIMEOUT
+                    : result.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+            return ResponseEntity.status(status).body(result);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // =================== GESTION DU STOCK ===================
 
     /**
@@ -493,6 +589,20 @@ public class ProductController {
         }
     }
 
+    /**
+     * Crée des produits via procédure stockée, par blocs d'appels
+     * POST /api/products/procedure/batch
+     */
+    @PostMapping("/procedure/batch")
+    public ResponseEntity<ProcedureBatchResult> addProductsViaProcedure(@RequestBody List<ProductDTO> products) {
+        try {
+            ProcedureBatchResult result = procedureBatchService.addProducts(products);
+            return ResponseEntity.status(result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // =================== VÉRIFICATIONS ===================
 
     /**
@@ -536,12 +646,7 @@ public class ProductController {
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getProductStatistics() {
         try {
-            Map<String, Object> statistics = new HashMap<>();
-            statistics.put("activeProductsCount", productService.getActiveProductsCount());
-            statistics.put("totalStockQuantity", productService.getTotalStockQuantity());
-            statistics.put("averagePrice", productService.getAverageProductPrice());
-            statistics.put("totalStockValue", productService.getTotalStockValue());
-
+            Map<String, Object> statistics = productService.getProductStatistics();
             return ResponseEntity.ok(statistics);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -561,4 +666,68 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtient les statistiques détaillées par catégorie
+     * GET /api/products/statistics/by-category/details
+     */
+    @GetMapping("/statistics/by-category/details")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCategoryStatistics() {
+        if (!catalogStatistics.isLoaded()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(catalogStatistics.getCategoryStatistics());
+    }
+
+    /**
+     * État de la réconciliation des statistiques du catalogue
+     * GET /api/products/statistics/status
+     */
+    @GetMapping("/statistics/status")
+    public ResponseEntity<Map<String, Object>> getStatisticsStatus() {
+        return ResponseEntity.ok(catalogStatistics.getReconciliationStatus());
+    }
+
+    /**
+     * État de l'instantané local du catalogue (démarrage à chaud)
+     * GET /api/products/snapshot/status
+     */
+    @GetMapping("/snapshot/status")
+    public ResponseEntity<Map<String, Object>> getSnapshotStatus() {
+        return ResponseEntity.ok(catalogSnapshotStore.getStatistics());
+    }
+
+    /**
+     * Lots de lectures de produit par ID (taille, attente, déduplication)
+     * GET /api/products/loader/status
+     */
+    @GetMapping("/loader/status")
+    public ResponseEntity<Map<String, Object>> getLoaderStatus() {
+        return ResponseEntity.ok(productBatchLoader.getStatistics());
+    }
+
+    // =================== MODE DÉGRADÉ ===================
+
+    /**
+     * Lecture en base ; si la base est indisponible (circuit ouvert, erreur de connexion),
+     * lecture de la dernière copie en mémoire signalée par X-Data-Stale et X-Data-Age-Seconds
+     */
+    private <T> ResponseEntity<T> readCatalog(Supplier<T> database, Supplier<T> fallback) {
+        if (!catalogFallback.isDatabaseUnavailable()) {
+            try {
+                return ResponseEntity.ok(database.get());
+            } catch (Exception e) {
+                if (!catalogFallback.fallsBackOn(e, "le catalogue")) {
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                }
+            }
+        }
+        if (!catalogFallback.isCatalogAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        return ResponseEntity.ok()
+                .header(CatalogFallback.STALE_HEADER, "true")
+                .header(CatalogFallback.DATA_AGE_HEADER, String.valueOf(catalogFallback.getCatalogAgeSeconds()))
+                .body(fallback.get());
+    }
+}
@@ -1,8 +1,10 @@
 package com.bbbrewery.backend.controller;
 
 import com.bbbrewery.backend.model.Shipping;
+import com.bbbrewery.backend.service.CatalogFallback;
 import com.bbbrewery.backend.service.ShippingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +21,9 @@ public class ShippingController {
     @Autowired
     private ShippingService shippingService;
 
+    @Autowired
+    private CatalogFallback catalogFallback;
+
     // ================== CRUD Operations ==================
 
     /**
@@ -26,8 +31,16 @@ public class ShippingController {
      */
     @GetMapping("/rates")
     public ResponseEntity<List<Shipping>> getAllShippingRates() {
-        List<Shipping> rates = shippingService.getAllShippingRates();
-        return ResponseEntity.ok(rates);
+        if (!catalogFallback.isDatabaseUnavailable()) {
+            try {
+                return ResponseEntity.ok(shippingService.getAllShippingRates());
+            } catch (RuntimeException e) {
+                if (!catalogFallback.fallsBackOn(e, "les tarifs d'expédition")) {
+                    throw e;
+                }
+            }
+        }
+        return staleReferenceData(catalogFallback.getShippingRates());
     }
 
     /**
@@ -247,4 +260,16 @@ public class ShippingController {
         boolean isValid = shippingService.validateWeightRange(low, high);
         return ResponseEntity.ok(isValid);
     }
+
+    // Base indisponible : dernière copie en mémoire, signalée comme périmée
+    private <T> ResponseEntity<T> staleReferenceData(T body) {
+        if (!catalogFallback.isReferenceDataAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        return ResponseEntity.ok()
+                .header(CatalogFallback.STALE_HEADER, "true")
+                .header(CatalogFallback.DATA_AGE_HEADER, String.valueOf(catalogFallback.getReferenceDataAgeSeconds()))
+                .body(body);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,317 @@
+package com.bbbrewery.backend.controller;
+
+import com.bbbrewery.backend.dto.ShopperDTO;
+import com.bbbrewery.backend.service.ShopperDirectory;
+import com.bbbrewery.backend.service.ShopperSearchIndex;
+import com.bbbrewery.backend.service.ShopperSearchIndex.SearchPage;
+import com.bbbrewery.backend.service.ShopperService;
+import com.bbbrewery.backend.service.ShopperStatistics;
+import com.bbbrewery.backend.service.ShopperVisitTracker;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/shoppers")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:4200"}, allowCredentials = "false")
+public class ShopperController {
+
+    @Autowired
+    private ShopperService shopperService;
+
+    @Autowired
+    private ShopperDirectory shopperDirectory;
+
+    @Autowired
+    private ShopperSearchIndex shopperSearchIndex;
+
+    @Autowired
+    private ShopperVisitTracker shopperVisitTracker;
+
+    @Autowired
+    private ShopperStatistics shopperStatistics;
+
+    // =================== LECTURE ===================
+
+    /**
+     * Récupère un client par son ID
+     * GET /api/shoppers/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ShopperDTO> getShopperById(@PathVariable Long id) {
+        try {
+            Optional<ShopperDTO> shopper = shopperService.getShopperById(id);
+            return shopper.map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Récupère un client par email (insensible à la casse)
+     * GET /api/shoppers/by-email?email={email}
+     */
+    @GetMapping("/by-email")
+    public ResponseEntity<ShopperDTO> getShopperByEmail(@RequestParam String email) {
+        try {
+            Optional<ShopperDTO> shopper = shopperService.getShopperByEmail(email);
+            return shopper.map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Résout l'ID d'un client par email ou téléphone (connexion, checkout invité)
+     * GET /api/shoppers/lookup?email={email}
+     * GET /api/shoppers/lookup?phone={phone}
+     */
+    @GetMapping("/lookup")
+    public ResponseEntity<Map<String, Object>> lookupShopper(@RequestParam(required = false) String email,
+                                                             @RequestParam(required = false) String phone) {
+        if ((email == null) == (phone == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Optional<Long> shopperId = email != null
+                    ? shopperService.findShopperIdByEmail(email)
+                    : shopperService.findShopperIdByPhone(phone);
+            return shopperId.map(id -> ResponseEntity.ok(Map.<String, Object>of("shopperId", id)))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Vérifie si un email ou un téléphone est déjà utilisé (inscription)
+     * GET /api/shoppers/exists?email={email}&phone={phone}
+     */
+    @GetMapping("/exists")
+    public ResponseEntity<Map<String, Object>> checkShopperExists(@RequestParam(required = false) String email,
+                                                                  @RequestParam(required = false) String phone) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            if (email != null) {
+                response.put("emailExists", shopperService.emailExists(email));
+            }
+            if (phone != null) {
+                response.put("phoneExists", shopperService.phoneExists(phone));
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Recherche floue de clients par nom, email ou adresse, résultats classés et paginés
+     * GET /api/shoppers/search?q={terme}&page={page}&size={size}
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SearchPage> searchShoppers(@RequestParam String q,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(shopperService.searchShoppers(q, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * État de l'index de recherche des clients
+     * GET /api/shoppers/search/status
+     */
+    @GetMapping("/search/status")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStatus() {
+        return ResponseEntity.ok(shopperSearchIndex.getStatistics());
+    }
+
+    /**
+     * Clients venus depuis une date
+     * GET /api/shoppers/visited-since?since={date}
+     */
+    @GetMapping("/visited-since")
+    public ResponseEntity<List<ShopperDTO>> getShoppersVisitedSince(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        try {
+            return ResponseEntity.ok(shopperService.getShoppersVisitedSince(since));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Clients sans visite depuis une date
+     * GET /api/shoppers/inactive-since?since={date}
+     */
+    @GetMapping("/inactive-since")
+    public ResponseEntity<List<ShopperDTO>> getShoppersInactiveSince(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        try {
+            return ResponseEntity.ok(shopperService.getShoppersInactiveSince(since));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * État du suivi des visites
+     * GET /api/shoppers/visits/status
+     */
+    @GetMapping("/visits/status")
+    public ResponseEntity<Map<String, Object>> getVisitTrackerStatus() {
+        return ResponseEntity.ok(shopperVisitTracker.getStatistics());
+    }
+
+    /**
+     * État de l'annuaire des clients
+     * GET /api/shoppers/directory/status
+     */
+    @GetMapping("/directory/status")
+    public ResponseEntity<Map<String, Object>> getDirectoryStatus() {
+        return ResponseEntity.ok(shopperDirectory.getStatistics());
+    }
+
+    // =================== STATISTIQUES ===================
+
+    /**
+     * Nombre de clients par état
+     * GET /api/shoppers/statistics/by-state
+     */
+    @GetMapping("/statistics/by-state")
+    public ResponseEntity<List<Object[]>> countShoppersByState() {
+        try {
+            return ResponseEntity.ok(shopperService.countShoppersByState());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Nombre de clients par ville
+     * GET /api/shoppers/statistics/by-city
+     */
+    @GetMapping("/statistics/by-city")
+    public ResponseEntity<List<Object[]>> countShoppersByCity() {
+        try {
+            return ResponseEntity.ok(shopperService.countShoppersByCity());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Inscriptions par mois
+     * GET /api/shoppers/statistics/registrations
+     */
+    @GetMapping("/statistics/registrations")
+    public ResponseEntity<List<Object[]>> getRegistrationStatistics() {
+        try {
+            return ResponseEntity.ok(shopperService.getRegistrationStatistics());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Totaux : clients, nouveaux clients du mois et de l'année
+     * GET /api/shoppers/statistics/totals
+     */
+    @GetMapping("/statistics/totals")
+    public ResponseEntity<Map<String, Long>> getShopperTotals() {
+        try {
+            return ResponseEntity.ok(shopperService.getShopperTotals());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * État des statistiques en mémoire et de la reconstruction nocturne
+     * GET /api/shoppers/statistics/status
+     */
+    @GetMapping("/statistics/status")
+    public ResponseEntity<Map<String, Object>> getStatisticsStatus() {
+        return ResponseEntity.ok(shopperStatistics.getReconciliationStatus());
+    }
+
+    // =================== ÉCRITURE ===================
+
+    /**
+     * Inscrit un client
+     * POST /api/shoppers
+     */
+    @PostMapping
+    public ResponseEntity<ShopperDTO> registerShopper(@Valid @RequestBody ShopperDTO shopperDTO) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(shopperService.registerShopper(shopperDTO));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataAccessException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Enregistre une visite du client (sans écriture immédiate en base)
+     * POST /api/shoppers/{id}/visits
+     */
+    @PostMapping("/{id}/visits")
+    public ResponseEntity<Void> recordVisit(@PathVariable Long id) {
+        shopperService.recordVisit(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Met à jour un client
+     * PUT /api/shoppers/{id}
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<ShopperDTO> updateShopper(@PathVariable Long id, @RequestBody ShopperDTO shopperDTO) {
+        try {
+            return ResponseEntity.ok(shopperService.updateShopper(id, shopperDTO));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataAccessException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Supprime un client sans panier
+     * DELETE /api/shoppers/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteShopper(@PathVariable Long id) {
+        try {
+            shopperService.deleteShopper(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataAccessException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
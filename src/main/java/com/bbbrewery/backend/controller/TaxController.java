@@ -1,8 +1,10 @@
 package com.bbbrewery.backend.controller;
 
 import com.bbbrewery.backend.model.Tax;
+import com.bbbrewery.backend.service.CatalogFallback;
 import com.bbbrewery.backend.service.TaxService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +21,9 @@ public class TaxController {
     @Autowired
     private TaxService taxService;
 
+    @Autowired
+    private CatalogFallback catalogFallback;
+
     // ================== CRUD Operations ==================
 
     /**
@@ -26,8 +31,16 @@ public class TaxController {
      */
     @GetMapping("/configurations")
     public ResponseEntity<List<Tax>> getAllTaxConfigurations() {
-        List<Tax> taxes = taxService.getActiveTaxConfigurations();
-        return ResponseEntity.ok(taxes);
+        if (!catalogFallback.isDatabaseUnavailable()) {
+            try {
+                return ResponseEntity.ok(taxService.getActiveTaxConfigurations());
+            } catch (RuntimeException e) {
+                if (!catalogFallback.fallsBackOn(e, "les taxes")) {
+                    throw e;
+                }
+            }
+        }
+        return staleReferenceData(catalogFallback.getActiveTaxConfigurations());
     }
 
     /**
@@ -302,6 +315,18 @@ public class TaxController {
 
     // ================== Inner Classes ==================
 
+    // Base indisponible : dernière copie en mémoire, signalée comme périmée
+    private <T> ResponseEntity<T> staleReferenceData(T body) {
+        if (!catalogFallback.isReferenceDataAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        return ResponseEntity.ok()
+                .header(CatalogFallback.STALE_HEADER, "true")
+                .header(CatalogFallback.DATA_AGE_HEADER, String.valueOf(catalogFallback.getReferenceDataAgeSeconds()))
+                .body(body);
+    }
+
+
     /**
      * Classe pour retourner le résultat complet d'un calcul de taxe
      */
@@ -1,12 +1,18 @@
 package com.bbbrewery.backend.dto;
 
+import com.bbbrewery.backend.config.SparseFieldset;
 import com.bbbrewery.backend.model.BasketStatus;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonFilter(SparseFieldset.FILTER_ID)
 public class BasketDTO {
 
     private Long id;
@@ -43,6 +49,26 @@ public class BasketDTO {
     // Constructeurs
     public BasketDTO() {}
 
+    /**
+     * Constructeur de projection JPQL (SELECT new ...) : en-tête du panier sans articles
+     */
+    public BasketDTO(Long id, Long shopperId, String shopperFirstName, String shopperLastName,
+                     LocalDateTime dateCreated, LocalDateTime dateOrdered, Integer quantity,
+                     BigDecimal subtotal, BigDecimal shipping, BigDecimal tax, BigDecimal total,
+                     BasketStatus orderPlaced) {
+        this.id = id;
+        this.shopperId = shopperId;
+        this.shopperName = fullName(shopperFirstName, shopperLastName);
+        this.dateCreated = dateCreated;
+        this.dateOrdered = dateOrdered;
+        this.quantity = quantity;
+        this.subtotal = subtotal;
+        this.shipping = shipping;
+        this.tax = tax;
+        this.total = total;
+        setOrderPlaced(orderPlaced);
+    }
+
     public BasketDTO(Long shopperId) {
         this.shopperId = shopperId;
         this.dateCreated = LocalDateTime.now();
@@ -55,14 +81,23 @@ public class BasketDTO {
     }
 
     // Méthodes utilitaires
+    @JsonIgnore
     public boolean isEmpty() {
         return basketItems == null || basketItems.isEmpty();
     }
 
+    @JsonIgnore
     public boolean isActive() {
         return orderPlaced == BasketStatus.ACTIVE;
     }
 
+    private static String fullName(String firstName, String lastName) {
+        if (firstName == null && lastName == null) {
+            return null;
+        }
+        return ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+    }
+
     // Getters et Setters
     public Long getId() {
         return id;
@@ -196,94 +231,6 @@ public class BasketDTO {
     }
 }
 
-class BasketItemDTO {
-    private Long id;
-    private Long productId;
-    private String productName;
-    private Integer quantity;
-    private BigDecimal price;
-    private BigDecimal totalPrice;
-    private LocalDateTime dateCreated;
-    private String option1;
-    private String option2;
-
-    // Constructeurs
-    public BasketItemDTO() {}
-
-    // Getters et Setters
-    public Long getId() {
-        return id;
-    }
-
-    public void setId(Long id) {
-        this.id = id;
-    }
-
-    public Long getProductId() {
-        return productId;
-    }
-
-    public void setProductId(Long productId) {
-        this.productId = productId;
-    }
-
-    public String getProductName() {
-        return productName;
-    }
-
-    public void setProductName(String productName) {
-        this.productName = productName;
-    }
-
-    public Integer getQuantity() {
-        return quantity;
-    }
-
-    public void setQuantity(Integer quantity) {
-        this.quantity = quantity;
-    }
-
-    public BigDecimal getPrice() {
-        return price;
-    }
-
-    public void setPrice(BigDecimal price) {
-        this.price = price;
-    }
-
-    public BigDecimal getTotalPrice() {
-        return totalPrice;
-    }
-
-    public void setTotalPrice(BigDecimal totalPrice) {
-        this.totalPrice = totalPrice;
-    }
-
-    public LocalDateTime getDateCreated() {
-        return dateCreated;
-    }
-
-    public void setDateCreated(LocalDateTime dateCreated) {
-        this.dateCreated = dateCreated;
-    }
-
-    public String getOption1() {
-        return option1;
-    }
-
-    public void setOption1(String option1) {
-        this.option1 = option1;
-    }
-
-    public String getOption2() {
-        return option2;
-    }
-
-    public void setOption2(String option2) {
-        this.option2 = option2;
-    }
-}
-
 class TaxDTO {
     private Long id;
     private Integer taxType;
@@ -0,0 +1,109 @@
+package com.bbbrewery.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BasketItemDTO {
+    private Long id;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal price;
+    private BigDecimal totalPrice;
+    private LocalDateTime dateCreated;
+    private Integer option1;
+    private Integer option2;
+
+    // Constructeurs
+    public BasketItemDTO() {}
+
+    public BasketItemDTO(Long id, Long productId, String productName, Integer quantity, BigDecimal price,
+                         Integer option1, Integer option2) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.price = price;
+        this.option1 = option1;
+        this.option2 = option2;
+        if (price != null && quantity != null) {
+            this.totalPrice = price.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public LocalDateTime getDateCreated() {
+        return dateCreated;
+    }
+
+    public void setDateCreated(LocalDateTime dateCreated) {
+        this.dateCreated = dateCreated;
+    }
+
+    public Integer getOption1() {
+        return option1;
+    }
+
+    public void setOption1(Integer option1) {
+        this.option1 = option1;
+    }
+
+    public Integer getOption2() {
+        return option2;
+    }
+
+    public void setOption2(Integer option2) {
+        this.option2 = option2;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bbbrewery.backend.dto;
+
+import com.bbbrewery.backend.model.BasketStatus;
+
+import java.util.Arrays;
+
+/**
+ * Résumé léger d'un panier (statut, quantités, produits) pour les requêtes
+ * de badge : construit par projection, sans chargement d'entités
+ */
+public class BasketSummaryDTO {
+
+    private final Long basketId;
+    private final BasketStatus status;
+    private final int quantity;
+    private final int totalItemQuantity;
+    private final long[] productIds;
+
+    public BasketSummaryDTO(Long basketId, BasketStatus status, int quantity, int totalItemQuantity, long[] productIds) {
+        this.basketId = basketId;
+        this.status = status;
+        this.quantity = quantity;
+        this.totalItemQuantity = totalItemQuantity;
+        this.productIds = productIds;
+        Arrays.sort(this.productIds);
+    }
+
+    public boolean isEmpty() {
+        return productIds.length == 0;
+    }
+
+    public boolean isActive() {
+        return status == BasketStatus.ACTIVE;
+    }
+
+    public boolean containsProduct(Long productId) {
+        return productId != null && Arrays.binarySearch(productIds, productId) >= 0;
+    }
+
+    // Getters
+    public Long getBasketId() {
+        return basketId;
+    }
+
+    public BasketStatus getStatus() {
+        return status;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getTotalItemQuantity() {
+        return totalItemQuantity;
+    }
+
+    public int getItemLineCount() {
+        return productIds.length;
+    }
+}
@@ -0,0 +1,127 @@
+package com.bbbrewery.backend.dto;
+
+import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Modification en masse du catalogue : seuls les champs de l'opération appelée sont lus
+ */
+public class BulkProductUpdateDTO {
+
+    @NotEmpty(message = "Product IDs are required")
+    private List<Long> productIds;
+
+    // Statut
+    private Boolean active;
+
+    // Prix : valeur fixe ou variation en pourcentage (ex. -10 pour une baisse de 10 %)
+    @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
+    private BigDecimal price;
+
+    @DecimalMin(value = "-99.99", message = "Price change cannot be below -99.99%")
+    private BigDecimal priceChangePercent;
+
+    // Promotion : prix fixe ou remise en pourcentage du prix de base
+    @DecimalMin(value = "0.0", inclusive = false, message = "Sale price must be greater than 0")
+    private BigDecimal salePrice;
+
+    @DecimalMin(value = "0.0", inclusive = false, message = "Discount must be greater than 0")
+    @DecimalMax(value = "100.0", inclusive = false, message = "Discount must be less than 100")
+    private BigDecimal saleDiscountPercent;
+
+    private LocalDateTime saleStartDate;
+
+    private LocalDateTime saleEndDate;
+
+    private Boolean clearSale;
+
+    // Catégorie
+    @Size(max = 20, message = "Category cannot exceed 20 characters")
+    private String category;
+
+    // Constructeurs
+    public BulkProductUpdateDTO() {}
+
+    // Getters et Setters
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public void setProductIds(List<Long> productIds) {
+        this.productIds = productIds;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getPriceChangePercent() {
+        return priceChangePercent;
+    }
+
+    public void setPriceChangePercent(BigDecimal priceChangePercent) {
+        this.priceChangePercent = priceChangePercent;
+    }
+
+    public BigDecimal getSalePrice() {
+        return salePrice;
+    }
+
+    public void setSalePrice(BigDecimal salePrice) {
+        this.salePrice = salePrice;
+    }
+
+    public BigDecimal getSaleDiscountPercent() {
+        return saleDiscountPercent;
+    }
+
+    public void setSaleDiscountPercent(BigDecimal saleDiscountPercent) {
+        this.saleDiscountPercent = saleDiscountPercent;
+    }
+
+    public LocalDateTime getSaleStartDate() {
+        return saleStartDate;
+    }
+
+    public void setSaleStartDate(LocalDateTime saleStartDate) {
+        this.saleStartDate = saleStartDate;
+    }
+
+    public LocalDateTime getSaleEndDate() {
+        return saleEndDate;
+    }
+
+    public void setSaleEndDate(LocalDateTime saleEndDate) {
+        this.saleEndDate = saleEndDate;
+    }
+
+    public Boolean getClearSale() {
+        return clearSale;
+    }
+
+    public void setClearSale(Boolean clearSale) {
+        this.clearSale = clearSale;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+}
@@ -0,0 +1,39 @@
+package com.bbbrewery.backend.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Ligne d'un ajout groupé d'articles via la procédure basket_add_sp
+ */
+public class ProcedureItemDTO {
+
+    @NotNull(message = "Basket ID is required")
+    private Long basketId;
+
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    // Constructeurs
+    public ProcedureItemDTO() {}
+
+    public ProcedureItemDTO(Long basketId, Long productId, Integer quantity) {
+        this.basketId = basketId;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    // Getters et Setters
+    public Long getBasketId() { return basketId; }
+    public void setBasketId(Long basketId) { this.basketId = basketId; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+}
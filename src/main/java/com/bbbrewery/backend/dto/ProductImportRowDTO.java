@@ -0,0 +1,36 @@
+package com.bbbrewery.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Ligne d'import en masse : un produit, avec son ID s'il doit être mis à jour.
+ * Sans ID, le produit est créé avec un ID tiré de la séquence BB_PRODID_SEQ.
+ */
+public class ProductImportRowDTO extends ProductDTO {
+
+    private Long id;
+
+    // Numéro de ligne dans le fichier importé (rapport d'erreurs)
+    @JsonIgnore
+    private long lineNumber;
+
+    public ProductImportRowDTO() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @JsonIgnore
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @JsonIgnore
+    public void setLineNumber(long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+}
@@ -0,0 +1,95 @@
+package com.bbbrewery.backend.dto;
+
+import jakarta.validation.constraints.*;
+import java.time.LocalDateTime;
+
+public class ShopperDTO {
+
+    private Long id;
+
+    @NotBlank(message = "First name is required")
+    @Size(max = 15, message = "First name cannot exceed 15 characters")
+    private String firstName;
+
+    @NotBlank(message = "Last name is required")
+    @Size(max = 20, message = "Last name cannot exceed 20 characters")
+    private String lastName;
+
+    @Email(message = "Email should be valid")
+    @Size(max = 25, message = "Email cannot exceed 25 characters")
+    private String email;
+
+    @Size(max = 10, message = "Phone cannot exceed 10 characters")
+    private String phone;
+
+    @Size(max = 20, message = "Address cannot exceed 20 characters")
+    private String address;
+
+    @Size(max = 15, message = "City cannot exceed 15 characters")
+    private String city;
+
+    @Size(max = 2, message = "State cannot exceed 2 characters")
+    private String state;
+
+    @Size(max = 9, message = "Zip code cannot exceed 9 characters")
+    private String zipCode;
+
+    @Size(max = 15, message = "Province cannot exceed 15 characters")
+    private String province;
+
+    @Size(max = 15, message = "Country cannot exceed 15 characters")
+    private String country;
+
+    private LocalDateTime dateCreated;
+
+    private LocalDateTime dateLastVisit;
+
+    // Constructeurs
+    public ShopperDTO() {}
+
+    public ShopperDTO(String firstName, String lastName, String email) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
+    // Getters et Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public String getZipCode() { return zipCode; }
+    public void setZipCode(String zipCode) { this.zipCode = zipCode; }
+
+    public String getProvince() { return province; }
+    public void setProvince(String province) { this.province = province; }
+
+    public String getCountry() { return country; }
+    public void setCountry(String country) { this.country = country; }
+
+    public LocalDateTime getDateCreated() { return dateCreated; }
+    public void setDateCreated(LocalDateTime dateCreated) { this.dateCreated = dateCreated; }
+
+    public LocalDateTime getDateLastVisit() { return dateLastVisit; }
+    public void setDateLastVisit(LocalDateTime dateLastVisit) { this.dateLastVisit = dateLastVisit; }
+}
@@ -0,0 +1,77 @@
+package com.bbbrewery.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement du flux de stock faible : un produit franchit le seuil
+ * à la baisse (LOW_STOCK) ou à la hausse (RESTOCKED)
+ */
+public class StockAlertDTO {
+
+    public static final String LOW_STOCK = "LOW_STOCK";
+    public static final String RESTOCKED = "RESTOCKED";
+
+    private final long sequence;
+    private final String type;
+    private final Long productId;
+    private final String productName;
+    private final int previousStock;
+    private final int stock;
+    private final int threshold;
+    private final LocalDateTime occurredAt;
+
+    public StockAlertDTO(long sequence, String type, Long productId, String productName,
+                         int previousStock, int stock, int threshold, LocalDateTime occurredAt) {
+        this.sequence = sequence;
+        this.type = type;
+        this.productId = productId;
+        this.productName = productName;
+        this.previousStock = previousStock;
+        this.stock = stock;
+        this.threshold = threshold;
+        this.occurredAt = occurredAt;
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getPreviousStock() {
+        return previousStock;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StockAlertDTO{" +
+                "sequence=" + sequence +
+                ", type='" + type + '\'' +
+                ", productId=" + productId +
+                ", stock=" + stock +
+                '}';
+    }
+}
@@ -0,0 +1,123 @@
+package com.bbbrewery.backend.event;
+
+import com.bbbrewery.backend.model.BasketStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Publié par BasketService quand le statut (ou le total d'une commande passée)
+ * d'un panier change, dans la transaction de la modification
+ */
+public class BasketStatusChangedEvent {
+
+    private final Long basketId;
+    private final Long shopperId;
+    private final BasketStatus previousStatus;
+    private final BasketStatus newStatus;
+    private final BigDecimal previousTotal;
+    private final BigDecimal newTotal;
+    private final List<SoldLine> lines;
+
+    public BasketStatusChangedEvent(Long basketId, Long shopperId,
+                                    BasketStatus previousStatus, BasketStatus newStatus,
+                                    BigDecimal previousTotal, BigDecimal newTotal) {
+        this(basketId, shopperId, previousStatus, newStatus, previousTotal, newTotal, List.of());
+    }
+
+    public BasketStatusChangedEvent(Long basketId, Long shopperId,
+                                    BasketStatus previousStatus, BasketStatus newStatus,
+                                    BigDecimal previousTotal, BigDecimal newTotal,
+                                    List<SoldLine> lines) {
+        this.basketId = basketId;
+        this.shopperId = shopperId;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+        this.previousTotal = previousTotal != null ? previousTotal : BigDecimal.ZERO;
+        this.newTotal = newTotal != null ? newTotal : BigDecimal.ZERO;
+        this.lines = lines != null ? List.copyOf(lines) : List.of();
+    }
+
+    /**
+     * Variation du montant des achats du client induite par ce changement
+     */
+    public BigDecimal getSpendDelta() {
+        BigDecimal before = previousStatus != null && previousStatus.countsAsPurchase() ? previousTotal : BigDecimal.ZERO;
+        BigDecimal after = newStatus != null && newStatus.countsAsPurchase() ? newTotal : BigDecimal.ZERO;
+        return after.subtract(before);
+    }
+
+    /**
+     * Variation du nombre de commandes du client (-1, 0 ou +1)
+     */
+    public int getOrderCountDelta() {
+        int before = previousStatus != null && previousStatus.countsAsPurchase() ? 1 : 0;
+        int after = newStatus != null && newStatus.countsAsPurchase() ? 1 : 0;
+        return after - before;
+    }
+
+    // Getters
+    public Long getBasketId() {
+        return basketId;
+    }
+
+    public Long getShopperId() {
+        return shopperId;
+    }
+
+    public BasketStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public BasketStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public BigDecimal getPreviousTotal() {
+        return previousTotal;
+    }
+
+    public BigDecimal getNewTotal() {
+        return newTotal;
+    }
+
+    /**
+     * Lignes du panier, renseignées seulement quand le panier entre ou sort des commandes passées
+     */
+    public List<SoldLine> getLines() {
+        return lines;
+    }
+
+    @Override
+    public String toString() {
+        return "BasketStatusChangedEvent{" +
+                "basketId=" + basketId +
+                ", shopperId=" + shopperId +
+                ", previousStatus=" + previousStatus +
+                ", newStatus=" + newStatus +
+                '}';
+    }
+
+    /**
+     * Ligne vendue : produit, quantité et prix unitaire au moment de la commande
+     */
+    public static class SoldLine {
+        private final Long productId;
+        private final int quantity;
+        private final BigDecimal price;
+
+        public SoldLine(Long productId, int quantity, BigDecimal price) {
+            this.productId = productId;
+            this.quantity = quantity;
+            this.price = price != null ? price : BigDecimal.ZERO;
+        }
+
+        public BigDecimal getAmount() {
+            return price.multiply(BigDecimal.valueOf(quantity));
+        }
+
+        public Long getProductId() { return productId; }
+        public int getQuantity() { return quantity; }
+        public BigDecimal getPrice() { return price; }
+    }
+}
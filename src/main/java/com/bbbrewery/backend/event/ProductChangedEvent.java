@@ -0,0 +1,39 @@
+package com.bbbrewery.backend.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Publié par ProductService après une modification de produits.
+ * Une liste vide signifie que les produits touchés sont inconnus (procédure stockée) :
+ * les caches doivent alors recharger tout le catalogue.
+ */
+public class ProductChangedEvent {
+
+    private final List<Long> productIds;
+
+    public ProductChangedEvent(Collection<Long> productIds) {
+        this.productIds = productIds != null ? List.copyOf(productIds) : List.of();
+    }
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(List.of(productId));
+    }
+
+    public static ProductChangedEvent unknownProducts() {
+        return new ProductChangedEvent(List.of());
+    }
+
+    public boolean isFullReload() {
+        return productIds.isEmpty();
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{productIds=" + productIds + '}';
+    }
+}
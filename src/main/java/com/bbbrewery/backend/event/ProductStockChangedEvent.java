@@ -0,0 +1,32 @@
+package com.bbbrewery.backend.event;
+
+import java.util.List;
+
+/**
+ * Publié par ProductService après une variation de stock par UPDATE relatif.
+ * La variation est connue : les agrégats l'appliquent sans relire le produit.
+ */
+public class ProductStockChangedEvent extends ProductChangedEvent {
+
+    private final Long productId;
+    private final int stockDelta;
+
+    public ProductStockChangedEvent(Long productId, int stockDelta) {
+        super(List.of(productId));
+        this.productId = productId;
+        this.stockDelta = stockDelta;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getStockDelta() {
+        return stockDelta;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductStockChangedEvent{productId=" + productId + ", stockDelta=" + stockDelta + '}';
+    }
+}
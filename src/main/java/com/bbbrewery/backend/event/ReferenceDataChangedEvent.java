@@ -0,0 +1,23 @@
+package com.bbbrewery.backend.event;
+
+/**
+ * Publié par TaxService et ShippingService après la modification d'une configuration
+ * de taxe ou d'une tranche d'expédition
+ */
+public class ReferenceDataChangedEvent {
+
+    private final String source;
+
+    public ReferenceDataChangedEvent(String source) {
+        this.source = source;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceDataChangedEvent{source=" + source + '}';
+    }
+}
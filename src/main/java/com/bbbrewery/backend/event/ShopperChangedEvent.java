@@ -0,0 +1,22 @@
+package com.bbbrewery.backend.event;
+
+/**
+ * Publié par ShopperService après la création ou la modification d'un client
+ */
+public class ShopperChangedEvent {
+
+    private final Long shopperId;
+
+    public ShopperChangedEvent(Long shopperId) {
+        this.shopperId = shopperId;
+    }
+
+    public Long getShopperId() {
+        return shopperId;
+    }
+
+    @Override
+    public String toString() {
+        return "ShopperChangedEvent{shopperId=" + shopperId + '}';
+    }
+}
@@ -10,8 +10,24 @@ import java.util.List;
 
 @Entity
 @Table(name = "BB_BASKET")
+@NamedEntityGraph(name = Basket.GRAPH_WITH_ITEMS,
+        attributeNodes = @NamedAttributeNode("basketItems"))
+@NamedEntityGraph(name = Basket.GRAPH_WITH_ITEMS_AND_PRODUCTS,
+        attributeNodes = @NamedAttributeNode(value = "basketItems", subgraph = "items"),
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
+@NamedEntityGraph(name = Basket.GRAPH_FULL,
+        attributeNodes = {
+                @NamedAttributeNode("shopper"),
+                @NamedAttributeNode(value = "basketItems", subgraph = "items")
+        },
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
 public class Basket {
 
+    // ========== GRAPHES DE CHARGEMENT (voir BasketFetchPlan) ==========
+    public static final String GRAPH_WITH_ITEMS = "Basket.withItems";
+    public static final String GRAPH_WITH_ITEMS_AND_PRODUCTS = "Basket.withItemsAndProducts";
+    public static final String GRAPH_FULL = "Basket.full";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "basket_seq")
     @SequenceGenerator(name = "basket_seq", sequenceName = "BB_IDBASKET_SEQ", allocationSize = 1)
@@ -64,6 +80,11 @@ public class Basket {
     @Column(name = "SHIPCOUNTRY", length = 50)
     private String shipCountry;
 
+    // ========== VERROUILLAGE OPTIMISTE ==========
+    @Version
+    @Column(name = "VERSION")
+    private Long version;
+
     // ========== RELATIONS ==========
     @OneToMany(mappedBy = "basket", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<BasketItem> basketItems = new ArrayList<>();
@@ -351,6 +372,14 @@ public class Basket {
         this.shipCountry = shipCountry;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<BasketItem> getBasketItems() {
         return basketItems;
     }
@@ -384,6 +413,7 @@ public class Basket {
                 ", shopper=" + (shopper != null ? shopper.getId() : null) +
                 ", dateCreated=" + dateCreated +
                 ", orderPlaced=" + orderPlaced +
+                ", version=" + version +
                 ", quantity=" + quantity +
                 ", total=" + total +
                 ", itemCount=" + getUniqueItemCount() +
@@ -0,0 +1,76 @@
+package com.bbbrewery.backend.model;
+
+import java.util.Locale;
+
+/**
+ * Plans de chargement d'un panier : chaque cas d'usage demande exactement
+ * les associations dont il a besoin (graphes nommés déclarés sur Basket)
+ */
+public enum BasketFetchPlan {
+    /**
+     * Panier seul, sans client ni articles
+     */
+    SUMMARY("summary", null),
+
+    /**
+     * Panier et ses articles (produits non chargés)
+     */
+    WITH_ITEMS("with-items", Basket.GRAPH_WITH_ITEMS),
+
+    /**
+     * Panier, articles et produits
+     */
+    WITH_ITEMS_AND_PRODUCTS("with-items-and-products", Basket.GRAPH_WITH_ITEMS_AND_PRODUCTS),
+
+    /**
+     * Panier, client, articles et produits
+     */
+    FULL("full", Basket.GRAPH_FULL);
+
+    private final String parameter;
+    private final String graphName;
+
+    BasketFetchPlan(String parameter, String graphName) {
+        this.parameter = parameter;
+        this.graphName = graphName;
+    }
+
+    /**
+     * Valeur du paramètre de requête (?fetch=...)
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * Nom du graphe d'entités, null pour le panier seul
+     */
+    public String getGraphName() {
+        return graphName;
+    }
+
+    public boolean includesItems() {
+        return this != SUMMARY;
+    }
+
+    public boolean includesProducts() {
+        return this == WITH_ITEMS_AND_PRODUCTS || this == FULL;
+    }
+
+    public boolean includesShopper() {
+        return this == FULL;
+    }
+
+    /**
+     * Plan correspondant au paramètre de requête (summary, with-items, with-items-and-products, full)
+     */
+    public static BasketFetchPlan fromParameter(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+        for (BasketFetchPlan plan : values()) {
+            if (plan.parameter.equals(normalized)) {
+                return plan;
+            }
+        }
+        throw new IllegalArgumentException("Plan de chargement inconnu: " + value);
+    }
+}
@@ -114,6 +114,14 @@ public enum BasketStatus {
         return this == DELIVERED || this == CANCELLED || this == REFUNDED;
     }
 
+    /**
+     * Vérifie si le statut compte comme un achat (soumis, non annulé ni remboursé)
+     */
+    public boolean countsAsPurchase() {
+        return this == SUBMITTED || this == CHECKED_OUT || this == PROCESSING
+                || this == SHIPPED || this == DELIVERED;
+    }
+
     /**
      * Retourne les statuts suivants possibles depuis le statut actuel
      */
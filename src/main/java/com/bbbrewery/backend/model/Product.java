@@ -1,5 +1,7 @@
 package com.bbbrewery.backend.model;
 
+import com.bbbrewery.backend.config.SparseFieldset;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -11,6 +13,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "BB_PRODUCT")
+@JsonFilter(SparseFieldset.FILTER_ID)
 public class Product {
 
     @Id
@@ -89,11 +92,17 @@ public class Product {
     }
 
     public boolean isOnSale() {
+        return isOnSaleAt(LocalDateTime.now());
+    }
+
+    /**
+     * Une promotion est active de SALESTARTDATE (inclus) à SALEENDDATE (exclu)
+     */
+    public boolean isOnSaleAt(LocalDateTime instant) {
         if (salePrice == null || saleStartDate == null || saleEndDate == null) {
             return false;
         }
-        LocalDateTime now = LocalDateTime.now();
-        return now.isAfter(saleStartDate) && now.isBefore(saleEndDate);
+        return !instant.isBefore(saleStartDate) && instant.isBefore(saleEndDate);
     }
 
     public BigDecimal getCurrentPrice() {
@@ -1,7 +1,12 @@
 package com.bbbrewery.backend.repository;
 
+import com.bbbrewery.backend.dto.BasketDTO;
+import com.bbbrewery.backend.model.BasketFetchPlan;
 import com.bbbrewery.backend.model.BasketStatus;
 import com.bbbrewery.backend.model.Basket;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -11,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -74,39 +80,172 @@ public interface BasketRepository extends JpaRepository<Basket, Long> {
         return findAbandonedBaskets(cutoffDate, BasketStatus.ACTIVE);
     }
 
-    // ========== RECHERCHES OPTIMISÉES AVEC FETCH JOIN ==========
+    // ========== PLANS DE CHARGEMENT (GRAPHES D'ENTITÉS) ==========
 
     /**
-     * Recherche avec join fetch pour optimisation (charge les articles)
+     * Panier et articles (produits non chargés)
      */
-    @Query("SELECT DISTINCT b FROM Basket b " +
-            "LEFT JOIN FETCH b.basketItems bi " +
-            "LEFT JOIN FETCH bi.product " +
-            "WHERE b.id = :basketId")
+    @EntityGraph(Basket.GRAPH_WITH_ITEMS)
+    @Query("SELECT b FROM Basket b WHERE b.id = :basketId")
     Optional<Basket> findByIdWithItems(@Param("basketId") Long basketId);
 
     /**
-     * Panier actif avec articles d'un shopper (optimisé)
+     * Panier, articles et produits
      */
-    @Query("SELECT DISTINCT b FROM Basket b " +
-            "LEFT JOIN FETCH b.basketItems bi " +
-            "LEFT JOIN FETCH bi.product " +
-            "LEFT JOIN FETCH b.shopper " +
-            "WHERE b.shopper.id = :shopperId AND b.orderPlaced = :status")
-    Optional<Basket> findActiveBasketWithItemsByShopperId(@Param("shopperId") Long shopperId,
-                                                          @Param("status") BasketStatus status);
+    @EntityGraph(Basket.GRAPH_WITH_ITEMS_AND_PRODUCTS)
+    @Query("SELECT b FROM Basket b WHERE b.id = :basketId")
+    Optional<Basket> findByIdWithItemsAndProducts(@Param("basketId") Long basketId);
+
+    /**
+     * Plusieurs paniers avec leurs articles et produits (checkout par lot)
+     */
+    @EntityGraph(Basket.GRAPH_WITH_ITEMS_AND_PRODUCTS)
+    @Query("SELECT b FROM Basket b WHERE b.id IN :basketIds")
+    List<Basket> findAllByIdWithItemsAndProducts(@Param("basketIds") Collection<Long> basketIds);
 
     /**
      * Recherche avec tous les détails (shopper, articles, produits)
      */
-    @Query("SELECT DISTINCT b FROM Basket b " +
-            "LEFT JOIN FETCH b.basketItems bi " +
-            "LEFT JOIN FETCH bi.product " +
-            "LEFT JOIN FETCH b.shopper " +
-           // "LEFT JOIN FETCH b.taxes " +
-            "WHERE b.id = :basketId")
+    @EntityGraph(Basket.GRAPH_FULL)
+    @Query("SELECT b FROM Basket b WHERE b.id = :basketId")
     Optional<Basket> findByIdWithAllDetails(@Param("basketId") Long basketId);
 
+    /**
+     * Panier actif d'un shopper et ses articles
+     */
+    @EntityGraph(Basket.GRAPH_WITH_ITEMS)
+    @Query("SELECT b FROM Basket b WHERE b.shopper.id = :shopperId AND b.orderPlaced = :status")
+    Optional<Basket> findActiveBasketWithItemsByShopperId(@Param("shopperId") Long shopperId,
+                                                          @Param("status") BasketStatus status);
+
+    /**
+     * Panier actif d'un shopper, articles et produits
+     */
+    @EntityGraph(Basket.GRAPH_WITH_ITEMS_AND_PRODUCTS)
+    @Query("SELECT b FROM Basket b WHERE b.shopper.id = :shopperId AND b.orderPlaced = :status")
+    Optional<Basket> findActiveBasketWithItemsAndProductsByShopperId(@Param("shopperId") Long shopperId,
+                                                                     @Param("status") BasketStatus status);
+
+    /**
+     * Panier actif avec tous les détails d'un shopper
+     */
+    @EntityGraph(Basket.GRAPH_FULL)
+    @Query("SELECT b FROM Basket b WHERE b.shopper.id = :shopperId AND b.orderPlaced = :status")
+    Optional<Basket> findActiveBasketWithAllDetailsByShopperId(@Param("shopperId") Long shopperId,
+                                                               @Param("status") BasketStatus status);
+
+    /**
+     * Panier chargé selon un plan
+     */
+    default Optional<Basket> findById(Long basketId, BasketFetchPlan plan) {
+        return switch (plan) {
+            case SUMMARY -> findById(basketId);
+            case WITH_ITEMS -> findByIdWithItems(basketId);
+            case WITH_ITEMS_AND_PRODUCTS -> findByIdWithItemsAndProducts(basketId);
+            case FULL -> findByIdWithAllDetails(basketId);
+        };
+    }
+
+    /**
+     * Panier actif d'un shopper chargé selon un plan
+     */
+    default Optional<Basket> findActiveBasketByShopperId(Long shopperId, BasketFetchPlan plan) {
+        return switch (plan) {
+            case SUMMARY -> findActiveBasketByShopperId(shopperId, BasketStatus.ACTIVE);
+            case WITH_ITEMS -> findActiveBasketWithItemsByShopperId(shopperId, BasketStatus.ACTIVE);
+            case WITH_ITEMS_AND_PRODUCTS -> findActiveBasketWithItemsAndProductsByShopperId(shopperId, BasketStatus.ACTIVE);
+            case FULL -> findActiveBasketWithAllDetailsByShopperId(shopperId, BasketStatus.ACTIVE);
+        };
+    }
+
+    // ========== PROJECTIONS DTO (sans hydratation d'entités) ==========
+
+    String BASKET_DTO_SELECT = "SELECT new com.bbbrewery.backend.dto.BasketDTO(" +
+            "b.id, s.id, s.firstName, s.lastName, b.dateCreated, b.dateOrdered, b.quantity, " +
+            "b.subtotal, b.shipping, b.tax, b.total, b.orderPlaced) " +
+            "FROM Basket b LEFT JOIN b.shopper s ";
+
+    String BASKET_ROWS_SELECT = "SELECT b.id AS basketId, s.id AS shopperId, s.firstName AS firstName, " +
+            "s.lastName AS lastName, b.dateCreated AS dateCreated, b.dateOrdered AS dateOrdered, " +
+            "b.quantity AS quantity, b.subtotal AS subtotal, b.shipping AS shipping, b.tax AS tax, " +
+            "b.total AS total, b.orderPlaced AS orderPlaced, bi.id AS itemId, p.id AS productId, " +
+            "p.productName AS productName, bi.quantity AS itemQuantity, bi.price AS price, " +
+            "bi.option1 AS option1, bi.option2 AS option2 " +
+            "FROM Basket b LEFT JOIN b.shopper s LEFT JOIN b.basketItems bi LEFT JOIN bi.product p ";
+
+    /**
+     * En-tête d'un panier
+     */
+    @Query(BASKET_DTO_SELECT + "WHERE b.id = :basketId")
+    Optional<BasketDTO> findDTOById(@Param("basketId") Long basketId);
+
+    /**
+     * En-têtes des paniers d'un shopper
+     */
+    @Query(BASKET_DTO_SELECT + "WHERE b.shopper.id = :shopperId ORDER BY b.dateCreated DESC")
+    List<BasketDTO> findDTOsByShopperId(@Param("shopperId") Long shopperId);
+
+    /**
+     * En-tête du panier actif d'un shopper
+     */
+    @Query(BASKET_DTO_SELECT + "WHERE b.shopper.id = :shopperId AND b.orderPlaced = :status")
+    Optional<BasketDTO> findActiveDTOByShopperId(@Param("shopperId") Long shopperId,
+                                                 @Param("status") BasketStatus status);
+
+    /**
+     * En-têtes par statut
+     */
+    @Query(BASKET_DTO_SELECT + "WHERE b.orderPlaced = :status")
+    List<BasketDTO> findDTOsByOrderPlaced(@Param("status") BasketStatus status);
+
+    /**
+     * En-têtes par plage de dates de création
+     */
+    @Query(BASKET_DTO_SELECT + "WHERE b.dateCreated BETWEEN :startDate AND :endDate")
+    List<BasketDTO> findDTOsByDateCreatedBetween(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * En-têtes par plage de dates de commande
+     */
+    @Query(BASKET_DTO_SELECT + "WHERE b.dateOrdered BETWEEN :startDate AND :endDate")
+    List<BasketDTO> findDTOsByDateOrderedBetween(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * En-têtes avec montant minimum
+     */
+    @Query(BASKET_DTO_SELECT + "WHERE b.total >= :minAmount ORDER BY b.total DESC")
+    List<BasketDTO> findDTOsByMinimumTotal(@Param("minAmount") BigDecimal minAmount);
+
+    /**
+     * En-têtes des paniers récents
+     */
+    @Query(BASKET_DTO_SELECT + "WHERE b.dateCreated >= :since ORDER BY b.dateCreated DESC")
+    List<BasketDTO> findRecentDTOs(@Param("since") LocalDateTime since);
+
+    /**
+     * En-têtes des paniers abandonnés (actifs avec articles mais anciens)
+     */
+    @Query(BASKET_DTO_SELECT + "WHERE b.orderPlaced = :activeStatus " +
+            "AND b.dateCreated < :cutoffDate AND SIZE(b.basketItems) > 0 " +
+            "ORDER BY b.dateCreated ASC")
+    List<BasketDTO> findAbandonedDTOs(@Param("cutoffDate") LocalDateTime cutoffDate,
+                                      @Param("activeStatus") BasketStatus activeStatus);
+
+    /**
+     * Panier et articles en lignes plates (une ligne par article)
+     */
+    @Query(BASKET_ROWS_SELECT + "WHERE b.id = :basketId ORDER BY bi.id")
+    List<Tuple> findRowsById(@Param("basketId") Long basketId);
+
+    /**
+     * Panier actif d'un shopper et ses articles en lignes plates
+     */
+    @Query(BASKET_ROWS_SELECT + "WHERE s.id = :shopperId AND b.orderPlaced = :status ORDER BY b.id, bi.id")
+    List<Tuple> findActiveRowsByShopperId(@Param("shopperId") Long shopperId,
+                                          @Param("status") BasketStatus status);
+
     // ========== PROCÉDURES STOCKÉES ET FONCTIONS ==========
 
     /**
@@ -142,7 +281,8 @@ public interface BasketRepository extends JpaRepository<Basket, Long> {
      */
     @Modifying
     @Transactional
-    @Query("UPDATE Basket b SET b.subtotal = :subtotal, b.tax = :tax, b.shipping = :shipping, b.total = :total " +
+    @Query("UPDATE Basket b SET b.subtotal = :subtotal, b.tax = :tax, b.shipping = :shipping, b.total = :total, " +
+            "b.version = b.version + 1 " +
             "WHERE b.id = :basketId")
     int updateBasketTotals(@Param("basketId") Long basketId,
                            @Param("subtotal") BigDecimal subtotal,
@@ -155,7 +295,7 @@ public interface BasketRepository extends JpaRepository<Basket, Long> {
      */
     @Modifying
     @Transactional
-    @Query("UPDATE Basket b SET b.orderPlaced = :status, b.dateOrdered = :orderDate " +
+    @Query("UPDATE Basket b SET b.orderPlaced = :status, b.dateOrdered = :orderDate, b.version = b.version + 1 " +
             "WHERE b.id = :basketId")
     int updateOrderStatus(@Param("basketId") Long basketId,
                           @Param("status") BasketStatus status,
@@ -166,12 +306,34 @@ public interface BasketRepository extends JpaRepository<Basket, Long> {
      */
     @Modifying
     @Transactional
-    @Query("UPDATE Basket b SET b.orderPlaced = :newStatus " +
+    @Query("UPDATE Basket b SET b.orderPlaced = :newStatus, b.version = b.version + 1 " +
             "WHERE b.orderPlaced = :currentStatus AND b.dateCreated < :beforeDate")
     int updateBasketStatusBulk(@Param("currentStatus") BasketStatus currentStatus,
                                @Param("newStatus") BasketStatus newStatus,
                                @Param("beforeDate") LocalDateTime beforeDate);
 
+    /**
+     * Mise à jour du statut d'un lot de paniers, conditionnée au statut courant
+     * (sans effet sur les paniers déjà modifiés par un autre traitement)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Basket b SET b.orderPlaced = :newStatus, b.version = b.version + 1 " +
+            "WHERE b.id IN :basketIds AND b.orderPlaced = :currentStatus")
+    int updateBasketStatusByIds(@Param("basketIds") Collection<Long> basketIds,
+                                @Param("currentStatus") BasketStatus currentStatus,
+                                @Param("newStatus") BasketStatus newStatus);
+
+    /**
+     * Page d'IDs de paniers périmés après un curseur (pagination par clé, sans OFFSET)
+     */
+    @Query("SELECT b.id FROM Basket b WHERE b.orderPlaced = :status " +
+            "AND b.dateCreated < :cutoffDate AND b.id > :afterId ORDER BY b.id ASC")
+    List<Long> findStaleBasketIdsAfter(@Param("status") BasketStatus status,
+                                       @Param("cutoffDate") LocalDateTime cutoffDate,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
     // ========== STATISTIQUES ==========
 
     /**
@@ -265,6 +427,13 @@ public interface BasketRepository extends JpaRepository<Basket, Long> {
 
     // ========== REQUÊTES DE VALIDATION ==========
 
+    /**
+     * Projection du résumé d'un panier : statut, quantité, puis produit et quantité de chaque article
+     */
+    @Query("SELECT b.orderPlaced, b.quantity, bi.product.id, bi.quantity " +
+            "FROM Basket b LEFT JOIN b.basketItems bi WHERE b.id = :basketId")
+    List<Object[]> findBasketSummaryRows(@Param("basketId") Long basketId);
+
     /**
      * Vérifie si un panier existe et est actif
      */
@@ -286,4 +455,9 @@ public interface BasketRepository extends JpaRepository<Basket, Long> {
     default boolean hasActiveBasket(Long shopperId) {
         return hasActiveBasket(shopperId, BasketStatus.ACTIVE);
     }
+
+    /**
+     * Vérifie si un shopper a au moins un panier, quel que soit son statut (arrêt à la première ligne)
+     */
+    boolean existsByShopperId(Long shopperId);
 }
\ No newline at end of file
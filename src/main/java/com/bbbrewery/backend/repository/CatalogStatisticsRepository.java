@@ -0,0 +1,122 @@
+package com.bbbrewery.backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class CatalogStatisticsRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Colonnes utiles aux statistiques et au suivi du stock, pour tout le catalogue
+    public List<ProductFiguresItem> findAllProductFigures() {
+        String sql = """
+            SELECT p.IDPRODUCT, p.PRODUCTNAME, p.CATEGORY, p.ACTIVE, p.STOCK, p.PRICE
+            FROM BB_PRODUCT p
+            """;
+
+        return jdbcTemplate.query(sql, new ProductFiguresRowMapper());
+    }
+
+    // Colonnes utiles aux statistiques pour quelques produits (relecture après modification)
+    public List<ProductFiguresItem> findProductFigures(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        String sql = """
+            SELECT p.IDPRODUCT, p.PRODUCTNAME, p.CATEGORY, p.ACTIVE, p.STOCK, p.PRICE
+            FROM BB_PRODUCT p
+            WHERE p.IDPRODUCT IN (%s)
+            """.formatted(placeholders);
+
+        return jdbcTemplate.query(sql, new ProductFiguresRowMapper(), productIds.toArray());
+    }
+
+    // Agrégats des produits actifs par catégorie, en un seul passage
+    public List<CategoryAggregateItem> aggregateActiveByCategory() {
+        String sql = """
+            SELECT p.CATEGORY, COUNT(*) as PRODUCT_COUNT,
+                   NVL(SUM(p.STOCK), 0) as TOTAL_STOCK,
+                   NVL(SUM(p.PRICE), 0) as TOTAL_PRICE,
+                   NVL(SUM(p.PRICE * p.STOCK), 0) as STOCK_VALUE
+            FROM BB_PRODUCT p
+            WHERE p.ACTIVE = 1
+            GROUP BY p.CATEGORY
+            """;
+
+        return jdbcTemplate.query(sql, new CategoryAggregateRowMapper());
+    }
+
+    // Classe des colonnes d'un produit
+    public static class ProductFiguresItem {
+        public Long productId;
+        public String productName;
+        public String category;
+        public boolean active;
+        public int stock;
+        public BigDecimal price;
+
+        // Getters
+        public Long getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public String getCategory() { return category; }
+        public boolean isActive() { return active; }
+        public int getStock() { return stock; }
+        public BigDecimal getPrice() { return price; }
+    }
+
+    // Classe d'agrégat par catégorie
+    public static class CategoryAggregateItem {
+        public String category;
+        public long productCount;
+        public long totalStock;
+        public BigDecimal totalPrice;
+        public BigDecimal stockValue;
+
+        // Getters
+        public String getCategory() { return category; }
+        public long getProductCount() { return productCount; }
+        public long getTotalStock() { return totalStock; }
+        public BigDecimal getTotalPrice() { return totalPrice; }
+        public BigDecimal getStockValue() { return stockValue; }
+    }
+
+    // RowMappers
+    private static class ProductFiguresRowMapper implements RowMapper<ProductFiguresItem> {
+        @Override
+        public ProductFiguresItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            ProductFiguresItem item = new ProductFiguresItem();
+            item.productId = rs.getLong("IDPRODUCT");
+            item.productName = rs.getString("PRODUCTNAME");
+            item.category = rs.getString("CATEGORY");
+            item.active = rs.getInt("ACTIVE") == 1;
+            item.stock = rs.getInt("STOCK");
+            item.price = rs.getBigDecimal("PRICE");
+            return item;
+        }
+    }
+
+    private static class CategoryAggregateRowMapper implements RowMapper<CategoryAggregateItem> {
+        @Override
+        public CategoryAggregateItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            CategoryAggregateItem item = new CategoryAggregateItem();
+            item.category = rs.getString("CATEGORY");
+            item.productCount = rs.getLong("PRODUCT_COUNT");
+            item.totalStock = rs.getLong("TOTAL_STOCK");
+            item.totalPrice = rs.getBigDecimal("TOTAL_PRICE");
+            item.stockValue = rs.getBigDecimal("STOCK_VALUE");
+            return item;
+        }
+    }
+}
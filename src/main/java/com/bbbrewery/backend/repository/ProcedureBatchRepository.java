@@ -0,0 +1,179 @@
+package com.bbbrewery.backend.repository;
+
+import com.bbbrewery.backend.model.BasketStatus;
+import com.bbbrewery.backend.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Appels groupés des procédures stockées : un bloc PL/SQL anonyme contenant
+ * plusieurs appels, exécuté en un seul aller-retour, et requêtes de pré-validation en masse.
+ * Les types collection (tableaux liés) ne sont pas requis dans le schéma.
+ */
+@Repository
+public class ProcedureBatchRepository {
+
+    // Limite Oracle des listes IN
+    private static final int MAX_IN_LIST = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Appelle basket_add_sp pour chaque ligne, dans un seul bloc
+    public void addItemsViaProcedure(List<ProcedureItemLine> lines) {
+        String sql = block("basket_add_sp(?, ?, ?, ?, ?, ?);", lines.size());
+        jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for (ProcedureItemLine line : lines) {
+                ps.setLong(index++, line.getBasketId());
+                ps.setLong(index++, line.getProductId());
+                ps.setBigDecimal(index++, line.getPrice());
+                ps.setInt(index++, line.getQuantity());
+                ps.setNull(index++, Types.VARCHAR);
+                ps.setNull(index++, Types.VARCHAR);
+            }
+        });
+    }
+
+    // Appelle prod_add_sp pour chaque produit, dans un seul bloc
+    public void addProductsViaProcedure(List<ProcedureProductLine> lines) {
+        String sql = block("prod_add_sp(?, ?, ?, ?);", lines.size());
+        jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for (ProcedureProductLine line : lines) {
+                ps.setString(index++, line.getProductName());
+                ps.setBigDecimal(index++, line.getPrice());
+                setString(ps, index++, line.getDescription());
+                ps.setInt(index++, line.getStock());
+            }
+        });
+    }
+
+    // Prix courant des produits existants (prix promotionnel si la promotion est en cours à l'instant donné),
+    // en une requête par tranche de 1000 IDs
+    public Map<Long, BigDecimal> findCurrentPrices(Collection<Long> productIds, LocalDateTime instant) {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        forEachSlice(new ArrayList<>(productIds), slice -> jdbcTemplate.query(
+                "SELECT IDPRODUCT, PRICE, SALEPRICE, SALESTARTDATE, SALEENDDATE FROM BB_PRODUCT WHERE IDPRODUCT IN ("
+                        + placeholders(slice.size()) + ")",
+                rs -> {
+                    // Même règle que Product.getCurrentPrice pour l'appel unitaire
+                    Product product = new Product();
+                    product.setPrice(rs.getBigDecimal("PRICE"));
+                    product.setSalePrice(rs.getBigDecimal("SALEPRICE"));
+                    product.setSaleStartDate(toLocalDateTime(rs.getTimestamp("SALESTARTDATE")));
+                    product.setSaleEndDate(toLocalDateTime(rs.getTimestamp("SALEENDDATE")));
+                    prices.put(rs.getLong("IDPRODUCT"), product.isOnSaleAt(instant) ? product.getSalePrice() : product.getPrice());
+                },
+                slice.toArray()));
+        return prices;
+    }
+
+    // Statut (ORDERPLACED) des paniers existants parmi les IDs demandés
+    public Map<Long, BasketStatus> findBasketStatuses(Collection<Long> basketIds) {
+        Map<Long, BasketStatus> statuses = new HashMap<>();
+        forEachSlice(new ArrayList<>(basketIds), slice -> jdbcTemplate.query(
+                "SELECT IDBASKET, ORDERPLACED FROM BB_BASKET WHERE IDBASKET IN (" + placeholders(slice.size()) + ")",
+                rs -> {
+                    statuses.put(rs.getLong("IDBASKET"), BasketStatus.fromCode(rs.getInt("ORDERPLACED")));
+                },
+                slice.toArray()));
+        return statuses;
+    }
+
+    // Noms de produits déjà utilisés (comparaison insensible à la casse)
+    public Set<String> findExistingProductNames(Collection<String> productNames) {
+        Set<String> existing = new HashSet<>();
+        List<String> upperNames = productNames.stream().map(name -> name.toUpperCase(Locale.ROOT)).distinct().toList();
+        forEachSlice(upperNames, slice -> existing.addAll(jdbcTemplate.queryForList(
+                "SELECT UPPER(PRODUCTNAME) FROM BB_PRODUCT WHERE UPPER(PRODUCTNAME) IN (" + placeholders(slice.size()) + ")",
+                String.class, slice.toArray())));
+        return existing;
+    }
+
+    private static String block(String call, int count) {
+        StringBuilder sql = new StringBuilder(16 + call.length() * count).append("BEGIN\n");
+        for (int i = 0; i < count; i++) {
+            sql.append("  ").append(call).append('\n');
+        }
+        return sql.append("END;").toString();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static <T> void forEachSlice(List<T> values, Consumer<List<T>> action) {
+        for (int from = 0; from < values.size(); from += MAX_IN_LIST) {
+            action.accept(values.subList(from, Math.min(from + MAX_IN_LIST, values.size())));
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value != null) {
+            ps.setString(index, value);
+        } else {
+            ps.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    // Ligne d'article pour basket_add_sp
+    public static class ProcedureItemLine {
+        public Long basketId;
+        public Long productId;
+        public BigDecimal price;
+        public Integer quantity;
+
+        public ProcedureItemLine() {}
+
+        public ProcedureItemLine(Long basketId, Long productId, BigDecimal price, Integer quantity) {
+            this.basketId = basketId;
+            this.productId = productId;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        // Getters
+        public Long getBasketId() { return basketId; }
+        public Long getProductId() { return productId; }
+        public BigDecimal getPrice() { return price; }
+        public Integer getQuantity() { return quantity; }
+    }
+
+    // Ligne de produit pour prod_add_sp
+    public static class ProcedureProductLine {
+        public String productName;
+        public BigDecimal price;
+        public String description;
+        public Integer stock;
+
+        public ProcedureProductLine() {}
+
+        public ProcedureProductLine(String productName, BigDecimal price, String description, Integer stock) {
+            this.productName = productName;
+            this.price = price;
+            this.description = description;
+            this.stock = stock;
+        }
+
+        // Getters
+        public String getProductName() { return productName; }
+        public BigDecimal getPrice() { return price; }
+        public String getDescription() { return description; }
+        public Integer getStock() { return stock; }
+    }
+}
@@ -0,0 +1,149 @@
+package com.bbbrewery.backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Modifications du catalogue par lots JDBC : une instruction par produit, envoyées
+ * en un seul aller-retour par lot. Aucune liste IN : pas de limite à 1000 éléments.
+ * Chaque méthode retourne le nombre de lignes modifiées par produit (0 si introuvable).
+ */
+@Repository
+public class ProductBulkRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Active/désactive les produits
+    public int[] updateStatus(List<Long> productIds, boolean active, LocalDateTime updateTime) {
+        String sql = "UPDATE BB_PRODUCT SET ACTIVE = ?, UPDATED_DATE = ? WHERE IDPRODUCT = ?";
+        return batch(sql, productIds, (ps, productId) -> {
+            ps.setInt(1, active ? 1 : 0);
+            ps.setTimestamp(2, Timestamp.valueOf(updateTime));
+            ps.setLong(3, productId);
+        });
+    }
+
+    // Fixe le prix de base
+    public int[] updatePrice(List<Long> productIds, BigDecimal price, LocalDateTime updateTime) {
+        String sql = "UPDATE BB_PRODUCT SET PRICE = ?, UPDATED_DATE = ? WHERE IDPRODUCT = ?";
+        return batch(sql, productIds, (ps, productId) -> {
+            ps.setBigDecimal(1, price);
+            ps.setTimestamp(2, Timestamp.valueOf(updateTime));
+            ps.setLong(3, productId);
+        });
+    }
+
+    // Multiplie le prix de base par un facteur (arrondi au centime)
+    public int[] scalePrice(List<Long> productIds, BigDecimal factor, LocalDateTime updateTime) {
+        String sql = "UPDATE BB_PRODUCT SET PRICE = ROUND(PRICE * ?, 2), UPDATED_DATE = ? WHERE IDPRODUCT = ?";
+        return batch(sql, productIds, (ps, productId) -> {
+            ps.setBigDecimal(1, factor);
+            ps.setTimestamp(2, Timestamp.valueOf(updateTime));
+            ps.setLong(3, productId);
+        });
+    }
+
+    // Fixe le prix promotionnel et la période de promotion
+    public int[] updateSale(List<Long> productIds, BigDecimal salePrice,
+                            LocalDateTime saleStart, LocalDateTime saleEnd, LocalDateTime updateTime) {
+        String sql = "UPDATE BB_PRODUCT SET SALEPRICE = ?, SALESTARTDATE = ?, SALEENDDATE = ?, UPDATED_DATE = ? " +
+                "WHERE IDPRODUCT = ?";
+        return batch(sql, productIds, (ps, productId) -> {
+            ps.setBigDecimal(1, salePrice);
+            setTimestamp(ps, 2, saleStart);
+            setTimestamp(ps, 3, saleEnd);
+            ps.setTimestamp(4, Timestamp.valueOf(updateTime));
+            ps.setLong(5, productId);
+        });
+    }
+
+    // Prix promotionnel calculé sur le prix de base de chaque produit (arrondi au centime)
+    public int[] updateSaleFromPrice(List<Long> productIds, BigDecimal factor,
+                                     LocalDateTime saleStart, LocalDateTime saleEnd, LocalDateTime updateTime) {
+        String sql = "UPDATE BB_PRODUCT SET SALEPRICE = ROUND(PRICE * ?, 2), SALESTARTDATE = ?, SALEENDDATE = ?, " +
+                "UPDATED_DATE = ? WHERE IDPRODUCT = ?";
+        return batch(sql, productIds, (ps, productId) -> {
+            ps.setBigDecimal(1, factor);
+            setTimestamp(ps, 2, saleStart);
+            setTimestamp(ps, 3, saleEnd);
+            ps.setTimestamp(4, Timestamp.valueOf(updateTime));
+            ps.setLong(5, productId);
+        });
+    }
+
+    // Supprime la promotion
+    public int[] clearSale(List<Long> productIds, LocalDateTime updateTime) {
+        String sql = "UPDATE BB_PRODUCT SET SALEPRICE = NULL, SALESTARTDATE = NULL, SALEENDDATE = NULL, " +
+                "UPDATED_DATE = ? WHERE IDPRODUCT = ?";
+        return batch(sql, productIds, (ps, productId) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(updateTime));
+            ps.setLong(2, productId);
+        });
+    }
+
+    // Change la catégorie
+    public int[] updateCategory(List<Long> productIds, String category, LocalDateTime updateTime) {
+        String sql = "UPDATE BB_PRODUCT SET CATEGORY = ?, UPDATED_DATE = ? WHERE IDPRODUCT = ?";
+        return batch(sql, productIds, (ps, productId) -> {
+            ps.setString(1, category);
+            ps.setTimestamp(2, Timestamp.valueOf(updateTime));
+            ps.setLong(3, productId);
+        });
+    }
+
+    // Réserve la quantité demandée par produit si le stock la couvre (0 ligne sinon).
+    // Produits triés : deux réservations concurrentes verrouillent les lignes dans le même ordre
+    public int[] reserveStock(SortedMap<Long, Integer> quantities, LocalDateTime updateTime) {
+        String sql = "UPDATE BB_PRODUCT SET STOCK = STOCK - ?, UPDATED_DATE = ? WHERE IDPRODUCT = ? AND STOCK >= ?";
+        return batch(sql, new ArrayList<>(quantities.keySet()), (ps, productId) -> {
+            int quantity = quantities.get(productId);
+            ps.setInt(1, quantity);
+            ps.setTimestamp(2, Timestamp.valueOf(updateTime));
+            ps.setLong(3, productId);
+            ps.setInt(4, quantity);
+        });
+    }
+
+    // Rend au stock une quantité réservée (commande annulée)
+    public int[] releaseStock(SortedMap<Long, Integer> quantities, LocalDateTime updateTime) {
+        String sql = "UPDATE BB_PRODUCT SET STOCK = STOCK + ?, UPDATED_DATE = ? WHERE IDPRODUCT = ?";
+        return batch(sql, new ArrayList<>(quantities.keySet()), (ps, productId) -> {
+            ps.setInt(1, quantities.get(productId));
+            ps.setTimestamp(2, Timestamp.valueOf(updateTime));
+            ps.setLong(3, productId);
+        });
+    }
+
+    private int[] batch(String sql, List<Long> productIds, ProductParameterSetter setter) {
+        if (productIds.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(sql, productIds, productIds.size(), setter::setValues);
+        return counts.length > 0 ? counts[0] : new int[0];
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ProductParameterSetter {
+        void setValues(PreparedStatement ps, Long productId) throws SQLException;
+    }
+}
@@ -0,0 +1,103 @@
+package com.bbbrewery.backend.repository;
+
+import com.bbbrewery.backend.dto.ProductImportRowDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Écritures de l'import en masse : IDs réservés par blocs et lots JDBC
+ */
+@Repository
+public class ProductImportRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Réserve un bloc d'IDs en un seul aller-retour
+    public List<Long> nextProductIds(int count) {
+        return jdbcTemplate.queryForList(
+                "SELECT BB_PRODID_SEQ.NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?", Long.class, count);
+    }
+
+    // Insère des produits dont l'ID est déjà attribué
+    public int[] insertAll(List<ProductImportRowDTO> rows, LocalDateTime now) {
+        String sql = """
+            INSERT INTO BB_PRODUCT (IDPRODUCT, PRODUCTNAME, DESCRIPTION, PRICE, STOCK, ACTIVE,
+                                    SALEPRICE, SALESTARTDATE, SALEENDDATE, CATEGORY, TYPE, IMAGEURL,
+                                    CREATED_DATE, UPDATED_DATE)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        return batch(sql, rows, now);
+    }
+
+    // Met à jour des produits existants identifiés par leur ID (0 ligne si l'ID est inconnu)
+    public int[] updateAll(List<ProductImportRowDTO> rows, LocalDateTime now) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        String sql = """
+            UPDATE BB_PRODUCT
+            SET PRODUCTNAME = ?, DESCRIPTION = ?, PRICE = ?, STOCK = ?, ACTIVE = ?,
+                SALEPRICE = ?, SALESTARTDATE = ?, SALEENDDATE = ?, CATEGORY = ?, TYPE = ?, IMAGEURL = ?,
+                UPDATED_DATE = ?
+            WHERE IDPRODUCT = ?
+            """;
+        Timestamp timestamp = Timestamp.valueOf(now);
+        int[][] counts = jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getProductName());
+            ps.setString(2, row.getDescription());
+            ps.setBigDecimal(3, row.getPrice());
+            ps.setInt(4, row.getStock());
+            ps.setInt(5, row.getActive() == null || row.getActive() ? 1 : 0);
+            ps.setBigDecimal(6, row.getSalePrice());
+            setTimestamp(ps, 7, row.getSaleStartDate());
+            setTimestamp(ps, 8, row.getSaleEndDate());
+            ps.setString(9, row.getCategory());
+            ps.setString(10, row.getType());
+            ps.setString(11, row.getImageUrl());
+            ps.setTimestamp(12, timestamp);
+            ps.setLong(13, row.getId());
+        });
+        return counts.length > 0 ? counts[0] : new int[0];
+    }
+
+    private int[] batch(String sql, List<ProductImportRowDTO> rows, LocalDateTime now) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        int[][] counts = jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getId());
+            ps.setString(2, row.getProductName());
+            ps.setString(3, row.getDescription());
+            ps.setBigDecimal(4, row.getPrice());
+            ps.setInt(5, row.getStock());
+            ps.setInt(6, row.getActive() == null || row.getActive() ? 1 : 0);
+            ps.setBigDecimal(7, row.getSalePrice());
+            setTimestamp(ps, 8, row.getSaleStartDate());
+            setTimestamp(ps, 9, row.getSaleEndDate());
+            ps.setString(10, row.getCategory());
+            ps.setString(11, row.getType());
+            ps.setString(12, row.getImageUrl());
+            ps.setTimestamp(13, timestamp);
+            ps.setTimestamp(14, timestamp);
+        });
+        return counts.length > 0 ? counts[0] : new int[0];
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+}
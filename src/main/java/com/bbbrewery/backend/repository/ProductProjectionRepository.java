@@ -0,0 +1,61 @@
+package com.bbbrewery.backend.repository;
+
+import com.bbbrewery.backend.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+@Repository
+public class ProductProjectionRepository {
+
+    // Propriété JSON du produit -> colonnes à lire (les propriétés calculées lisent leurs sources)
+    private static final Map<String, List<String>> COLUMNS = Map.ofEntries(
+            Map.entry("id", List.of("IDPRODUCT AS ID")),
+            Map.entry("productName", List.of("PRODUCTNAME")),
+            Map.entry("description", List.of("DESCRIPTION")),
+            Map.entry("price", List.of("PRICE")),
+            Map.entry("stock", List.of("STOCK")),
+            Map.entry("active", List.of("ACTIVE")),
+            Map.entry("salePrice", List.of("SALEPRICE")),
+            Map.entry("saleStartDate", List.of("SALESTARTDATE")),
+            Map.entry("saleEndDate", List.of("SALEENDDATE")),
+            Map.entry("category", List.of("CATEGORY")),
+            Map.entry("type", List.of("TYPE")),
+            Map.entry("imageUrl", List.of("IMAGEURL")),
+            Map.entry("createdDate", List.of("CREATED_DATE")),
+            Map.entry("updatedDate", List.of("UPDATED_DATE")),
+            Map.entry("onSale", List.of("SALEPRICE", "SALESTARTDATE", "SALEENDDATE")),
+            Map.entry("currentPrice", List.of("PRICE", "SALEPRICE", "SALESTARTDATE", "SALEENDDATE")),
+            Map.entry("inStock", List.of("STOCK"))
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Vrai si au moins une des propriétés demandées correspond à une colonne du produit
+     */
+    public boolean supports(Set<String> fields) {
+        return fields.stream().anyMatch(COLUMNS::containsKey);
+    }
+
+    // Produits réduits aux colonnes des propriétés demandées (l'ID est toujours lu) ;
+    // les autres propriétés restent à leur valeur par défaut et ne sont pas sérialisées
+    public List<Product> findProducts(Set<String> fields, boolean activeOnly) {
+        Set<String> columns = new LinkedHashSet<>(COLUMNS.get("id"));
+        fields.stream()
+                .filter(COLUMNS::containsKey)
+                .forEach(field -> columns.addAll(COLUMNS.get(field)));
+
+        String sql = """
+            SELECT %s
+            FROM BB_PRODUCT p
+            %s
+            """.formatted(String.join(", ", columns), activeOnly ? "WHERE p.ACTIVE = 1" : "");
+
+        return jdbcTemplate.query(sql, new BeanPropertyRowMapper<>(Product.class));
+    }
+}
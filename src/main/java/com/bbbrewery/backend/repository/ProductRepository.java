@@ -99,12 +99,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findProductsWithLowStock(@Param("threshold") Integer threshold);
 
     /**
-     * Top produits par ventes
+     * Top produits par ventes (repli quand les compteurs en mémoire ne sont pas chargés)
+     * Commandes passées : SUBMITTED (1) à DELIVERED (5), cf. BasketStatus.countsAsPurchase
      */
     @Query(value = "SELECT p.* FROM BB_PRODUCT p " +
             "JOIN BB_BASKETITEM bi ON p.IDPRODUCT = bi.IDPRODUCT " +
             "JOIN BB_BASKET b ON bi.IDBASKET = b.IDBASKET " +
-            "WHERE b.ORDERPLACED = 1 AND p.ACTIVE = 1 " +
+            "WHERE b.ORDERPLACED BETWEEN 1 AND 5 AND p.ACTIVE = 1 " +
             "GROUP BY p.IDPRODUCT, p.PRODUCTNAME, p.DESCRIPTION, p.PRICE, p.STOCK, " +
             "         p.ACTIVE, p.SALEPRICE, p.SALESTARTDATE, p.SALEENDDATE, " +
             "         p.CATEGORY, p.TYPE, p.IMAGEURL, p.CREATED_DATE, p.UPDATED_DATE " +
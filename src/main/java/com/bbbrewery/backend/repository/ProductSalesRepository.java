@@ -0,0 +1,98 @@
+package com.bbbrewery.backend.repository;
+
+import com.bbbrewery.backend.model.BasketStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Repository
+public class ProductSalesRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Présence de la table BB_PRODUCT_SALES (script sql/bb_product_sales.sql)
+    public boolean salesTableExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM USER_TABLES WHERE TABLE_NAME = 'BB_PRODUCT_SALES'", Integer.class);
+        return count != null && count > 0;
+    }
+
+    // Ventes de tous les produits, calculées en une requête sur les commandes passées
+    public List<ProductSalesItem> aggregateSalesByProduct() {
+        String purchaseCodes = Arrays.stream(BasketStatus.values())
+                .filter(BasketStatus::countsAsPurchase)
+                .map(status -> String.valueOf(status.ordinal()))
+                .collect(Collectors.joining(","));
+
+        String sql = """
+            SELECT bi.IDPRODUCT, NVL(SUM(bi.QUANTITY), 0) as UNITS_SOLD,
+                   NVL(SUM(bi.QUANTITY * bi.PRICE), 0) as REVENUE
+            FROM BB_BASKETITEM bi
+            JOIN BB_BASKET b ON bi.IDBASKET = b.IDBASKET
+            WHERE b.ORDERPLACED IN (%s)
+            GROUP BY bi.IDPRODUCT
+            """.formatted(purchaseCodes);
+
+        return jdbcTemplate.query(sql, new ProductSalesRowMapper());
+    }
+
+    // Réécrit les compteurs en lots (instantané périodique)
+    public void saveAll(List<ProductSalesItem> items) {
+        String sql = """
+            MERGE INTO BB_PRODUCT_SALES s
+            USING (SELECT ? as IDPRODUCT, ? as UNITS, ? as REVENUE FROM DUAL) d
+            ON (s.IDPRODUCT = d.IDPRODUCT)
+            WHEN MATCHED THEN UPDATE SET s.UNITS_SOLD = d.UNITS, s.REVENUE = d.REVENUE, s.DTUPDATED = SYSDATE
+            WHEN NOT MATCHED THEN INSERT (IDPRODUCT, UNITS_SOLD, REVENUE, DTUPDATED)
+                                  VALUES (d.IDPRODUCT, d.UNITS, d.REVENUE, SYSDATE)
+            """;
+        jdbcTemplate.batchUpdate(sql, items, 500, (ps, item) -> {
+            ps.setLong(1, item.getProductId());
+            ps.setLong(2, item.getUnitsSold());
+            ps.setBigDecimal(3, item.getRevenue());
+        });
+    }
+
+    // Classe de compteurs
+    public static class ProductSalesItem {
+        public Long productId;
+        public Long unitsSold;
+        public BigDecimal revenue;
+
+        public ProductSalesItem() {}
+
+        public ProductSalesItem(Long productId, Long unitsSold, BigDecimal revenue) {
+            this.productId = productId;
+            this.unitsSold = unitsSold;
+            this.revenue = revenue;
+        }
+
+        // Getters et setters
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+        public Long getUnitsSold() { return unitsSold; }
+        public void setUnitsSold(Long unitsSold) { this.unitsSold = unitsSold; }
+        public BigDecimal getRevenue() { return revenue; }
+        public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+    }
+
+    // RowMapper
+    private static class ProductSalesRowMapper implements RowMapper<ProductSalesItem> {
+        @Override
+        public ProductSalesItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new ProductSalesItem(
+                    rs.getLong("IDPRODUCT"),
+                    rs.getLong("UNITS_SOLD"),
+                    rs.getBigDecimal("REVENUE"));
+        }
+    }
+}
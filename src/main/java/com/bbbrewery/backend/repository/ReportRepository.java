@@ -28,7 +28,7 @@ public class ReportRepository {
                 SELECT bi.IDPRODUCT, SUM(bi.QUANTITY) as TOTAL_SOLD
                 FROM BB_BASKETITEM bi
                 JOIN BB_BASKET b ON bi.IDBASKET = b.IDBASKET
-                WHERE b.ORDERPLACED > 1
+                WHERE b.ORDERPLACED BETWEEN 1 AND 5
                 GROUP BY bi.IDPRODUCT
             ) sales ON p.IDPRODUCT = sales.IDPRODUCT
             WHERE p.ACTIVE = 1
@@ -38,6 +38,20 @@ public class ReportRepository {
         return jdbcTemplate.query(sql, new StockReportRowMapper());
     }
 
+    // Rapport de stock sans les ventes (TOTAL_SOLD à 0, complété depuis les compteurs en mémoire)
+    public List<StockReportItem> getStockLevels() {
+        String sql = """
+            SELECT p.IDPRODUCT, p.PRODUCTNAME, p.STOCK, p.PRICE,
+                   0 as TOTAL_SOLD,
+                   p.STOCK * p.PRICE as STOCK_VALUE
+            FROM BB_PRODUCT p
+            WHERE p.ACTIVE = 1
+            ORDER BY p.PRODUCTNAME
+            """;
+
+        return jdbcTemplate.query(sql, new StockReportRowMapper());
+    }
+
     // Rapport des achats par client
     public List<PurchaseReportItem> getPurchaseReport(Long shopperId,
                                                       LocalDateTime startDate,
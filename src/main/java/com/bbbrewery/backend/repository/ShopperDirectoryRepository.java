@@ -0,0 +1,164 @@
+package com.bbbrewery.backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+public class ShopperDirectoryRepository {
+
+    // Lignes lues par aller-retour pendant le parcours complet
+    private static final int SCAN_FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Parcourt email et téléphone de tous les clients sans matérialiser la liste
+    public void scanContacts(Consumer<ShopperContactItem> consumer) {
+        String sql = """
+            SELECT IDSHOPPER, EMAIL, PHONE
+            FROM BB_SHOPPER
+            WHERE EMAIL IS NOT NULL OR PHONE IS NOT NULL
+            ORDER BY IDSHOPPER
+            """;
+        ShopperContactRowMapper mapper = new ShopperContactRowMapper();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(SCAN_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(mapper.mapRow(rs, 0));
+        });
+    }
+
+    // Email et téléphone d'un client
+    public Optional<ShopperContactItem> findContact(Long shopperId) {
+        List<ShopperContactItem> items = jdbcTemplate.query(
+                "SELECT IDSHOPPER, EMAIL, PHONE FROM BB_SHOPPER WHERE IDSHOPPER = ?",
+                new ShopperContactRowMapper(), shopperId);
+        return items.stream().findFirst();
+    }
+
+    // Client ayant cet email normalisé (vérification d'un email absent de l'index) ;
+    // l'expression est celle de l'index BB_SHOPPER_EMAIL_NORM_IX (sql/bb_shopper_contact_index.sql)
+    public Optional<Long> findShopperIdByNormalizedEmail(String email) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT MIN(IDSHOPPER) FROM BB_SHOPPER WHERE LOWER(TRIM(EMAIL)) = ?", Long.class, email);
+        return ids.stream().filter(id -> id != null).findFirst();
+    }
+
+    // Client ayant ce téléphone (chiffres seulement) ; index BB_SHOPPER_PHONE_NORM_IX
+    public Optional<Long> findShopperIdByNormalizedPhone(String phone) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT MIN(IDSHOPPER) FROM BB_SHOPPER WHERE REGEXP_REPLACE(PHONE, '[^0-9]', '') = ?",
+                Long.class, phone);
+        return ids.stream().filter(id -> id != null).findFirst();
+    }
+
+    // Parcourt les champs de recherche de tous les clients sans matérialiser la liste
+    public void scanSearchFields(Consumer<ShopperSearchItem> consumer) {
+        String sql = """
+            SELECT IDSHOPPER, FIRSTNAME, LASTNAME, EMAIL, ADDRESS, CITY
+            FROM BB_SHOPPER
+            ORDER BY IDSHOPPER
+            """;
+        ShopperSearchRowMapper mapper = new ShopperSearchRowMapper();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(SCAN_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(mapper.mapRow(rs, 0));
+        });
+    }
+
+    // Champs de recherche d'un client
+    public Optional<ShopperSearchItem> findSearchFields(Long shopperId) {
+        List<ShopperSearchItem> items = jdbcTemplate.query(
+                "SELECT IDSHOPPER, FIRSTNAME, LASTNAME, EMAIL, ADDRESS, CITY FROM BB_SHOPPER WHERE IDSHOPPER = ?",
+                new ShopperSearchRowMapper(), shopperId);
+        return items.stream().findFirst();
+    }
+
+    // Classe de contact
+    public static class ShopperContactItem {
+        public Long shopperId;
+        public String email;
+        public String phone;
+
+        public ShopperContactItem() {}
+
+        public ShopperContactItem(Long shopperId, String email, String phone) {
+            this.shopperId = shopperId;
+            this.email = email;
+            this.phone = phone;
+        }
+
+        // Getters
+        public Long getShopperId() { return shopperId; }
+        public String getEmail() { return email; }
+        public String getPhone() { return phone; }
+    }
+
+    // Classe des champs de recherche
+    public static class ShopperSearchItem {
+        public Long shopperId;
+        public String firstName;
+        public String lastName;
+        public String email;
+        public String address;
+        public String city;
+
+        public ShopperSearchItem() {}
+
+        public ShopperSearchItem(Long shopperId, String firstName, String lastName, String email,
+                                 String address, String city) {
+            this.shopperId = shopperId;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.address = address;
+            this.city = city;
+        }
+
+        // Getters
+        public Long getShopperId() { return shopperId; }
+        public String getFirstName() { return firstName; }
+        public String getLastName() { return lastName; }
+        public String getEmail() { return email; }
+        public String getAddress() { return address; }
+        public String getCity() { return city; }
+    }
+
+    // RowMapper
+    private static class ShopperContactRowMapper implements RowMapper<ShopperContactItem> {
+        @Override
+        public ShopperContactItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new ShopperContactItem(
+                    rs.getLong("IDSHOPPER"),
+                    rs.getString("EMAIL"),
+                    rs.getString("PHONE"));
+        }
+    }
+
+    private static class ShopperSearchRowMapper implements RowMapper<ShopperSearchItem> {
+        @Override
+        public ShopperSearchItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new ShopperSearchItem(
+                    rs.getLong("IDSHOPPER"),
+                    rs.getString("FIRSTNAME"),
+                    rs.getString("LASTNAME"),
+                    rs.getString("EMAIL"),
+                    rs.getString("ADDRESS"),
+                    rs.getString("CITY"));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.bbbrewery.backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+public class ShopperStatisticsRepository {
+
+    // Lignes lues par aller-retour pendant le parcours complet
+    private static final int SCAN_FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Colonnes utiles aux statistiques, pour tous les clients, sans matérialiser la liste
+    public void scanProfiles(Consumer<ShopperProfileItem> consumer) {
+        String sql = """
+            SELECT s.IDSHOPPER, s.STATE, s.CITY, s.DTCREATED
+            FROM BB_SHOPPER s
+            """;
+        ShopperProfileRowMapper mapper = new ShopperProfileRowMapper();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(SCAN_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(mapper.mapRow(rs, 0));
+        });
+    }
+
+    // Colonnes utiles aux statistiques pour un client (relecture après modification)
+    public Optional<ShopperProfileItem> findProfile(Long shopperId) {
+        List<ShopperProfileItem> items = jdbcTemplate.query(
+                "SELECT s.IDSHOPPER, s.STATE, s.CITY, s.DTCREATED FROM BB_SHOPPER s WHERE s.IDSHOPPER = ?",
+                new ShopperProfileRowMapper(), shopperId);
+        return items.stream().findFirst();
+    }
+
+    // Classe de profil
+    public static class ShopperProfileItem {
+        public Long shopperId;
+        public String state;
+        public String city;
+        public LocalDateTime dateCreated;
+
+        public ShopperProfileItem() {}
+
+        public ShopperProfileItem(Long shopperId, String state, String city, LocalDateTime dateCreated) {
+            this.shopperId = shopperId;
+            this.state = state;
+            this.city = city;
+            this.dateCreated = dateCreated;
+        }
+
+        // Getters
+        public Long getShopperId() { return shopperId; }
+        public String getState() { return state; }
+        public String getCity() { return city; }
+        public LocalDateTime getDateCreated() { return dateCreated; }
+    }
+
+    // RowMapper
+    private static class ShopperProfileRowMapper implements RowMapper<ShopperProfileItem> {
+        @Override
+        public ShopperProfileItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Timestamp dateCreated = rs.getTimestamp("DTCREATED");
+            return new ShopperProfileItem(
+                    rs.getLong("IDSHOPPER"),
+                    rs.getString("STATE"),
+                    rs.getString("CITY"),
+                    dateCreated != null ? dateCreated.toLocalDateTime() : null);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.bbbrewery.backend.repository;
+
+import com.bbbrewery.backend.model.BasketStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Repository
+public class ShopperStatsRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Présence de la table BB_SHOPPER_STATS (script sql/bb_shopper_stats.sql)
+    public boolean statsTableExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM USER_TABLES WHERE TABLE_NAME = 'BB_SHOPPER_STATS'", Integer.class);
+        return count != null && count > 0;
+    }
+
+    // Agrégats d'achats de tous les clients, calculés en une requête sur BB_BASKET
+    public List<ShopperStatsItem> aggregatePurchasesByShopper() {
+        String purchaseCodes = Arrays.stream(BasketStatus.values())
+                .filter(BasketStatus::countsAsPurchase)
+                .map(status -> String.valueOf(status.ordinal()))
+                .collect(Collectors.joining(","));
+
+        String sql = """
+            SELECT b.IDSHOPPER, NVL(SUM(b.TOTAL), 0) as TOTAL_SPENT, COUNT(*) as ORDER_COUNT
+            FROM BB_BASKET b
+            WHERE b.IDSHOPPER IS NOT NULL AND b.ORDERPLACED IN (%s)
+            GROUP BY b.IDSHOPPER
+            """.formatted(purchaseCodes);
+
+        return jdbcTemplate.query(sql, new ShopperStatsRowMapper());
+    }
+
+    // Applique une variation (dans la transaction courante)
+    public void applyDelta(Long shopperId, BigDecimal spendDelta, int orderCountDelta) {
+        String sql = """
+            MERGE INTO BB_SHOPPER_STATS s
+            USING (SELECT ? as IDSHOPPER, ? as SPEND, ? as ORDERS FROM DUAL) d
+            ON (s.IDSHOPPER = d.IDSHOPPER)
+            WHEN MATCHED THEN UPDATE SET s.TOTAL_SPENT = s.TOTAL_SPENT + d.SPEND,
+                                         s.ORDER_COUNT = s.ORDER_COUNT + d.ORDERS,
+                                         s.DTUPDATED = SYSDATE
+            WHEN NOT MATCHED THEN INSERT (IDSHOPPER, TOTAL_SPENT, ORDER_COUNT, DTUPDATED)
+                                  VALUES (d.IDSHOPPER, d.SPEND, d.ORDERS, SYSDATE)
+            """;
+        jdbcTemplate.update(sql, shopperId, spendDelta, orderCountDelta);
+    }
+
+    // Réécrit les agrégats en lots (rattrapage au démarrage)
+    public void saveAll(List<ShopperStatsItem> items) {
+        String sql = """
+            MERGE INTO BB_SHOPPER_STATS s
+            USING (SELECT ? as IDSHOPPER, ? as SPEND, ? as ORDERS FROM DUAL) d
+            ON (s.IDSHOPPER = d.IDSHOPPER)
+            WHEN MATCHED THEN UPDATE SET s.TOTAL_SPENT = d.SPEND, s.ORDER_COUNT = d.ORDERS, s.DTUPDATED = SYSDATE
+            WHEN NOT MATCHED THEN INSERT (IDSHOPPER, TOTAL_SPENT, ORDER_COUNT, DTUPDATED)
+                                  VALUES (d.IDSHOPPER, d.SPEND, d.ORDERS, SYSDATE)
+            """;
+        jdbcTemplate.batchUpdate(sql, items, 500, (ps, item) -> {
+            ps.setLong(1, item.getShopperId());
+            ps.setBigDecimal(2, item.getTotalSpent());
+            ps.setLong(3, item.getOrderCount());
+        });
+    }
+
+    // Classe d'agrégat
+    public static class ShopperStatsItem {
+        public Long shopperId;
+        public BigDecimal totalSpent;
+        public Long orderCount;
+
+        public ShopperStatsItem() {}
+
+        public ShopperStatsItem(Long shopperId, BigDecimal totalSpent, Long orderCount) {
+            this.shopperId = shopperId;
+            this.totalSpent = totalSpent;
+            this.orderCount = orderCount;
+        }
+
+        // Getters et setters
+        public Long getShopperId() { return shopperId; }
+        public void setShopperId(Long shopperId) { this.shopperId = shopperId; }
+        public BigDecimal getTotalSpent() { return totalSpent; }
+        public void setTotalSpent(BigDecimal totalSpent) { this.totalSpent = totalSpent; }
+        public Long getOrderCount() { return orderCount; }
+        public void setOrderCount(Long orderCount) { this.orderCount = orderCount; }
+    }
+
+    // RowMapper
+    private static class ShopperStatsRowMapper implements RowMapper<ShopperStatsItem> {
+        @Override
+        public ShopperStatsItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new ShopperStatsItem(
+                    rs.getLong("IDSHOPPER"),
+                    rs.getBigDecimal("TOTAL_SPENT"),
+                    rs.getLong("ORDER_COUNT"));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.bbbrewery.backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class ShopperVisitRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Dernières visites en lots ; une date plus ancienne que celle en base est ignorée
+    public void updateLastVisits(List<Map.Entry<Long, LocalDateTime>> visits) {
+        String sql = """
+            UPDATE BB_SHOPPER SET DTLAST = ?
+            WHERE IDSHOPPER = ? AND (DTLAST IS NULL OR DTLAST < ?)
+            """;
+        jdbcTemplate.batchUpdate(sql, visits, BATCH_SIZE, (ps, visit) -> {
+            Timestamp visitedAt = Timestamp.valueOf(visit.getValue());
+            ps.setTimestamp(1, visitedAt);
+            ps.setLong(2, visit.getKey());
+            ps.setTimestamp(3, visitedAt);
+        });
+    }
+}
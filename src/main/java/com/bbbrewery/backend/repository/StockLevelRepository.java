@@ -0,0 +1,72 @@
+package com.bbbrewery.backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class StockLevelRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Stock des produits actifs (suivi du seuil de stock faible)
+    public List<StockLevelItem> findActiveStockLevels() {
+        String sql = """
+            SELECT p.IDPRODUCT, p.PRODUCTNAME, p.STOCK, p.ACTIVE
+            FROM BB_PRODUCT p
+            WHERE p.ACTIVE = 1
+            """;
+
+        return jdbcTemplate.query(sql, new StockLevelRowMapper());
+    }
+
+    // Stock de quelques produits, actifs ou non (relecture après modification)
+    public List<StockLevelItem> findStockLevels(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        String sql = """
+            SELECT p.IDPRODUCT, p.PRODUCTNAME, p.STOCK, p.ACTIVE
+            FROM BB_PRODUCT p
+            WHERE p.IDPRODUCT IN (%s)
+            """.formatted(placeholders);
+
+        return jdbcTemplate.query(sql, new StockLevelRowMapper(), productIds.toArray());
+    }
+
+    // Classe de niveau de stock
+    public static class StockLevelItem {
+        public Long productId;
+        public String productName;
+        public int stock;
+        public boolean active;
+
+        // Getters
+        public Long getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public int getStock() { return stock; }
+        public boolean isActive() { return active; }
+    }
+
+    // RowMapper
+    private static class StockLevelRowMapper implements RowMapper<StockLevelItem> {
+        @Override
+        public StockLevelItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+            StockLevelItem item = new StockLevelItem();
+            item.productId = rs.getLong("IDPRODUCT");
+            item.productName = rs.getString("PRODUCTNAME");
+            item.stock = rs.getInt("STOCK");
+            item.active = rs.getInt("ACTIVE") == 1;
+            return item;
+        }
+    }
+}
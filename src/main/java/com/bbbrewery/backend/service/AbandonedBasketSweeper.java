@@ -0,0 +1,153 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.model.BasketStatus;
+import com.bbbrewery.backend.repository.BasketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Annule périodiquement les paniers ACTIVE trop anciens.
+ * Les IDs sont parcourus par curseur (id croissant) et annulés par UPDATE groupés,
+ * conditionnés au statut ACTIVE : plusieurs nœuds peuvent exécuter le balayage
+ * en même temps sans double traitement.
+ */
+@Component
+public class AbandonedBasketSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedBasketSweeper.class);
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private BasketSummaryCache basketSummaryCache;
+
+    @Value("${basket.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${basket.sweeper.max-age-days:30}")
+    private int maxAgeDays;
+
+    @Value("${basket.sweeper.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${basket.sweeper.max-rows-per-second:1000}")
+    private int maxRowsPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalScanned = new AtomicLong();
+    private final AtomicLong totalCancelled = new AtomicLong();
+    private volatile long currentCursor;
+    private volatile long lastRunScanned;
+    private volatile long lastRunCancelled;
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+    private volatile String lastError;
+
+    @Scheduled(initialDelayString = "${basket.sweeper.initial-delay-ms:60000}",
+            fixedDelayString = "${basket.sweeper.interval-ms:3600000}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Exécute un balayage complet. Retourne false si un balayage est déjà en cours sur ce nœud.
+     */
+    public boolean sweep() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        lastRunStartedAt = LocalDateTime.now();
+        lastRunScanned = 0;
+        lastRunCancelled = 0;
+        lastError = null;
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+            long cursor = 0L;
+            while (!Thread.currentThread().isInterrupted()) {
+                long chunkStart = System.nanoTime();
+                List<Long> ids = basketRepository.findStaleBasketIdsAfter(
+                        BasketStatus.ACTIVE, cutoff, cursor, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                cursor = ids.get(ids.size() - 1);
+                currentCursor = cursor;
+
+                // Un autre nœud a pu traiter une partie du lot : seul le nombre réellement modifié compte
+                int cancelled = basketRepository.updateBasketStatusByIds(
+                        ids, BasketStatus.ACTIVE, BasketStatus.CANCELLED);
+                basketSummaryCache.evictAll(ids);
+
+                lastRunScanned += ids.size();
+                lastRunCancelled += cancelled;
+                totalScanned.addAndGet(ids.size());
+                totalCancelled.addAndGet(cancelled);
+
+                throttle(ids.size(), chunkStart);
+            }
+            log.info("Balayage des paniers abandonnés : {} examinés, {} annulés", lastRunScanned, lastRunCancelled);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("Échec du balayage des paniers abandonnés", e);
+        } finally {
+            runs.incrementAndGet();
+            lastRunFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+        return true;
+    }
+
+    /**
+     * Métriques de progression du balayage
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("running", running.get());
+        statistics.put("maxAgeDays", maxAgeDays);
+        statistics.put("chunkSize", chunkSize);
+        statistics.put("maxRowsPerSecond", maxRowsPerSecond);
+        statistics.put("runs", runs.get());
+        statistics.put("currentCursor", currentCursor);
+        statistics.put("lastRunScanned", lastRunScanned);
+        statistics.put("lastRunCancelled", lastRunCancelled);
+        statistics.put("lastRunStartedAt", lastRunStartedAt);
+        statistics.put("lastRunFinishedAt", lastRunFinishedAt);
+        statistics.put("lastError", lastError);
+        statistics.put("totalScanned", totalScanned.get());
+        statistics.put("totalCancelled", totalCancelled.get());
+        return statistics;
+    }
+
+    // Limite le débit pour ne pas saturer la base pendant les heures de trafic
+    private void throttle(int rows, long chunkStart) {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long targetNanos = rows * 1_000_000_000L / maxRowsPerSecond;
+        long remainingMs = (targetNanos - (System.nanoTime() - chunkStart)) / 1_000_000L;
+        if (remainingMs > 0) {
+            try {
+                Thread.sleep(remainingMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
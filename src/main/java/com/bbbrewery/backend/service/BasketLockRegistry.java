@@ -0,0 +1,119 @@
+package com.bbbrewery.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Verrous répartis (striped locks) par ID de panier.
+ * Sérialise les écritures concurrentes sur un même panier au sein d'un nœud
+ * sans allouer un verrou par panier. Le verrouillage optimiste (colonne VERSION)
+ * reste la garantie entre plusieurs nœuds.
+ */
+@Component
+public class BasketLockRegistry {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMs;
+
+    public BasketLockRegistry(@Value("${basket.lock.stripes:64}") int stripeCount,
+                              @Value("${basket.lock.timeout-ms:5000}") long timeoutMs) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Exécute une action en tenant le verrou du panier
+     */
+    public <T> T withLock(Long basketId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(basketId);
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BasketBusyException("Attente du verrou interrompue pour le panier: " + basketId);
+        }
+        if (!acquired) {
+            throw new BasketBusyException("Panier occupé, réessayez plus tard: " + basketId);
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Exécute une action en tenant les verrous de plusieurs paniers.
+     * Les verrous sont pris dans l'ordre des segments : deux appels concurrents ne peuvent pas s'interbloquer.
+     */
+    public <T> T withLocks(Collection<Long> basketIds, Supplier<T> action) {
+        int[] indexes = basketIds.stream().mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        Deque<ReentrantLock> held = new ArrayDeque<>(indexes.length);
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                boolean acquired;
+                try {
+                    acquired = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BasketBusyException("Attente des verrous interrompue pour les paniers: " + basketIds);
+                }
+                if (!acquired) {
+                    throw new BasketBusyException("Paniers occupés, réessayez plus tard: " + basketIds);
+                }
+                held.push(lock);
+            }
+            return action.get();
+        } finally {
+            while (!held.isEmpty()) {
+                held.pop().unlock();
+            }
+        }
+    }
+
+    /**
+     * Retourne le verrou associé à un panier
+     */
+    ReentrantLock lockFor(Long basketId) {
+        return stripes[stripeIndex(basketId)];
+    }
+
+    private int stripeIndex(Long basketId) {
+        long id = basketId != null ? basketId : 0L;
+        int h = Long.hashCode(id) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Panier momentanément indisponible (verrou non obtenu, conflits répétés) :
+     * l'appelant peut réessayer, ce n'est pas une erreur de la requête
+     */
+    public static class BasketBusyException extends RuntimeException {
+        public BasketBusyException(String message) {
+            super(message);
+        }
+
+        public BasketBusyException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -1,17 +1,41 @@
 package com.bbbrewery.backend.service;
 
+import com.bbbrewery.backend.dto.BasketDTO;
+import com.bbbrewery.backend.dto.BasketItemDTO;
+import com.bbbrewery.backend.dto.BasketSummaryDTO;
+import com.bbbrewery.backend.event.BasketStatusChangedEvent;
+import com.bbbrewery.backend.event.ProductStockChangedEvent;
 import com.bbbrewery.backend.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.bbbrewery.backend.repository.BasketRepository;
+import com.bbbrewery.backend.repository.ProductBulkRepository;
 import com.bbbrewery.backend.repository.ProductRepository;
 import com.bbbrewery.backend.repository.ShopperRepository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -26,6 +50,36 @@ public class BasketService {
     @Autowired
     private ShopperRepository shopperRepository;
 
+    @Autowired
+    private ProductBulkRepository productBulkRepository;
+
+    @Autowired
+    private BasketLockRegistry basketLockRegistry;
+
+    @Autowired
+    private BasketSummaryCache basketSummaryCache;
+
+    @Autowired
+    private ShopperLifetimeValueCache shopperLifetimeValueCache;
+
+    @Autowired
+    private EffectivePriceEngine effectivePriceEngine;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${basket.optimistic.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${basket.optimistic.backoff-ms:20}")
+    private long backoffMs;
+
     /**
      * Récupère tous les paniers
      */
@@ -42,12 +96,20 @@ public class BasketService {
         return basketRepository.findById(id);
     }
 
+    /**
+     * Récupère un panier chargé selon un plan
+     */
+    @Transactional(readOnly = true)
+    public Optional<Basket> getBasketById(Long id, BasketFetchPlan plan) {
+        return basketRepository.findById(id, plan);
+    }
+
     /**
      * Récupère un panier avec ses articles par ID (optimisé)
      */
     @Transactional(readOnly = true)
     public Optional<Basket> getBasketByIdWithItems(Long id) {
-        return basketRepository.findByIdWithItems(id);
+        return basketRepository.findById(id, BasketFetchPlan.WITH_ITEMS_AND_PRODUCTS);
     }
 
     /**
@@ -71,7 +133,7 @@ public class BasketService {
      */
     @Transactional(readOnly = true)
     public Optional<Basket> getActiveBasketWithItemsByShopperId(Long shopperId) {
-        return basketRepository.findActiveBasketWithItemsByShopperId(shopperId, BasketStatus.ACTIVE);
+        return basketRepository.findActiveBasketByShopperId(shopperId, BasketFetchPlan.FULL);
     }
 
     /**
@@ -122,6 +184,173 @@ public class BasketService {
         return basketRepository.findAbandonedBaskets(cutoffDate);
     }
 
+    // ========== PROJECTIONS DTO ==========
+
+    /**
+     * Récupère l'en-tête d'un panier (projection)
+     */
+    @Transactional(readOnly = true)
+    public Optional<BasketDTO> getBasketDTOById(Long id) {
+        return basketRepository.findDTOById(id);
+    }
+
+    /**
+     * Récupère un panier et ses articles en une requête (lignes plates)
+     */
+    @Transactional(readOnly = true)
+    public Optional<BasketDTO> getBasketDTOWithItems(Long id) {
+        return assembleBaskets(basketRepository.findRowsById(id)).stream().findFirst();
+    }
+
+    /**
+     * Récupère les en-têtes des paniers d'un client
+     */
+    @Transactional(readOnly = true)
+    public List<BasketDTO> getBasketDTOsByShopperId(Long shopperId) {
+        return basketRepository.findDTOsByShopperId(shopperId);
+    }
+
+    /**
+     * Récupère l'en-tête du panier actif d'un client
+     */
+    @Transactional(readOnly = true)
+    public Optional<BasketDTO> getActiveBasketDTOByShopperId(Long shopperId) {
+        return basketRepository.findActiveDTOByShopperId(shopperId, BasketStatus.ACTIVE);
+    }
+
+    /**
+     * Récupère le panier actif d'un client et ses articles en une requête
+     */
+    @Transactional(readOnly = true)
+    public Optional<BasketDTO> getActiveBasketDTOWithItemsByShopperId(Long shopperId) {
+        return assembleBaskets(basketRepository.findActiveRowsByShopperId(shopperId, BasketStatus.ACTIVE))
+                .stream().findFirst();
+    }
+
+    /**
+     * Récupère les en-têtes par statut
+     */
+    @Transactional(readOnly = true)
+    public List<BasketDTO> getBasketDTOsByStatus(BasketStatus status) {
+        return basketRepository.findDTOsByOrderPlaced(status);
+    }
+
+    /**
+     * Récupère les en-têtes par période de création
+     */
+    @Transactional(readOnly = true)
+    public List<BasketDTO> getBasketDTOsByDateCreated(LocalDateTime startDate, LocalDateTime endDate) {
+        return basketRepository.findDTOsByDateCreatedBetween(startDate, endDate);
+    }
+
+    /**
+     * Récupère les en-têtes par période de commande
+     */
+    @Transactional(readOnly = true)
+    public List<BasketDTO> getBasketDTOsByDateOrdered(LocalDateTime startDate, LocalDateTime endDate) {
+        return basketRepository.findDTOsByDateOrderedBetween(startDate, endDate);
+    }
+
+    /**
+     * Récupère les en-têtes avec montant minimum
+     */
+    @Transactional(readOnly = true)
+    public List<BasketDTO> getBasketDTOsByMinimumTotal(BigDecimal minAmount) {
+        return basketRepository.findDTOsByMinimumTotal(minAmount);
+    }
+
+    /**
+     * Récupère les en-têtes des paniers récents
+     */
+    @Transactional(readOnly = true)
+    public List<BasketDTO> getRecentBasketDTOs(LocalDateTime since) {
+        return basketRepository.findRecentDTOs(since);
+    }
+
+    /**
+     * Récupère les en-têtes des paniers abandonnés
+     */
+    @Transactional(readOnly = true)
+    public List<BasketDTO> getAbandonedBasketDTOs(LocalDateTime cutoffDate) {
+        return basketRepository.findAbandonedDTOs(cutoffDate, BasketStatus.ACTIVE);
+    }
+
+    /**
+     * Récupère un panier chargé selon un plan, converti dans la transaction
+     * (aucun chargement paresseux pendant la sérialisation)
+     */
+    @Transactional(readOnly = true)
+    public Optional<BasketDTO> getBasketDTOById(Long id, BasketFetchPlan plan) {
+        return basketRepository.findById(id, plan).map(basket -> toDTO(basket, plan));
+    }
+
+    /**
+     * Récupère le panier actif d'un client chargé selon un plan
+     */
+    @Transactional(readOnly = true)
+    public Optional<BasketDTO> getActiveBasketDTOByShopperId(Long shopperId, BasketFetchPlan plan) {
+        return basketRepository.findActiveBasketByShopperId(shopperId, plan).map(basket -> toDTO(basket, plan));
+    }
+
+    // Ne lit que les associations chargées par le plan (l'ID d'un proxy ne déclenche pas de requête)
+    private static BasketDTO toDTO(Basket basket, BasketFetchPlan plan) {
+        Shopper shopper = basket.getShopper();
+        BasketDTO dto = new BasketDTO(basket.getId(),
+                shopper != null ? shopper.getId() : null,
+                plan.includesShopper() && shopper != null ? shopper.getFirstName() : null,
+                plan.includesShopper() && shopper != null ? shopper.getLastName() : null,
+                basket.getDateCreated(), basket.getDateOrdered(), basket.getQuantity(),
+                basket.getSubtotal(), basket.getShipping(), basket.getTax(), basket.getTotal(),
+                basket.getOrderPlaced());
+        if (plan.includesItems()) {
+            List<BasketItemDTO> items = new ArrayList<>(basket.getBasketItems().size());
+            for (BasketItem item : basket.getBasketItems()) {
+                Product product = item.getProduct();
+                items.add(new BasketItemDTO(item.getId(),
+                        product != null ? product.getId() : null,
+                        plan.includesProducts() && product != null ? product.getProductName() : null,
+                        item.getQuantity(), item.getPrice(), item.getOption1(), item.getOption2()));
+            }
+            dto.setBasketItems(items);
+        }
+        return dto;
+    }
+
+    // Regroupe les lignes plates (en-tête répété + article) par panier, dans l'ordre de la requête
+    private List<BasketDTO> assembleBaskets(List<Tuple> rows) {
+        Map<Long, BasketDTO> baskets = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            BasketDTO basket = baskets.computeIfAbsent(row.get("basketId", Long.class), id -> {
+                BasketDTO dto = new BasketDTO(id,
+                        row.get("shopperId", Long.class),
+                        row.get("firstName", String.class),
+                        row.get("lastName", String.class),
+                        row.get("dateCreated", LocalDateTime.class),
+                        row.get("dateOrdered", LocalDateTime.class),
+                        row.get("quantity", Integer.class),
+                        row.get("subtotal", BigDecimal.class),
+                        row.get("shipping", BigDecimal.class),
+                        row.get("tax", BigDecimal.class),
+                        row.get("total", BigDecimal.class),
+                        row.get("orderPlaced", BasketStatus.class));
+                dto.setBasketItems(new ArrayList<>());
+                return dto;
+            });
+
+            Long itemId = row.get("itemId", Long.class);
+            if (itemId != null) {
+                basket.getBasketItems().add(new BasketItemDTO(itemId,
+                        row.get("productId", Long.class),
+                        row.get("productName", String.class),
+                        row.get("itemQuantity", Integer.class),
+                        row.get("price", BigDecimal.class),
+                        row.get("option1", Integer.class),
+                        row.get("option2", Integer.class)));
+            }
+        }
+        return new ArrayList<>(baskets.values());
+    }
+
     /**
      * Crée un nouveau panier
      */
@@ -137,30 +366,50 @@ public class BasketService {
      * Met à jour un panier
      */
     public Basket updateBasket(Basket basket) {
-        return basketRepository.save(basket);
+        Basket saved = basketRepository.save(basket);
+        basketSummaryCache.evictAfterCompletion(saved.getId());
+        return saved;
     }
 
     /**
      * Met à jour le statut d'un panier
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Basket updateBasketStatus(Long basketId, BasketStatus status) {
-        Basket basket = basketRepository.findById(basketId)
-                .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
-
-        basket.setOrderPlaced(status);
-        if (status != BasketStatus.ACTIVE) {
-            basket.setDateOrdered(LocalDateTime.now());
-        }
-        return basketRepository.save(basket);
+        return mutateBasket(basketId, () -> {
+            Basket basket = basketRepository.findById(basketId, BasketFetchPlan.WITH_ITEMS)
+                    .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+
+            BasketStatus previousStatus = basket.getOrderPlaced();
+            // Le stock est réservé en entrant dans les commandes passées, rendu à l'annulation
+            if (!countsAsPurchase(previousStatus) && countsAsPurchase(status)) {
+                reserveStockOrThrow(basket);
+            } else if (countsAsPurchase(previousStatus) && (status == BasketStatus.CANCELLED || status == BasketStatus.ACTIVE)) {
+                releaseStock(basket);
+            }
+            basket.setOrderPlaced(status);
+            if (status != BasketStatus.ACTIVE) {
+                basket.setDateOrdered(LocalDateTime.now());
+            }
+            publishStatusChange(basket, previousStatus, basket.getTotal());
+            return basketRepository.save(basket);
+        });
     }
 
     /**
      * Ajoute un article au panier
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Basket addItemToBasket(Long basketId, Long productId, int quantity) {
-        Basket basket = basketRepository.findByIdWithItems(basketId)
+        return mutateBasket(basketId, () -> doAddItemToBasket(basketId, productId, quantity));
+    }
+
+    private Basket doAddItemToBasket(Long basketId, Long productId, int quantity) {
+        Basket basket = basketRepository.findById(basketId, BasketFetchPlan.WITH_ITEMS)
                 .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+        requireActive(basket);
 
+        // Stock et prix relus dans la transaction (et à chaque nouvelle tentative)
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Produit introuvable avec ID: " + productId));
 
@@ -187,7 +436,8 @@ public class BasketService {
             BasketItem newItem = new BasketItem();
             newItem.setBasket(basket);
             newItem.setProduct(product);
-            newItem.setPrice(product.getPrice());
+            // Prix calculé sur le produit relu dans la transaction (la table en mémoire peut être en retard)
+            newItem.setPrice(product.getCurrentPrice());
             newItem.setQuantity(quantity);
             basket.addBasketItem(newItem);
         }
@@ -199,25 +449,36 @@ public class BasketService {
     /**
      * Ajoute un article via procédure stockée
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void addItemViaProcedure(Long basketId, Long productId, int quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Produit introuvable avec ID: " + productId));
-
-        if (!basketRepository.existsById(basketId)) {
-            throw new RuntimeException("Panier introuvable avec ID: " + basketId);
-        }
-
-        // Appel de la procédure stockée
-        basketRepository.addItemToBasketViaProcedure(basketId, productId, product.getPrice(),
-                quantity, null, null);
+        basketLockRegistry.withLock(basketId, () -> transactionTemplate().execute(status -> {
+            Basket basket = basketRepository.findById(basketId)
+                    .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+            requireActive(basket);
+
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Produit introuvable avec ID: " + productId));
+
+            // Appel de la procédure stockée
+            basketRepository.addItemToBasketViaProcedure(basketId, productId,
+                    product.getCurrentPrice(), quantity, null, null);
+            return null;
+        }));
+        basketSummaryCache.evict(basketId);
     }
 
     /**
      * Met à jour la quantité d'un article
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Basket updateItemQuantity(Long basketId, Long productId, int newQuantity) {
-        Basket basket = basketRepository.findByIdWithItems(basketId)
+        return mutateBasket(basketId, () -> doUpdateItemQuantity(basketId, productId, newQuantity));
+    }
+
+    private Basket doUpdateItemQuantity(Long basketId, Long productId, int newQuantity) {
+        Basket basket = basketRepository.findById(basketId, BasketFetchPlan.WITH_ITEMS_AND_PRODUCTS)
                 .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+        requireActive(basket);
 
         Optional<BasketItem> itemOpt = basket.getBasketItems().stream()
                 .filter(item -> item.getProduct().getId().equals(productId))
@@ -246,6 +507,7 @@ public class BasketService {
     /**
      * Supprime un article du panier
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Basket removeItemFromBasket(Long basketId, Long productId) {
         return updateItemQuantity(basketId, productId, 0);
     }
@@ -253,20 +515,29 @@ public class BasketService {
     /**
      * Vide le panier
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Basket clearBasket(Long basketId) {
-        Basket basket = basketRepository.findByIdWithItems(basketId)
-                .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+        return mutateBasket(basketId, () -> {
+            Basket basket = basketRepository.findById(basketId, BasketFetchPlan.WITH_ITEMS)
+                    .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+            requireActive(basket);
 
-        basket.getBasketItems().clear();
-        basket.updateTotals();
-        return basketRepository.save(basket);
+            basket.getBasketItems().clear();
+            basket.updateTotals();
+            return basketRepository.save(basket);
+        });
     }
 
     /**
      * Finalise une commande (checkout)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Basket checkoutBasket(Long basketId) {
-        Basket basket = basketRepository.findByIdWithItems(basketId)
+        return mutateBasket(basketId, () -> doCheckoutBasket(basketId));
+    }
+
+    private Basket doCheckoutBasket(Long basketId) {
+        Basket basket = basketRepository.findById(basketId, BasketFetchPlan.WITH_ITEMS_AND_PRODUCTS)
                 .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
 
         if (basket.isEmpty()) {
@@ -277,78 +548,319 @@ public class BasketService {
             throw new RuntimeException("Ce panier a déjà été finalisé");
         }
 
-        // Vérifier le stock pour tous les articles
-        for (BasketItem item : basket.getBasketItems()) {
-            Product product = item.getProduct();
-            if (product.getStock() < item.getQuantity()) {
-                throw new RuntimeException("Stock insuffisant pour le produit: " + product.getProductName());
+        // Réserver le stock de tous les articles (annulé avec la transaction si un produit manque)
+        reserveStockOrThrow(basket);
+
+        basket.submitOrder();
+        publishStatusChange(basket, BasketStatus.ACTIVE, basket.getTotal());
+        return basketRepository.save(basket);
+    }
+
+    /**
+     * Finalise plusieurs paniers dans une seule transaction (checkout asynchrone).
+     * Les verrous de tous les paniers du lot sont tenus pendant le traitement, et le stock
+     * de la demande cumulée du lot est réservé en base en un seul batch d'UPDATE conditionnels.
+     * Si un produit ne couvre pas la demande cumulée, le lot est annulé et repris panier par
+     * panier : chaque panier réserve son propre stock dans sa transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchCheckoutResult checkoutBaskets(List<Long> basketIds) {
+        BatchCheckoutResult result;
+        try {
+            result = basketLockRegistry.withLocks(basketIds, () -> {
+                try {
+                    return transactionTemplate().execute(status -> doCheckoutBaskets(basketIds));
+                } catch (OptimisticLockingFailureException | StockShortageException e) {
+                    // Un panier du lot a été modifié par un autre nœud, ou le stock ne couvre pas
+                    // tout le lot : repli panier par panier
+                    entityManager.clear();
+                    return checkoutBasketsOneByOne(basketIds);
+                }
+            });
+        } catch (BasketLockRegistry.BasketBusyException e) {
+            result = new BatchCheckoutResult();
+            for (Long basketId : basketIds) {
+                result.failed(basketId, e.getMessage());
+            }
+            return result;
+        }
+        basketSummaryCache.evictAll(result.getSucceeded());
+        return result;
+    }
+
+    private BatchCheckoutResult doCheckoutBaskets(List<Long> basketIds) {
+        BatchCheckoutResult result = new BatchCheckoutResult();
+        Map<Long, Basket> baskets = new HashMap<>();
+        for (Basket basket : basketRepository.findAllByIdWithItemsAndProducts(basketIds)) {
+            baskets.put(basket.getId(), basket);
+        }
+
+        List<Basket> accepted = new ArrayList<>();
+        for (Long basketId : basketIds) {
+            Basket basket = baskets.get(basketId);
+            String failure = checkoutFailure(basketId, basket);
+            if (failure == null) {
+                accepted.add(basket);
+            } else {
+                result.failed(basketId, failure);
+            }
+        }
+
+        if (reserveStock(stockDemand(accepted)) != null) {
+            throw new StockShortageException();
+        }
+        for (Basket basket : accepted) {
+            submit(basket);
+            result.succeeded(basket.getId());
+        }
+
+        basketRepository.flush();
+        return result;
+    }
+
+    // Une transaction par panier : un panier sans stock suffisant est annulé sans toucher aux autres
+    private BatchCheckoutResult checkoutBasketsOneByOne(List<Long> basketIds) {
+        BatchCheckoutResult result = new BatchCheckoutResult();
+        for (Long basketId : basketIds) {
+            try {
+                String failure = transactionTemplate().execute(status -> {
+                    Basket basket = basketRepository.findById(basketId, BasketFetchPlan.WITH_ITEMS_AND_PRODUCTS)
+                            .orElse(null);
+                    String reason = checkoutFailure(basketId, basket);
+                    if (reason != null) {
+                        return reason;
+                    }
+                    Long missingProductId = reserveStock(stockDemand(List.of(basket)));
+                    if (missingProductId != null) {
+                        // Annule les réservations déjà faites pour les autres articles du panier
+                        status.setRollbackOnly();
+                        return insufficientStock(basket, missingProductId);
+                    }
+                    submit(basket);
+                    basketRepository.flush();
+                    return null;
+                });
+                if (failure == null) {
+                    result.succeeded(basketId);
+                } else {
+                    result.failed(basketId, failure);
+                }
+            } catch (OptimisticLockingFailureException e) {
+                entityManager.clear();
+                result.failed(basketId, "Conflit de mise à jour concurrente sur le panier: " + basketId);
+            } catch (RuntimeException e) {
+                result.failed(basketId, e.getMessage());
             }
         }
+        return result;
+    }
+
+    // Motif pour lequel le panier ne peut pas être finalisé, ou null
+    private static String checkoutFailure(Long basketId, Basket basket) {
+        if (basket == null) {
+            return "Panier introuvable avec ID: " + basketId;
+        }
+        if (basket.isEmpty()) {
+            return "Impossible de finaliser un panier vide";
+        }
+        if (!basket.isActive()) {
+            return "Ce panier a déjà été finalisé";
+        }
+        return null;
+    }
 
+    private void submit(Basket basket) {
         basket.submitOrder();
-        return basketRepository.save(basket);
+        publishStatusChange(basket, BasketStatus.ACTIVE, basket.getTotal());
+    }
+
+    // ========== RÉSERVATION DU STOCK ==========
+
+    // Quantité demandée par produit, triée par ID produit
+    private static SortedMap<Long, Integer> stockDemand(List<Basket> baskets) {
+        SortedMap<Long, Integer> demand = new TreeMap<>();
+        for (Basket basket : baskets) {
+            for (BasketItem item : basket.getBasketItems()) {
+                demand.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        return demand;
+    }
+
+    /**
+     * Décrémente en base le stock de la demande, produit par produit, si le stock la couvre.
+     * Retourne l'ID du premier produit insuffisant (la transaction doit alors être annulée,
+     * les autres produits étant déjà décrémentés), ou null si tout est réservé.
+     */
+    private Long reserveStock(SortedMap<Long, Integer> demand) {
+        int[] counts = productBulkRepository.reserveStock(demand, LocalDateTime.now());
+        int index = 0;
+        for (Long productId : demand.keySet()) {
+            if (counts[index++] == 0) {
+                return productId;
+            }
+        }
+        // Publiés après commit seulement : les caches de stock appliquent la variation
+        demand.forEach((productId, quantity) -> eventPublisher.publishEvent(new ProductStockChangedEvent(productId, -quantity)));
+        return null;
+    }
+
+    private void reserveStockOrThrow(Basket basket) {
+        Long missingProductId = reserveStock(stockDemand(List.of(basket)));
+        if (missingProductId != null) {
+            throw new RuntimeException(insufficientStock(basket, missingProductId));
+        }
+    }
+
+    // Commande annulée ou rouverte : le stock réservé au checkout est rendu
+    private void releaseStock(Basket basket) {
+        SortedMap<Long, Integer> demand = stockDemand(List.of(basket));
+        productBulkRepository.releaseStock(demand, LocalDateTime.now());
+        demand.forEach((productId, quantity) -> eventPublisher.publishEvent(new ProductStockChangedEvent(productId, quantity)));
+    }
+
+    private static String insufficientStock(Basket basket, Long productId) {
+        String productName = basket.getBasketItems().stream()
+                .map(BasketItem::getProduct)
+                .filter(product -> product.getId().equals(productId))
+                .map(Product::getProductName)
+                .findFirst()
+                .orElse(String.valueOf(productId));
+        return "Stock insuffisant pour le produit: " + productName;
     }
 
     /**
      * Met à jour les taxes du panier
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Basket updateBasketTax(Long basketId, BigDecimal tax) {
-        Basket basket = basketRepository.findById(basketId)
-                .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+        return mutateBasket(basketId, () -> {
+            Basket basket = basketRepository.findById(basketId, BasketFetchPlan.WITH_ITEMS)
+                    .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
 
-        basket.setTax(tax);
-        basket.updateTotals();
-        return basketRepository.save(basket);
+            BigDecimal previousTotal = basket.getTotal();
+            basket.setTax(tax);
+            basket.updateTotals();
+            publishStatusChange(basket, basket.getOrderPlaced(), previousTotal);
+            return basketRepository.save(basket);
+        });
     }
 
     /**
      * Met à jour les frais de port du panier
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Basket updateBasketShipping(Long basketId, BigDecimal shipping) {
-        Basket basket = basketRepository.findById(basketId)
-                .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+        return mutateBasket(basketId, () -> {
+            Basket basket = basketRepository.findById(basketId, BasketFetchPlan.WITH_ITEMS)
+                    .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
 
-        basket.setShipping(shipping);
-        basket.updateTotals();
-        return basketRepository.save(basket);
+            BigDecimal previousTotal = basket.getTotal();
+            basket.setShipping(shipping);
+            basket.updateTotals();
+            publishStatusChange(basket, basket.getOrderPlaced(), previousTotal);
+            return basketRepository.save(basket);
+        });
     }
 
     /**
      * Compte le nombre d'articles dans le panier
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public int getItemCount(Long basketId) {
-        Basket basket = basketRepository.findById(basketId)
-                .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
-        return basket.getQuantity();
+        return getBasketSummary(basketId).getQuantity();
     }
 
     /**
      * Calcule le nombre total d'articles (somme des quantités)
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public int getTotalItemQuantity(Long basketId) {
-        Basket basket = basketRepository.findByIdWithItems(basketId)
+        return getBasketSummary(basketId).getTotalItemQuantity();
+    }
+
+    /**
+     * Vérifie si un panier est vide
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public boolean isBasketEmpty(Long basketId) {
+        return getBasketSummary(basketId).isEmpty();
+    }
+
+    /**
+     * Vérifie si un panier est actif
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public boolean isBasketActive(Long basketId) {
+        return getBasketSummary(basketId).isActive();
+    }
+
+    /**
+     * Vérifie si un panier contient un produit spécifique
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public boolean basketContainsProduct(Long basketId, Long productId) {
+        return getBasketSummary(basketId).containsProduct(productId);
+    }
+
+    /**
+     * Récupère le résumé d'un panier (cache, sinon projection en une requête).
+     * SUPPORTS : un résumé en cache est servi sans ouvrir de transaction ni de connexion.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public BasketSummaryDTO getBasketSummary(Long basketId) {
+        return basketSummaryCache.get(basketId, this::loadBasketSummary)
                 .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+    }
 
-        return basket.getBasketItems().stream()
-                .mapToInt(BasketItem::getQuantity)
-                .sum();
+    private Optional<BasketSummaryDTO> loadBasketSummary(Long basketId) {
+        List<Object[]> rows = basketRepository.findBasketSummaryRows(basketId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Une ligne par article (ou une seule ligne sans article grâce au LEFT JOIN)
+        BasketStatus status = (BasketStatus) rows.get(0)[0];
+        Integer quantity = (Integer) rows.get(0)[1];
+        long[] productIds = new long[rows.size()];
+        int lines = 0;
+        int totalItemQuantity = 0;
+        for (Object[] row : rows) {
+            if (row[2] != null) {
+                productIds[lines++] = (Long) row[2];
+                totalItemQuantity += (Integer) row[3];
+            }
+        }
+        return Optional.of(new BasketSummaryDTO(basketId, status, quantity != null ? quantity : 0,
+                totalItemQuantity, Arrays.copyOf(productIds, lines)));
     }
 
     /**
      * Récupère le total des achats d'un client via fonction stockée
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public BigDecimal getTotalPurchasesByShopperId(Long shopperId) {
-        return basketRepository.getTotalPurchasesByShopperId(shopperId);
+        return shopperLifetimeValueCache.get(shopperId)
+                .map(ShopperLifetimeValueCache.LifetimeValue::getTotalSpent)
+                .orElseGet(() -> basketRepository.getTotalPurchasesByShopperId(shopperId));
     }
 
     /**
-     * Vérifie si un produit est en promotion via fonction stockée
+     * Récupère le montant cumulé et le nombre de commandes d'un client
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<ShopperLifetimeValueCache.LifetimeValue> getLifetimeValueByShopperId(Long shopperId) {
+        return shopperLifetimeValueCache.get(shopperId);
+    }
+
+    /**
+     * Vérifie si un produit est en promotion (table des prix en mémoire, sinon fonction stockée)
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public boolean checkProductOnSale(Long productId) {
+        if (effectivePriceEngine.isLoaded()) {
+            return effectivePriceEngine.isOnSale(productId);
+        }
         Integer result = basketRepository.checkProductOnSale(productId);
         return result != null && result == 1;
     }
@@ -406,14 +918,123 @@ public class BasketService {
     /**
      * Supprime un panier (avec vérifications)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteBasket(Long basketId) {
-        Basket basket = basketRepository.findById(basketId)
-                .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+        mutateBasket(basketId, () -> {
+            Basket basket = basketRepository.findById(basketId, BasketFetchPlan.WITH_ITEMS)
+                    .orElseThrow(() -> new RuntimeException("Panier introuvable avec ID: " + basketId));
+
+            if (basket.isOrdered()) {
+                throw new RuntimeException("Impossible de supprimer un panier déjà commandé");
+            }
+
+            basketRepository.delete(basket);
+            return null;
+        });
+    }
+
+    // ========== CONCURRENCE ==========
+
+    /**
+     * Exécute une mutation de panier sous le verrou du panier, dans sa propre transaction.
+     * En cas de conflit de version (autre onglet, autre nœud), le contexte de persistance
+     * est vidé et la mutation est rejouée sur l'état frais, un nombre borné de fois.
+     */
+    private <T> T mutateBasket(Long basketId, Supplier<T> mutation) {
+        return basketLockRegistry.withLock(basketId, () -> {
+            try {
+                return retryOnConflict(basketId, mutation);
+            } finally {
+                // Après commit (ou rollback) : le prochain résumé sera relu en base
+                basketSummaryCache.evict(basketId);
+            }
+        });
+    }
+
+    private <T> T retryOnConflict(Long basketId, Supplier<T> mutation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate().execute(status -> mutation.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new BasketLockRegistry.BasketBusyException(
+                            "Conflit de mise à jour concurrente sur le panier: " + basketId, e);
+                }
+                entityManager.clear();
+                backoff(attempt);
+            }
+        }
+    }
 
-        if (basket.isOrdered()) {
-            throw new RuntimeException("Impossible de supprimer un panier déjà commandé");
+    // Les articles d'une commande passée sont figés : son total ne change plus que par
+    // les taxes et frais de port, qui publient leur variation
+    private static void requireActive(Basket basket) {
+        if (!basket.isActive()) {
+            throw new RuntimeException("Ce panier a déjà été finalisé, ses articles ne peuvent plus être modifiés");
+        }
+    }
+
+    // Publié dans la transaction courante : les écouteurs agissent avant ou après le commit
+    private void publishStatusChange(Basket basket, BasketStatus previousStatus, BigDecimal previousTotal) {
+        boolean sameTotal = previousTotal == null ? basket.getTotal() == null
+                : basket.getTotal() != null && previousTotal.compareTo(basket.getTotal()) == 0;
+        if (previousStatus == basket.getOrderPlaced() && sameTotal) {
+            return;
         }
+        Long shopperId = basket.getShopper() != null ? basket.getShopper().getId() : null;
+        // Les lignes ne sont chargées que si le panier entre ou sort des commandes passées
+        List<BasketStatusChangedEvent.SoldLine> lines = List.of();
+        if (countsAsPurchase(previousStatus) != countsAsPurchase(basket.getOrderPlaced())) {
+            lines = basket.getBasketItems().stream()
+                    .filter(item -> item.getProduct() != null && item.getQuantity() != null)
+                    .map(item -> new BasketStatusChangedEvent.SoldLine(
+                            item.getProduct().getId(), item.getQuantity(), item.getPrice()))
+                    .collect(Collectors.toList());
+        }
+        eventPublisher.publishEvent(new BasketStatusChangedEvent(basket.getId(), shopperId,
+                previousStatus, basket.getOrderPlaced(), previousTotal, basket.getTotal(), lines));
+    }
+
+    private static boolean countsAsPurchase(BasketStatus status) {
+        return status != null && status.countsAsPurchase();
+    }
 
-        basketRepository.deleteById(basketId);
+    private TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(backoffMs * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Relance interrompue après un conflit de version");
+        }
+    }
+
+    /**
+     * Résultat d'un checkout par lot : paniers finalisés et motifs d'échec
+     */
+    public static class BatchCheckoutResult {
+        private final List<Long> succeeded = new ArrayList<>();
+        private final Map<Long, String> failures = new LinkedHashMap<>();
+
+        void succeeded(Long basketId) {
+            succeeded.add(basketId);
+        }
+
+        void failed(Long basketId, String reason) {
+            failures.put(basketId, reason);
+        }
+
+        public List<Long> getSucceeded() { return succeeded; }
+        public Map<Long, String> getFailures() { return failures; }
+    }
+
+    // Le stock ne couvre pas la demande cumulée du lot : annule la transaction du lot
+    private static class StockShortageException extends RuntimeException {
+        StockShortageException() {
+            super("Stock insuffisant pour la demande cumulée du lot");
+        }
     }
-}
\ No newline at end of file
+}
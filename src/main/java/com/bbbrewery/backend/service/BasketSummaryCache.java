@@ -0,0 +1,127 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.dto.BasketSummaryDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Cache des résumés de panier, invalidé par les mutations de BasketService.
+ * Un compteur d'invalidation par segment empêche de mettre en cache un résumé
+ * lu avant une mutation mais publié après son invalidation. La durée de vie
+ * borne la fraîcheur des mutations faites par un autre nœud.
+ */
+@Component
+public class BasketSummaryCache {
+
+    private static final int SEGMENTS = 64;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray invalidations = new AtomicLongArray(SEGMENTS);
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public BasketSummaryCache(@Value("${basket.summary.ttl-ms:30000}") long ttlMs,
+                              @Value("${basket.summary.max-entries:50000}") int maxEntries) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Retourne le résumé en cache ou le charge via le loader
+     */
+    public Optional<BasketSummaryDTO> get(Long basketId, Function<Long, Optional<BasketSummaryDTO>> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(basketId);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            hits.incrementAndGet();
+            return Optional.of(entry.summary);
+        }
+
+        misses.incrementAndGet();
+        int segment = segment(basketId);
+        long stamp = invalidations.get(segment);
+        Optional<BasketSummaryDTO> loaded = loader.apply(basketId);
+
+        if (loaded.isPresent() && invalidations.get(segment) == stamp) {
+            if (entries.size() >= maxEntries) {
+                entries.values().removeIf(e -> now - e.loadedAt >= ttlNanos);
+            }
+            if (entries.size() < maxEntries) {
+                entries.put(basketId, new Entry(loaded.get(), now));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalide le résumé d'un panier
+     */
+    public void evict(Long basketId) {
+        invalidations.incrementAndGet(segment(basketId));
+        entries.remove(basketId);
+    }
+
+    /**
+     * Invalide le résumé à la fin de la transaction courante (immédiatement hors transaction)
+     */
+    public void evictAfterCompletion(Long basketId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(basketId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(basketId);
+            }
+        });
+    }
+
+    /**
+     * Invalide les résumés d'un lot de paniers
+     */
+    public void evictAll(Collection<Long> basketIds) {
+        basketIds.forEach(this::evict);
+    }
+
+    /**
+     * Statistiques du cache
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("entries", entries.size());
+        statistics.put("maxEntries", maxEntries);
+        statistics.put("ttlMs", ttlNanos / 1_000_000L);
+        statistics.put("hits", hits.get());
+        statistics.put("misses", misses.get());
+        return statistics;
+    }
+
+    private int segment(Long basketId) {
+        return (Long.hashCode(basketId) & 0x7fffffff) % SEGMENTS;
+    }
+
+    private static final class Entry {
+        private final BasketSummaryDTO summary;
+        private final long loadedAt;
+
+        private Entry(BasketSummaryDTO summary, long loadedAt) {
+            this.summary = summary;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.DatabaseCircuitBreaker;
+import com.bbbrewery.backend.model.Product;
+import com.bbbrewery.backend.model.Shipping;
+import com.bbbrewery.backend.model.Tax;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Mode dégradé des lectures du catalogue, des taxes et des tarifs : quand la base est
+ * indisponible (circuit ouvert, erreur de connexion), les lectures sont servies depuis
+ * la dernière copie en mémoire (EffectivePriceEngine, ReferenceDataCache) avec les
+ * mêmes filtres que les requêtes en base. Le contrôleur signale la réponse périmée.
+ */
+@Component
+public class CatalogFallback {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogFallback.class);
+
+    public static final String STALE_HEADER = "X-Data-Stale";
+    public static final String DATA_AGE_HEADER = "X-Data-Age-Seconds";
+
+    @Autowired
+    private DatabaseCircuitBreaker databaseCircuitBreaker;
+
+    @Autowired
+    private EffectivePriceEngine effectivePriceEngine;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    /**
+     * Vrai si la base ne doit pas être interrogée (circuit ouvert)
+     */
+    public boolean isDatabaseUnavailable() {
+        return databaseCircuitBreaker.isOpen();
+    }
+
+    /**
+     * Vrai si l'erreur de lecture de {@code source} justifie la copie en mémoire ;
+     * l'erreur est alors journalisée, la réponse périmée ne la montrant pas
+     */
+    public boolean fallsBackOn(Exception e, String source) {
+        if (!isDatabaseFailure(e)) {
+            return false;
+        }
+        log.warn("Lecture de {} servie depuis la copie en mémoire : base indisponible", source, e);
+        return true;
+    }
+
+    /**
+     * Vrai si l'erreur vient de la disponibilité de la base (connexion impossible, erreur réseau,
+     * circuit ouvert) et non d'une requête invalide ; même critère que le disjoncteur
+     */
+    public static boolean isDatabaseFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CannotCreateTransactionException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && DatabaseCircuitBreaker.isConnectivityFailure(sqlException)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isCatalogAvailable() {
+        return effectivePriceEngine.isLoaded();
+    }
+
+    public boolean isReferenceDataAvailable() {
+        return referenceDataCache.isLoaded();
+    }
+
+    /**
+     * Âge de la copie du catalogue, en secondes
+     */
+    public long getCatalogAgeSeconds() {
+        return ageSeconds(effectivePriceEngine.getLastLoadedAt());
+    }
+
+    /**
+     * Âge de la copie des taxes et tarifs, en secondes
+     */
+    public long getReferenceDataAgeSeconds() {
+        return ageSeconds(referenceDataCache.getLastLoadedAt());
+    }
+
+    // ========== PRODUITS ==========
+
+    public List<Product> getAllProducts() {
+        return products(product -> true);
+    }
+
+    public List<Product> getActiveProducts() {
+        return products(Product::isActive);
+    }
+
+    public List<Product> getInactiveProducts() {
+        return products(product -> Boolean.FALSE.equals(product.getActive()));
+    }
+
+    public Optional<Product> getProductById(Long id) {
+        return products(product -> product.getId().equals(id)).stream().findFirst();
+    }
+
+    public List<Product> searchProductsByName(String name) {
+        return products(product -> contains(product.getProductName(), name));
+    }
+
+    public List<Product> searchProductsByDescription(String keyword) {
+        return products(product -> product.isActive() && contains(product.getDescription(), keyword));
+    }
+
+    public List<Product> searchProducts(String keyword) {
+        return products(product -> product.isActive()
+                && (contains(product.getProductName(), keyword) || contains(product.getDescription(), keyword)));
+    }
+
+    public List<Product> getProductsByCategory(String category) {
+        return products(product -> product.getCategory() != null && product.getCategory().equalsIgnoreCase(category));
+    }
+
+    public List<Product> getProductsByType(String type) {
+        return products(product -> Objects.equals(product.getType(), type));
+    }
+
+    public List<Product> getProductsByCategoryAndType(String category, String type) {
+        return products(product -> product.isActive()
+                && (category == null || (product.getCategory() != null && product.getCategory().equalsIgnoreCase(category)))
+                && (type == null || type.equals(product.getType())));
+    }
+
+    public List<Product> getProductsInStock() {
+        return products(product -> product.isActive() && product.getStock() != null && product.getStock() > 0);
+    }
+
+    public List<Product> getProductsOutOfStock() {
+        return products(product -> product.isActive() && product.getStock() != null && product.getStock() == 0);
+    }
+
+    public List<Product> getLowStockProducts() {
+        return products(product -> product.getStock() != null && product.getStock() < 5);
+    }
+
+    public List<Product> getLowStockProducts(int threshold) {
+        return products(product -> product.isActive() && product.getStock() != null && product.getStock() <= threshold);
+    }
+
+    public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return products(product -> product.getPrice() != null
+                && product.getPrice().compareTo(minPrice) >= 0 && product.getPrice().compareTo(maxPrice) <= 0);
+    }
+
+    // ========== TAXES ET TARIFS ==========
+
+    public List<Tax> getActiveTaxConfigurations() {
+        return referenceDataCache.getTaxConfigurations().stream()
+                .sorted(Comparator.comparing(Tax::getState, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    public List<Shipping> getShippingRates() {
+        return referenceDataCache.getShippingRates();
+    }
+
+    private List<Product> products(Predicate<Product> filter) {
+        return effectivePriceEngine.getCatalog().stream().filter(filter).toList();
+    }
+
+    private static boolean contains(String value, String fragment) {
+        return value != null && fragment != null
+                && value.toLowerCase(Locale.ROOT).contains(fragment.toLowerCase(Locale.ROOT));
+    }
+
+    private static long ageSeconds(LocalDateTime loadedAt) {
+        return loadedAt != null ? Math.max(0, Duration.between(loadedAt, LocalDateTime.now()).getSeconds()) : -1;
+    }
+}
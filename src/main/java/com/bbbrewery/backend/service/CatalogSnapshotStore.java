@@ -0,0 +1,502 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.model.Product;
+import com.bbbrewery.backend.model.Shipping;
+import com.bbbrewery.backend.model.Tax;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané binaire local du catalogue (produits), des configurations de taxe et
+ * des tranches d'expédition, pour démarrer avec des caches déjà chauds.
+ * Format versionné et en colonnes : en-tête (magique, version, date d'écriture,
+ * taille, CRC32), puis pour chaque section le nombre de lignes et chaque colonne
+ * d'un bloc (entiers de taille fixe, décimaux en valeur non mise à l'échelle + échelle,
+ * chaînes en longueurs puis octets UTF-8). Le fichier est écrit à côté puis renommé,
+ * et relu par projection mémoire (FileChannel.map). Un fichier d'une autre version,
+ * corrompu ou trop ancien est ignoré : les caches se chargent alors depuis la base.
+ */
+@Component
+public class CatalogSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+    private static final int MAGIC = 0x42424353; // "BBCS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 8;
+
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final byte NULL_SCALE = Byte.MIN_VALUE;
+
+    private final boolean enabled;
+    private final Path path;
+    private final Duration maxAge;
+
+    // Instantané relu au démarrage, partagé par les caches puis libéré à la première écriture
+    private CatalogSnapshot startupSnapshot;
+    private boolean startupSnapshotRead;
+
+    private final AtomicLong writes = new AtomicLong();
+    private volatile LocalDateTime lastWrittenAt;
+    private volatile long lastWriteBytes;
+    private volatile String lastReadOutcome = "non lu";
+
+    public CatalogSnapshotStore(@Value("${catalog.snapshot.enabled:true}") boolean enabled,
+                                @Value("${catalog.snapshot.path:${java.io.tmpdir}/bbbrewery/catalog-snapshot.bin}") String path,
+                                @Value("${catalog.snapshot.max-age-hours:24}") long maxAgeHours) {
+        this.enabled = enabled;
+        this.path = Paths.get(path);
+        this.maxAge = Duration.ofHours(maxAgeHours);
+    }
+
+    /**
+     * Instantané présent sur disque au démarrage (lu une seule fois)
+     */
+    public synchronized Optional<CatalogSnapshot> readStartupSnapshot() {
+        if (!startupSnapshotRead) {
+            startupSnapshotRead = true;
+            startupSnapshot = enabled ? read() : null;
+        }
+        return Optional.ofNullable(startupSnapshot);
+    }
+
+    /**
+     * Écrit un nouvel instantané (fichier temporaire puis renommage atomique)
+     */
+    public synchronized void write(List<Product> products, List<Tax> taxes, List<Shipping> shippingRates) {
+        if (!enabled) {
+            return;
+        }
+        startupSnapshot = null;
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(64 * 1024);
+            ColumnWriter out = new ColumnWriter(payload);
+            writeProducts(out, products);
+            writeTaxes(out, taxes);
+            writeShippingRates(out, shippingRates);
+            out.flush();
+            byte[] bytes = payload.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(System.currentTimeMillis())
+                    .putInt(bytes.length).putLong(crc.getValue()).flip();
+
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(new ByteBuffer[]{header, ByteBuffer.wrap(bytes)});
+                channel.force(false);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            writes.incrementAndGet();
+            lastWrittenAt = LocalDateTime.now();
+            lastWriteBytes = HEADER_SIZE + bytes.length;
+            log.debug("Instantané du catalogue écrit : {} produits, {} taxes, {} tarifs, {} octets",
+                    products.size(), taxes.size(), shippingRates.size(), lastWriteBytes);
+        } catch (IOException | ArithmeticException e) {
+            log.warn("Écriture de l'instantané du catalogue impossible ({}) : {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * État de l'instantané
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("path", path.toString());
+        statistics.put("formatVersion", FORMAT_VERSION);
+        statistics.put("lastReadOutcome", lastReadOutcome);
+        statistics.put("writes", writes.get());
+        statistics.put("lastWrittenAt", lastWrittenAt);
+        statistics.put("lastWriteBytes", lastWriteBytes);
+        return statistics;
+    }
+
+    // ========== LECTURE ==========
+
+    private CatalogSnapshot read() {
+        if (!Files.isRegularFile(path)) {
+            lastReadOutcome = "absent";
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return rejected("fichier tronqué");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                return rejected("format inconnu");
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                return rejected("version " + version + " (attendue " + FORMAT_VERSION + ")");
+            }
+            LocalDateTime writtenAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneId.systemDefault());
+            int length = buffer.getInt();
+            long expectedCrc = buffer.getLong();
+            if (length < 0 || buffer.remaining() != length) {
+                return rejected("taille incohérente");
+            }
+            if (Duration.between(writtenAt, LocalDateTime.now()).compareTo(maxAge) > 0) {
+                return rejected("trop ancien (" + writtenAt + ")");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice());
+            if (crc.getValue() != expectedCrc) {
+                return rejected("somme de contrôle invalide");
+            }
+
+            ColumnReader in = new ColumnReader(buffer);
+            CatalogSnapshot snapshot = new CatalogSnapshot(writtenAt,
+                    readProducts(in), readTaxes(in), readShippingRates(in));
+            lastReadOutcome = "chargé (écrit le " + writtenAt + ")";
+            log.info("Instantané du catalogue chargé : {} produits, {} taxes, {} tarifs (écrit le {})",
+                    snapshot.getProducts().size(), snapshot.getTaxes().size(),
+                    snapshot.getShippingRates().size(), writtenAt);
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            return rejected("illisible : " + e.getMessage());
+        }
+    }
+
+    private CatalogSnapshot rejected(String reason) {
+        lastReadOutcome = "ignoré : " + reason;
+        log.info("Instantané du catalogue ignoré ({}) : {}", path, reason);
+        return null;
+    }
+
+    // ========== SECTIONS ==========
+
+    private static void writeProducts(ColumnWriter out, List<Product> products) throws IOException {
+        out.rowCount(products.size());
+        out.longs(products, Product::getId);
+        out.strings(products, Product::getProductName);
+        out.strings(products, Product::getDescription);
+        out.decimals(products, Product::getPrice);
+        out.ints(products, Product::getStock);
+        out.ints(products, product -> product.getActive() == null ? null : product.getActive() ? 1 : 0);
+        out.decimals(products, Product::getSalePrice);
+        out.dateTimes(products, Product::getSaleStartDate);
+        out.dateTimes(products, Product::getSaleEndDate);
+        out.strings(products, Product::getCategory);
+        out.strings(products, Product::getType);
+        out.strings(products, Product::getImageUrl);
+        out.dateTimes(products, Product::getCreatedDate);
+        out.dateTimes(products, Product::getUpdatedDate);
+    }
+
+    private static List<Product> readProducts(ColumnReader in) {
+        int rows = in.rowCount();
+        Long[] ids = in.longs(rows);
+        String[] names = in.strings(rows);
+        String[] descriptions = in.strings(rows);
+        BigDecimal[] prices = in.decimals(rows);
+        Integer[] stocks = in.ints(rows);
+        Integer[] actives = in.ints(rows);
+        BigDecimal[] salePrices = in.decimals(rows);
+        LocalDateTime[] saleStarts = in.dateTimes(rows);
+        LocalDateTime[] saleEnds = in.dateTimes(rows);
+        String[] categories = in.strings(rows);
+        String[] types = in.strings(rows);
+        String[] imageUrls = in.strings(rows);
+        LocalDateTime[] created = in.dateTimes(rows);
+        LocalDateTime[] updated = in.dateTimes(rows);
+
+        List<Product> products = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Product product = new Product();
+            product.setId(ids[i]);
+            product.setProductName(names[i]);
+            product.setDescription(descriptions[i]);
+            product.setPrice(prices[i]);
+            product.setStock(stocks[i]);
+            product.setActive(actives[i] == null ? null : actives[i] == 1);
+            product.setSalePrice(salePrices[i]);
+            product.setSaleStartDate(saleStarts[i]);
+            product.setSaleEndDate(saleEnds[i]);
+            product.setCategory(categories[i]);
+            product.setType(types[i]);
+            product.setImageUrl(imageUrls[i]);
+            product.setCreatedDate(created[i]);
+            product.setUpdatedDate(updated[i]);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static void writeTaxes(ColumnWriter out, List<Tax> taxes) throws IOException {
+        out.rowCount(taxes.size());
+        out.longs(taxes, Tax::getId);
+        out.strings(taxes, Tax::getState);
+        out.decimals(taxes, Tax::getTaxRate);
+        out.ints(taxes, Tax::getActive);
+        out.strings(taxes, Tax::getDescription);
+        out.strings(taxes, Tax::getProvince);
+        out.dateTimes(taxes, Tax::getDateCreated);
+    }
+
+    private static List<Tax> readTaxes(ColumnReader in) {
+        int rows = in.rowCount();
+        Long[] ids = in.longs(rows);
+        String[] states = in.strings(rows);
+        BigDecimal[] rates = in.decimals(rows);
+        Integer[] actives = in.ints(rows);
+        String[] descriptions = in.strings(rows);
+        String[] provinces = in.strings(rows);
+        LocalDateTime[] created = in.dateTimes(rows);
+
+        List<Tax> taxes = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Tax tax = new Tax();
+            tax.setId(ids[i]);
+            tax.setState(states[i]);
+            tax.setTaxRate(rates[i]);
+            tax.setActive(actives[i]);
+            tax.setDescription(descriptions[i]);
+            tax.setProvince(provinces[i]);
+            tax.setDateCreated(created[i]);
+            taxes.add(tax);
+        }
+        return taxes;
+    }
+
+    private static void writeShippingRates(ColumnWriter out, List<Shipping> rates) throws IOException {
+        out.rowCount(rates.size());
+        out.longs(rates, Shipping::getIdRange);
+        out.ints(rates, Shipping::getLow);
+        out.ints(rates, Shipping::getHigh);
+        out.decimals(rates, Shipping::getFee);
+        out.decimals(rates, Shipping::getShipCost);
+        out.strings(rates, Shipping::getShippingMethod);
+        out.dateTimes(rates, Shipping::getDateCreated);
+    }
+
+    private static List<Shipping> readShippingRates(ColumnReader in) {
+        int rows = in.rowCount();
+        Long[] ids = in.longs(rows);
+        Integer[] lows = in.ints(rows);
+        Integer[] highs = in.ints(rows);
+        BigDecimal[] fees = in.decimals(rows);
+        BigDecimal[] costs = in.decimals(rows);
+        String[] methods = in.strings(rows);
+        LocalDateTime[] created = in.dateTimes(rows);
+
+        List<Shipping> rates = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Shipping rate = new Shipping();
+            rate.setIdRange(ids[i]);
+            rate.setLow(lows[i]);
+            rate.setHigh(highs[i]);
+            rate.setFee(fees[i]);
+            rate.setShipCost(costs[i]);
+            rate.setShippingMethod(methods[i]);
+            rate.setDateCreated(created[i]);
+            rates.add(rate);
+        }
+        return rates;
+    }
+
+    // ========== COLONNES ==========
+
+    private static final class ColumnWriter {
+        private final DataOutputStream out;
+
+        ColumnWriter(OutputStream target) {
+            this.out = new DataOutputStream(target);
+        }
+
+        void rowCount(int rows) throws IOException {
+            out.writeInt(rows);
+        }
+
+        <T> void longs(List<T> rows, Function<T, Long> column) throws IOException {
+            for (T row : rows) {
+                Long value = column.apply(row);
+                out.writeLong(value != null ? value : NULL_LONG);
+            }
+        }
+
+        <T> void ints(List<T> rows, Function<T, Integer> column) throws IOException {
+            for (T row : rows) {
+                Integer value = column.apply(row);
+                out.writeInt(value != null ? value : NULL_INT);
+            }
+        }
+
+        // Valeurs non mises à l'échelle, puis échelles
+        <T> void decimals(List<T> rows, Function<T, BigDecimal> column) throws IOException {
+            byte[] scales = new byte[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                BigDecimal value = column.apply(rows.get(i));
+                if (value == null) {
+                    out.writeLong(0);
+                    scales[i] = NULL_SCALE;
+                } else {
+                    out.writeLong(value.unscaledValue().longValueExact());
+                    scales[i] = (byte) value.scale();
+                    if (scales[i] != value.scale() || scales[i] == NULL_SCALE) {
+                        throw new ArithmeticException("Échelle hors format : " + value);
+                    }
+                }
+            }
+            out.write(scales);
+        }
+
+        // Longueurs en octets (-1 = null), puis octets UTF-8 concaténés
+        <T> void strings(List<T> rows, Function<T, String> column) throws IOException {
+            List<byte[]> encoded = new ArrayList<>(rows.size());
+            for (T row : rows) {
+                String value = column.apply(row);
+                byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+                encoded.add(bytes);
+                out.writeInt(bytes != null ? bytes.length : -1);
+            }
+            for (byte[] bytes : encoded) {
+                if (bytes != null) {
+                    out.write(bytes);
+                }
+            }
+        }
+
+        // Millisecondes depuis l'époque, sans fuseau (les dates sont locales en base)
+        <T> void dateTimes(List<T> rows, Function<T, LocalDateTime> column) throws IOException {
+            for (T row : rows) {
+                LocalDateTime value = column.apply(row);
+                out.writeLong(value != null ? value.toInstant(ZoneOffset.UTC).toEpochMilli() : NULL_LONG);
+            }
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static final class ColumnReader {
+        private final ByteBuffer in;
+
+        ColumnReader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        int rowCount() {
+            int rows = in.getInt();
+            if (rows < 0) {
+                throw new IllegalStateException("Nombre de lignes invalide : " + rows);
+            }
+            return rows;
+        }
+
+        Long[] longs(int rows) {
+            Long[] values = new Long[rows];
+            for (int i = 0; i < rows; i++) {
+                long value = in.getLong();
+                values[i] = value != NULL_LONG ? value : null;
+            }
+            return values;
+        }
+
+        Integer[] ints(int rows) {
+            Integer[] values = new Integer[rows];
+            for (int i = 0; i < rows; i++) {
+                int value = in.getInt();
+                values[i] = value != NULL_INT ? value : null;
+            }
+            return values;
+        }
+
+        BigDecimal[] decimals(int rows) {
+            long[] unscaled = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                unscaled[i] = in.getLong();
+            }
+            BigDecimal[] values = new BigDecimal[rows];
+            for (int i = 0; i < rows; i++) {
+                byte scale = in.get();
+                values[i] = scale != NULL_SCALE ? new BigDecimal(BigInteger.valueOf(unscaled[i]), scale) : null;
+            }
+            return values;
+        }
+
+        String[] strings(int rows) {
+            int[] lengths = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                lengths[i] = in.getInt();
+            }
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                if (lengths[i] >= 0) {
+                    byte[] bytes = new byte[lengths[i]];
+                    in.get(bytes);
+                    values[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+            return values;
+        }
+
+        LocalDateTime[] dateTimes(int rows) {
+            LocalDateTime[] values = new LocalDateTime[rows];
+            for (int i = 0; i < rows; i++) {
+                long value = in.getLong();
+                values[i] = value != NULL_LONG
+                        ? LocalDateTime.ofInstant(Instant.ofEpochMilli(value), ZoneOffset.UTC)
+                        : null;
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Contenu d'un instantané (objets détachés, jamais gérés par JPA)
+     */
+    public static class CatalogSnapshot {
+        private final LocalDateTime writtenAt;
+        private final List<Product> products;
+        private final List<Tax> taxes;
+        private final List<Shipping> shippingRates;
+
+        CatalogSnapshot(LocalDateTime writtenAt, List<Product> products, List<Tax> taxes, List<Shipping> shippingRates) {
+            this.writtenAt = writtenAt;
+            this.products = products;
+            this.taxes = taxes;
+            this.shippingRates = shippingRates;
+        }
+
+        public LocalDateTime getWrittenAt() { return writtenAt; }
+        public List<Product> getProducts() { return products; }
+        public List<Tax> getTaxes() { return taxes; }
+        public List<Shipping> getShippingRates() { return shippingRates; }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bbbrewery.backend.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Écrit périodiquement, et à l'arrêt, l'instantané local du catalogue et des
+ * données de référence à partir des caches en mémoire. Rien n'est écrit tant que
+ * les caches n'ont pas été relus en base : un instantané périmé n'est jamais réécrit
+ * avec une date récente.
+ */
+@Component
+public class CatalogSnapshotWriter implements DisposableBean {
+
+    @Autowired
+    private CatalogSnapshotStore catalogSnapshotStore;
+
+    @Autowired
+    private EffectivePriceEngine effectivePriceEngine;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Scheduled(initialDelayString = "${catalog.snapshot.initial-delay-ms:60000}",
+            fixedDelayString = "${catalog.snapshot.write-interval-ms:600000}")
+    public void writeSnapshot() {
+        if (!effectivePriceEngine.isReconciled() || !referenceDataCache.isReconciled()) {
+            return;
+        }
+        catalogSnapshotStore.write(effectivePriceEngine.getCatalog(),
+                referenceDataCache.getTaxConfigurations(),
+                referenceDataCache.getShippingRates());
+    }
+
+    @Override
+    public void destroy() {
+        writeSnapshot();
+    }
+}
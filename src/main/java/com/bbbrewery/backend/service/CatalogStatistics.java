@@ -0,0 +1,348 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.StartupCacheWarmup;
+import com.bbbrewery.backend.event.ProductChangedEvent;
+import com.bbbrewery.backend.event.ProductStockChangedEvent;
+import com.bbbrewery.backend.repository.CatalogStatisticsRepository;
+import com.bbbrewery.backend.repository.CatalogStatisticsRepository.CategoryAggregateItem;
+import com.bbbrewery.backend.repository.CatalogStatisticsRepository.ProductFiguresItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistiques des produits actifs (nombre, stock, somme des prix, valeur du stock),
+ * globales et par catégorie, tenues en mémoire et lues en O(1).
+ * La contribution de chaque produit est conservée : une modification retire l'ancienne
+ * contribution et ajoute la nouvelle. Une réconciliation périodique compare les agrégats
+ * à une requête SQL et recharge tout en cas d'écart.
+ */
+@Component
+public class CatalogStatistics implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogStatistics.class);
+
+    // Limite Oracle des listes IN
+    private static final int MAX_IN_LIST = 1000;
+    // Clé des produits sans catégorie (ConcurrentHashMap et Map.copyOf refusent null)
+    private static final String NO_CATEGORY = "";
+
+    @Autowired
+    private CatalogStatisticsRepository catalogStatisticsRepository;
+
+    @Autowired
+    private StartupCacheWarmup startupCacheWarmup;
+
+    // Contributions des produits actifs ; modifiées sous le verrou de l'instance
+    private final Map<Long, ProductFiguresItem> contributions = new HashMap<>();
+    private final Map<String, Aggregate> categories = new HashMap<>();
+    private Aggregate totals = Aggregate.ZERO;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded;
+
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicLong driftsDetected = new AtomicLong();
+    private volatile LocalDateTime lastReconciledAt;
+    private volatile String lastDrift;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        startupCacheWarmup.load("catalogStatistics", this::reload);
+    }
+
+    /**
+     * Recharge toutes les contributions depuis BB_PRODUCT
+     */
+    public synchronized void reload() {
+        try {
+            List<ProductFiguresItem> products = catalogStatisticsRepository.findAllProductFigures();
+            contributions.clear();
+            categories.clear();
+            totals = Aggregate.ZERO;
+            products.forEach(this::put);
+            publish();
+            loaded = true;
+        } catch (DataAccessException e) {
+            loaded = false;
+            log.warn("Chargement des statistiques du catalogue impossible, repli sur les requêtes en base : {}",
+                    e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        if (event instanceof ProductStockChangedEvent stockChanged) {
+            applyStockDelta(stockChanged.getProductId(), stockChanged.getStockDelta());
+            return;
+        }
+        if (event.isFullReload()) {
+            reload();
+            return;
+        }
+        refresh(event.getProductIds());
+    }
+
+    // Lecture et application sous le même verrou : deux commits rapprochés sur un même produit
+    // ne peuvent pas appliquer la lecture la plus ancienne après la plus récente.
+    // Les lectures des statistiques passent par l'instantané et ne sont pas bloquées.
+    private synchronized void refresh(List<Long> productIds) {
+        try {
+            List<ProductFiguresItem> products = new ArrayList<>(productIds.size());
+            for (int from = 0; from < productIds.size(); from += MAX_IN_LIST) {
+                products.addAll(catalogStatisticsRepository.findProductFigures(
+                        productIds.subList(from, Math.min(from + MAX_IN_LIST, productIds.size()))));
+            }
+            productIds.forEach(this::remove);
+            products.forEach(this::put);
+            publish();
+        } catch (DataAccessException e) {
+            log.warn("Rafraîchissement des statistiques impossible pour {} : {}", productIds, e.getMessage());
+        }
+    }
+
+    /**
+     * Compare les agrégats en mémoire à un calcul SQL ; recharge en cas d'écart.
+     * Un écart peut aussi venir d'une modification committée pendant la comparaison :
+     * le rechargement reste correct dans ce cas.
+     */
+    @Scheduled(initialDelayString = "${catalog.statistics.reconcile-interval-ms:600000}",
+            fixedDelayString = "${catalog.statistics.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        if (!loaded) {
+            reload();
+            return;
+        }
+        try {
+            Map<String, Aggregate> expected = new HashMap<>();
+            for (CategoryAggregateItem item : catalogStatisticsRepository.aggregateActiveByCategory()) {
+                expected.put(key(item.getCategory()), new Aggregate(item.getProductCount(), item.getTotalStock(),
+                        item.getTotalPrice(), item.getStockValue()));
+            }
+            Map<String, Aggregate> actual = snapshot.categories;
+            reconciliations.incrementAndGet();
+            lastReconciledAt = LocalDateTime.now();
+
+            Set<String> keys = new HashSet<>(expected.keySet());
+            keys.addAll(actual.keySet());
+            for (String category : keys) {
+                Aggregate sql = expected.getOrDefault(category, Aggregate.ZERO);
+                Aggregate memory = actual.getOrDefault(category, Aggregate.ZERO);
+                if (!sql.sameAs(memory)) {
+                    driftsDetected.incrementAndGet();
+                    lastDrift = "catégorie '" + category + "' : mémoire " + memory + ", base " + sql;
+                    log.warn("Écart des statistiques du catalogue, rechargement : {}", lastDrift);
+                    reload();
+                    return;
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Réconciliation des statistiques du catalogue impossible : {}", e.getMessage());
+        }
+    }
+
+    // ========== LECTURES ==========
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long getActiveProductsCount() {
+        return snapshot.totals.count;
+    }
+
+    public long getTotalStockQuantity() {
+        return snapshot.totals.stock;
+    }
+
+    /**
+     * Prix moyen des produits actifs, null si aucun (comme AVG en SQL)
+     */
+    public BigDecimal getAverageProductPrice() {
+        return snapshot.totals.averagePrice();
+    }
+
+    public BigDecimal getTotalStockValue() {
+        return snapshot.totals.stockValue;
+    }
+
+    /**
+     * Nombre de produits actifs par catégorie, au format [catégorie, nombre]
+     */
+    public List<Object[]> getProductCountByCategory() {
+        List<Object[]> rows = new ArrayList<>();
+        snapshot.categories.forEach((category, aggregate) ->
+                rows.add(new Object[]{category.equals(NO_CATEGORY) ? null : category, aggregate.count}));
+        return rows;
+    }
+
+    /**
+     * Statistiques globales, toutes lues dans le même instantané
+     */
+    public Map<String, Object> getStatistics() {
+        Aggregate current = snapshot.totals;
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("activeProductsCount", current.count);
+        statistics.put("totalStockQuantity", current.stock);
+        statistics.put("averagePrice", current.averagePrice());
+        statistics.put("totalStockValue", current.stockValue);
+        return statistics;
+    }
+
+    /**
+     * Statistiques détaillées par catégorie
+     */
+    public Map<String, Map<String, Object>> getCategoryStatistics() {
+        Map<String, Map<String, Object>> statistics = new TreeMap<>();
+        snapshot.categories.forEach((category, aggregate) -> {
+            Map<String, Object> values = new HashMap<>();
+            values.put("productCount", aggregate.count);
+            values.put("totalStockQuantity", aggregate.stock);
+            values.put("averagePrice", aggregate.averagePrice());
+            values.put("totalStockValue", aggregate.stockValue);
+            statistics.put(category, values);
+        });
+        return statistics;
+    }
+
+    /**
+     * État de la réconciliation
+     */
+    public Map<String, Object> getReconciliationStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("loaded", loaded);
+        status.put("reconciliations", reconciliations.get());
+        status.put("driftsDetected", driftsDetected.get());
+        status.put("lastReconciledAt", lastReconciledAt);
+        status.put("lastDrift", lastDrift);
+        return status;
+    }
+
+    // ========== MISE À JOUR ==========
+
+    private synchronized void applyStockDelta(Long productId, int stockDelta) {
+        ProductFiguresItem current = contributions.get(productId);
+        if (current == null) {
+            // Produit inactif : aucune contribution
+            return;
+        }
+        ProductFiguresItem updated = new ProductFiguresItem();
+        updated.productId = current.productId;
+        updated.productName = current.productName;
+        updated.category = current.category;
+        updated.active = true;
+        updated.stock = current.stock + stockDelta;
+        updated.price = current.price;
+        remove(productId);
+        put(updated);
+        publish();
+    }
+
+    private void put(ProductFiguresItem product) {
+        if (!product.isActive()) {
+            return;
+        }
+        contributions.put(product.getProductId(), product);
+        Aggregate contribution = Aggregate.of(product);
+        totals = totals.plus(contribution);
+        categories.merge(key(product.getCategory()), contribution, Aggregate::plus);
+    }
+
+    private void remove(Long productId) {
+        ProductFiguresItem previous = contributions.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        Aggregate contribution = Aggregate.of(previous);
+        totals = totals.minus(contribution);
+        categories.computeIfPresent(key(previous.getCategory()), (category, aggregate) -> {
+            Aggregate remaining = aggregate.minus(contribution);
+            return remaining.count > 0 ? remaining : null;
+        });
+    }
+
+    // Les lecteurs voient un instantané immuable, jamais un état intermédiaire
+    private void publish() {
+        snapshot = new Snapshot(totals, Map.copyOf(categories));
+    }
+
+    private static String key(String category) {
+        return category != null ? category : NO_CATEGORY;
+    }
+
+    /**
+     * Agrégat immuable : nombre, somme des stocks, somme des prix, valeur du stock
+     */
+    private static final class Aggregate {
+        static final Aggregate ZERO = new Aggregate(0, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        private final long count;
+        private final long stock;
+        private final BigDecimal priceSum;
+        private final BigDecimal stockValue;
+
+        private Aggregate(long count, long stock, BigDecimal priceSum, BigDecimal stockValue) {
+            this.count = count;
+            this.stock = stock;
+            this.priceSum = priceSum != null ? priceSum : BigDecimal.ZERO;
+            this.stockValue = stockValue != null ? stockValue : BigDecimal.ZERO;
+        }
+
+        static Aggregate of(ProductFiguresItem product) {
+            BigDecimal price = product.getPrice() != null ? product.getPrice() : BigDecimal.ZERO;
+            return new Aggregate(1, product.getStock(), price, price.multiply(BigDecimal.valueOf(product.getStock())));
+        }
+
+        Aggregate plus(Aggregate other) {
+            return new Aggregate(count + other.count, stock + other.stock,
+                    priceSum.add(other.priceSum), stockValue.add(other.stockValue));
+        }
+
+        Aggregate minus(Aggregate other) {
+            return new Aggregate(count - other.count, stock - other.stock,
+                    priceSum.subtract(other.priceSum), stockValue.subtract(other.stockValue));
+        }
+
+        BigDecimal averagePrice() {
+            return count > 0 ? priceSum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64) : null;
+        }
+
+        boolean sameAs(Aggregate other) {
+            return count == other.count && stock == other.stock
+                    && priceSum.compareTo(other.priceSum) == 0
+                    && stockValue.compareTo(other.stockValue) == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count + ", stock=" + stock + ", priceSum=" + priceSum + ", stockValue=" + stockValue + '}';
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Aggregate.ZERO, Map.of());
+
+        private final Aggregate totals;
+        private final Map<String, Aggregate> categories;
+
+        private Snapshot(Aggregate totals, Map<String, Aggregate> categories) {
+            this.totals = totals;
+            this.categories = categories;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.bbbrewery.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File de checkout asynchrone.
+ * Les requêtes HTTP déposent un ticket et rendent la main immédiatement ;
+ * un pool borné de workers vide la file par lots et finalise les paniers
+ * via BasketService.checkoutBaskets (une transaction par lot).
+ * Les workers ne reprennent pas l'échéance de la requête de dépôt (RequestDeadline) :
+ * elle a déjà répondu, et un lot regroupe les tickets de plusieurs requêtes.
+ */
+@Component
+public class CheckoutQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutQueue.class);
+
+    @Autowired
+    private BasketService basketService;
+
+    @Value("${checkout.queue.capacity:500}")
+    private int capacity;
+
+    @Value("${checkout.workers:2}")
+    private int workerCount;
+
+    @Value("${checkout.batch-size:20}")
+    private int batchSize;
+
+    @Value("${checkout.ticket.retention-ms:600000}")
+    private long ticketRetentionMs;
+
+    @Value("${checkout.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<CheckoutTicket> queue;
+    private final Map<String, CheckoutTicket> tickets = new ConcurrentHashMap<>();
+    private final Map<Long, CheckoutTicket> pendingByBasket = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "checkout-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::drainLoop);
+        }
+    }
+
+    /**
+     * Arrêt : les lots en cours peuvent se terminer (shutdown-timeout-ms), puis les
+     * tickets non traités sont marqués en échec pour que les clients qui attendent
+     * soient prévenus au lieu de perdre leur ticket en silence.
+     */
+    @PreDestroy
+    void stop() {
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        List<CheckoutTicket> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        tickets.values().stream()
+                .filter(ticket -> !ticket.isDone() && !abandoned.contains(ticket))
+                .forEach(abandoned::add);
+        abandoned.forEach(ticket -> finish(ticket, "Serveur arrêté avant le traitement, soumettez de nouveau la commande"));
+        if (!abandoned.isEmpty()) {
+            log.warn("{} ticket(s) de checkout non traités à l'arrêt, marqués en échec", abandoned.size());
+        }
+    }
+
+    /**
+     * Dépose un panier dans la file. Un panier déjà en attente réutilise son ticket.
+     */
+    public CheckoutTicket submit(Long basketId) {
+        if (!running) {
+            rejected.incrementAndGet();
+            throw new CheckoutQueueFullException("File de checkout arrêtée");
+        }
+        // Remplacement atomique : un ticket terminé mais pas encore retiré n'est jamais réutilisé
+        CheckoutTicket fresh = new CheckoutTicket(basketId);
+        CheckoutTicket ticket = pendingByBasket.compute(basketId,
+                (id, existing) -> existing != null && !existing.isDone() ? existing : fresh);
+        if (ticket != fresh) {
+            return ticket;
+        }
+
+        // Enregistré avant la mise en file : un worker peut le terminer aussitôt
+        tickets.put(ticket.getTicketId(), ticket);
+        if (!queue.offer(ticket)) {
+            tickets.remove(ticket.getTicketId());
+            pendingByBasket.remove(basketId, ticket);
+            rejected.incrementAndGet();
+            throw new CheckoutQueueFullException("File de checkout saturée (" + capacity + " commandes en attente)");
+        }
+        accepted.incrementAndGet();
+        return ticket;
+    }
+
+    /**
+     * Récupère un ticket par son identifiant
+     */
+    public Optional<CheckoutTicket> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId));
+    }
+
+    /**
+     * Statistiques de la file
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("queueDepth", queue.size());
+        statistics.put("capacity", capacity);
+        statistics.put("workers", workerCount);
+        statistics.put("accepted", accepted.get());
+        statistics.put("rejected", rejected.get());
+        statistics.put("completed", completed.get());
+        statistics.put("failed", failed.get());
+        statistics.put("batches", batches.get());
+        statistics.put("trackedTickets", tickets.size());
+        return statistics;
+    }
+
+    // ========== TRAITEMENT ==========
+
+    private void drainLoop() {
+        List<CheckoutTicket> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // Attente bornée : la boucle s'arrête d'elle-même quand running passe à faux
+                CheckoutTicket first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Échec du traitement d'un lot de checkout", e);
+                batch.forEach(ticket -> finish(ticket, "Erreur interne lors du checkout"));
+            } finally {
+                batch.clear();
+                purgeExpiredTickets();
+            }
+        }
+    }
+
+    private void process(List<CheckoutTicket> batch) {
+        batch.forEach(CheckoutTicket::markProcessing);
+        List<Long> basketIds = batch.stream().map(CheckoutTicket::getBasketId).distinct().toList();
+
+        BasketService.BatchCheckoutResult result = basketService.checkoutBaskets(basketIds);
+        batches.incrementAndGet();
+
+        for (CheckoutTicket ticket : batch) {
+            finish(ticket, result.getFailures().get(ticket.getBasketId()));
+        }
+    }
+
+    private void finish(CheckoutTicket ticket, String failure) {
+        boolean finished = failure == null ? ticket.complete() : ticket.fail(failure);
+        if (!finished) {
+            return;
+        }
+        if (failure == null) {
+            completed.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+        pendingByBasket.remove(ticket.getBasketId(), ticket);
+    }
+
+    private void purgeExpiredTickets() {
+        LocalDateTime limit = LocalDateTime.now().minusNanos(ticketRetentionMs * 1_000_000L);
+        tickets.values().removeIf(ticket -> ticket.isDone() && ticket.getCompletedAt().isBefore(limit));
+    }
+
+    /**
+     * Levée quand la file a atteint sa profondeur maximale
+     */
+    public static class CheckoutQueueFullException extends RuntimeException {
+        public CheckoutQueueFullException(String message) {
+            super(message);
+        }
+    }
+}
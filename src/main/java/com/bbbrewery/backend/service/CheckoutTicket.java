@@ -0,0 +1,103 @@
+package com.bbbrewery.backend.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ticket de checkout asynchrone, consulté par le client jusqu'à son traitement
+ */
+public class CheckoutTicket {
+
+    public enum Status {
+        QUEUED, PROCESSING, COMPLETED, FAILED
+    }
+
+    private final String ticketId;
+    private final Long basketId;
+    private final LocalDateTime submittedAt;
+    private volatile Status status;
+    private volatile String message;
+    private volatile LocalDateTime completedAt;
+
+    @JsonIgnore
+    private final CompletableFuture<CheckoutTicket> completion = new CompletableFuture<>();
+
+    public CheckoutTicket(Long basketId) {
+        this.ticketId = UUID.randomUUID().toString();
+        this.basketId = basketId;
+        this.submittedAt = LocalDateTime.now();
+        this.status = Status.QUEUED;
+    }
+
+    // Transitions d'état : un ticket terminé ne change plus
+    synchronized void markProcessing() {
+        if (!isDone()) {
+            this.status = Status.PROCESSING;
+        }
+    }
+
+    boolean complete() {
+        return finish(Status.COMPLETED, "Commande soumise");
+    }
+
+    boolean fail(String reason) {
+        return finish(Status.FAILED, reason);
+    }
+
+    private synchronized boolean finish(Status finalStatus, String reason) {
+        if (isDone()) {
+            return false;
+        }
+        this.message = reason;
+        this.completedAt = LocalDateTime.now();
+        this.status = finalStatus;
+        completion.complete(this);
+        return true;
+    }
+
+    public boolean isDone() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    @JsonIgnore
+    public CompletableFuture<CheckoutTicket> getCompletion() {
+        return completion;
+    }
+
+    // Getters
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    public Long getBasketId() {
+        return basketId;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckoutTicket{" +
+                "ticketId='" + ticketId + '\'' +
+                ", basketId=" + basketId +
+                ", status=" + status +
+                '}';
+    }
+}
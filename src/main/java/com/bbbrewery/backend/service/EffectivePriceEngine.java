@@ -0,0 +1,320 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.StartupCacheWarmup;
+import com.bbbrewery.backend.event.ProductChangedEvent;
+import com.bbbrewery.backend.event.ProductStockChangedEvent;
+import com.bbbrewery.backend.model.Product;
+import com.bbbrewery.backend.repository.ProductRepository;
+import com.bbbrewery.backend.service.CatalogSnapshotStore.CatalogSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table des prix effectifs (prix promotionnel ou prix de base) tenue en mémoire.
+ * La table est reconstruite à chaque SALESTARTDATE / SALEENDDATE par un minuteur
+ * programmé sur la prochaine transition, et à chaque modification de produit.
+ * Une promotion est active de SALESTARTDATE (inclus) à SALEENDDATE (exclu), comme
+ * pour Product.isOnSaleAt. Une variation de stock remplace la copie du produit : les
+ * copies déjà rendues aux lecteurs (sérialisées sans verrou) ne sont jamais modifiées.
+ * Au démarrage, le catalogue vient de l'instantané local s'il est valide, puis est
+ * rechargé depuis la base en arrière-plan (les produits disparus sont écartés).
+ */
+@Component
+public class EffectivePriceEngine implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EffectivePriceEngine.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogSnapshotStore catalogSnapshotStore;
+
+    @Autowired
+    private StartupCacheWarmup startupCacheWarmup;
+
+    // Copies détachées : jamais modifiées par un contexte de persistance
+    private final Map<Long, Product> catalog = new ConcurrentHashMap<>();
+    private volatile PriceTable table = PriceTable.EMPTY;
+    private volatile boolean loaded;
+    // Faux tant que le catalogue vient de l'instantané et n'a pas été relu en base
+    private volatile boolean reconciled;
+    private volatile LocalDateTime lastLoadedAt;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-transitions");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> nextTransition;
+    private volatile LocalDateTime nextTransitionAt;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotStore.readStartupSnapshot();
+        if (snapshot.isPresent()) {
+            synchronized (this) {
+                snapshot.get().getProducts().forEach(product -> catalog.put(product.getId(), product));
+                lastLoadedAt = snapshot.get().getWrittenAt();
+                loaded = true;
+                rebuild();
+            }
+            timer.execute(this::reloadAll);
+        } else {
+            startupCacheWarmup.load("effectivePriceEngine", this::reloadAll);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Recharge tout le catalogue (démarrage, resynchronisation périodique)
+     */
+    @Scheduled(initialDelayString = "${pricing.resync-interval-ms:300000}",
+            fixedDelayString = "${pricing.resync-interval-ms:300000}")
+    public synchronized void reloadAll() {
+        try {
+            List<Product> products = productRepository.findAll();
+            if (!reconciled && loaded) {
+                Set<Long> current = new HashSet<>();
+                products.forEach(product -> current.add(product.getId()));
+                long stale = catalog.keySet().stream().filter(id -> !current.contains(id)).count();
+                log.info("Catalogue réconcilié avec la base : {} produits, {} produits de l'instantané écartés",
+                        products.size(), stale);
+            }
+            catalog.clear();
+            products.forEach(product -> catalog.put(product.getId(), copyOf(product)));
+            loaded = true;
+            reconciled = true;
+            lastLoadedAt = LocalDateTime.now();
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Chargement des prix impossible, repli sur les requêtes en base : {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isFullReload()) {
+            reloadAll();
+            return;
+        }
+        if (event instanceof ProductStockChangedEvent stockChanged) {
+            applyStockDelta(stockChanged);
+            return;
+        }
+        try {
+            List<Product> products = productRepository.findAllById(event.getProductIds());
+            synchronized (this) {
+                event.getProductIds().forEach(catalog::remove);
+                products.forEach(product -> catalog.put(product.getId(), copyOf(product)));
+                rebuild();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Rafraîchissement des prix impossible pour {} : {}", event.getProductIds(), e.getMessage());
+        }
+    }
+
+    // Le stock n'entre pas dans les prix : nouvelle copie sans relecture ni reconstruction,
+    // substituée aussi dans la liste des promotions si le produit y figure
+    private synchronized void applyStockDelta(ProductStockChangedEvent event) {
+        Product current = catalog.get(event.getProductId());
+        if (current == null || current.getStock() == null) {
+            return;
+        }
+        Product updated = copyOf(current);
+        updated.setStock(current.getStock() + event.getStockDelta());
+        catalog.put(updated.getId(), updated);
+
+        PriceTable currentTable = table;
+        for (int i = 0; i < currentTable.activeOnSale.size(); i++) {
+            if (currentTable.activeOnSale.get(i) == current) {
+                List<Product> activeOnSale = new ArrayList<>(currentTable.activeOnSale);
+                activeOnSale.set(i, updated);
+                table = new PriceTable(currentTable.ids, currentTable.effectivePrices, currentTable.onSale,
+                        Collections.unmodifiableList(activeOnSale));
+                break;
+            }
+        }
+    }
+
+    // ========== LECTURES ==========
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Prix effectif d'un produit, null si le produit est inconnu
+     */
+    public BigDecimal getEffectivePrice(Long productId) {
+        PriceTable current = table;
+        int index = current.indexOf(productId);
+        return index >= 0 ? current.effectivePrices[index] : null;
+    }
+
+    /**
+     * Vrai si le produit est actuellement en promotion
+     */
+    public boolean isOnSale(Long productId) {
+        PriceTable current = table;
+        int index = current.indexOf(productId);
+        return index >= 0 && current.onSale[index];
+    }
+
+    /**
+     * Produits actifs actuellement en promotion
+     */
+    public List<Product> getProductsOnSale() {
+        return table.activeOnSale;
+    }
+
+    public boolean isReconciled() {
+        return reconciled;
+    }
+
+    /**
+     * Date de la dernière lecture complète du catalogue en base (ou de l'instantané au démarrage)
+     */
+    public LocalDateTime getLastLoadedAt() {
+        return lastLoadedAt;
+    }
+
+    /**
+     * Copie du catalogue en mémoire (instantané, lectures en mode dégradé)
+     */
+    public List<Product> getCatalog() {
+        List<Product> products = new ArrayList<>(catalog.values());
+        products.sort(Comparator.comparing(Product::getId));
+        return products;
+    }
+
+    public LocalDateTime getNextTransitionAt() {
+        return nextTransitionAt;
+    }
+
+    // ========== CONSTRUCTION DE LA TABLE ==========
+
+    private synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = new ArrayList<>(catalog.values());
+        products.sort(Comparator.comparing(Product::getId));
+
+        int size = products.size();
+        long[] ids = new long[size];
+        BigDecimal[] effectivePrices = new BigDecimal[size];
+        boolean[] onSale = new boolean[size];
+        List<Product> activeOnSale = new ArrayList<>();
+        LocalDateTime next = null;
+
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(i);
+            ids[i] = product.getId();
+            onSale[i] = product.isOnSaleAt(now);
+            effectivePrices[i] = onSale[i] ? product.getSalePrice() : product.getPrice();
+            if (onSale[i] && product.isActive()) {
+                activeOnSale.add(product);
+            }
+            next = earliest(next, nextTransitionAfter(product, now));
+        }
+
+        table = new PriceTable(ids, effectivePrices, onSale, Collections.unmodifiableList(activeOnSale));
+        scheduleTransition(next, now);
+    }
+
+    private void scheduleTransition(LocalDateTime next, LocalDateTime now) {
+        if (nextTransition != null) {
+            nextTransition.cancel(false);
+            nextTransition = null;
+        }
+        nextTransitionAt = next;
+        if (next != null) {
+            // Si le minuteur se déclenche en avance, la transition reste future et est reprogrammée
+            long delayMs = Math.max(0, Duration.between(now, next).toMillis());
+            nextTransition = timer.schedule(this::rebuild, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static LocalDateTime nextTransitionAfter(Product product, LocalDateTime now) {
+        if (product.getSalePrice() == null) {
+            return null;
+        }
+        LocalDateTime next = null;
+        if (product.getSaleStartDate() != null && product.getSaleStartDate().isAfter(now)) {
+            next = product.getSaleStartDate();
+        }
+        if (product.getSaleEndDate() != null && product.getSaleEndDate().isAfter(now)) {
+            next = earliest(next, product.getSaleEndDate());
+        }
+        return next;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static Product copyOf(Product source) {
+        Product copy = new Product();
+        copy.setId(source.getId());
+        copy.setProductName(source.getProductName());
+        copy.setDescription(source.getDescription());
+        copy.setPrice(source.getPrice());
+        copy.setStock(source.getStock());
+        copy.setActive(source.getActive());
+        copy.setSalePrice(source.getSalePrice());
+        copy.setSaleStartDate(source.getSaleStartDate());
+        copy.setSaleEndDate(source.getSaleEndDate());
+        copy.setCategory(source.getCategory());
+        copy.setType(source.getType());
+        copy.setImageUrl(source.getImageUrl());
+        copy.setCreatedDate(source.getCreatedDate());
+        copy.setUpdatedDate(source.getUpdatedDate());
+        return copy;
+    }
+
+    /**
+     * Instantané immuable : IDs triés et tableaux parallèles
+     */
+    private static final class PriceTable {
+        static final PriceTable EMPTY = new PriceTable(new long[0], new BigDecimal[0], new boolean[0], List.of());
+
+        private final long[] ids;
+        private final BigDecimal[] effectivePrices;
+        private final boolean[] onSale;
+        private final List<Product> activeOnSale;
+
+        private PriceTable(long[] ids, BigDecimal[] effectivePrices, boolean[] onSale, List<Product> activeOnSale) {
+            this.ids = ids;
+            this.effectivePrices = effectivePrices;
+            this.onSale = onSale;
+            this.activeOnSale = activeOnSale;
+        }
+
+        int indexOf(Long productId) {
+            return productId != null ? Arrays.binarySearch(ids, productId) : -1;
+        }
+    }
+}
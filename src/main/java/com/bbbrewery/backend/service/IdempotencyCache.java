@@ -0,0 +1,166 @@
+package com.bbbrewery.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache borné des réponses aux mutations portant un en-tête Idempotency-Key.
+ * Chaque clé est associée à un future : la première requête l'exécute,
+ * les doublons concurrents attendent son résultat, les rejeux le relisent.
+ * Une clé est liée à l'empreinte de sa première requête (méthode, ressource, corps) :
+ * la réutiliser pour une autre requête est refusé.
+ */
+@Component
+public class IdempotencyCache {
+
+    // Ordre d'insertion = ordre chronologique ; accès sous le verrou de l'instance
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final long windowNanos;
+    private final int maxEntries;
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong replays = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    private final AtomicLong keyReuses = new AtomicLong();
+
+    public IdempotencyCache(@Value("${idempotency.window-ms:600000}") long windowMs,
+                            @Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this.windowNanos = windowMs * 1_000_000L;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Réserve une clé. Si le future retourné est celui fourni, l'appelant
+     * exécute la requête ; sinon il attend (ou relit) le résultat existant.
+     * Lève IdempotencyKeyReusedException si la clé a servi pour une autre requête.
+     */
+    public synchronized CompletableFuture<StoredResponse> reserve(String key, String fingerprint,
+                                                                  CompletableFuture<StoredResponse> candidate) {
+        long now = System.nanoTime();
+        Entry existing = entries.get(key);
+        if (existing != null && !existing.isExpired(now, windowNanos)) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                keyReuses.incrementAndGet();
+                throw new IdempotencyKeyReusedException("Clé d'idempotence déjà utilisée pour une autre requête: " + key);
+            }
+            replays.incrementAndGet();
+            return existing.future;
+        }
+
+        // Retirée puis réinsérée : la clé reprend sa place en fin d'ordre chronologique
+        entries.remove(key);
+        entries.put(key, new Entry(candidate, fingerprint, now));
+        executions.incrementAndGet();
+        evict(now);
+        return candidate;
+    }
+
+    /**
+     * Enregistre la réponse de l'exécution propriétaire de la clé
+     */
+    public void complete(CompletableFuture<StoredResponse> owned, StoredResponse response) {
+        owned.complete(response);
+    }
+
+    /**
+     * Libère la clé sans mémoriser de réponse (erreur serveur, exception) :
+     * les doublons en attente peuvent alors réexécuter la requête
+     */
+    public void abandon(String key, CompletableFuture<StoredResponse> owned) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.future == owned) {
+                entries.remove(key);
+            }
+        }
+        abandoned.incrementAndGet();
+        owned.completeExceptionally(new CancellationException("Exécution abandonnée pour la clé: " + key));
+    }
+
+    /**
+     * Statistiques du cache d'idempotence
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("entries", entries.size());
+        statistics.put("maxEntries", maxEntries);
+        statistics.put("windowMs", windowNanos / 1_000_000L);
+        statistics.put("executions", executions.get());
+        statistics.put("replays", replays.get());
+        statistics.put("abandoned", abandoned.get());
+        statistics.put("keyReuses", keyReuses.get());
+        return statistics;
+    }
+
+    // Les plus anciennes entrées sont parcourues en premier ; une exécution en cours n'est
+    // jamais évincée mais ne bloque pas l'éviction des suivantes. Au-delà de maxEntries ne
+    // restent que les exécutions en cours, bornées par le nombre de requêtes simultanées.
+    private void evict(long now) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            Entry entry = oldest.next();
+            if (!entry.future.isDone()) {
+                continue;
+            }
+            if (entries.size() <= maxEntries && !entry.isExpired(now, windowNanos)) {
+                return;
+            }
+            oldest.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<StoredResponse> future;
+        private final String fingerprint;
+        private final long createdAt;
+
+        private Entry(CompletableFuture<StoredResponse> future, String fingerprint, long createdAt) {
+            this.future = future;
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+
+        private boolean isExpired(long now, long windowNanos) {
+            return future.isDone() && now - createdAt > windowNanos;
+        }
+    }
+
+    /**
+     * Clé d'idempotence présentée avec une requête différente de celle qui l'a réservée
+     */
+    public static class IdempotencyKeyReusedException extends RuntimeException {
+        public IdempotencyKeyReusedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Réponse HTTP mémorisée pour rejeu
+     */
+    public static class StoredResponse {
+        private final int status;
+        private final String contentType;
+        private final String location;
+        private final byte[] body;
+
+        public StoredResponse(int status, String contentType, String location, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.location = location;
+            this.body = body;
+        }
+
+        public int getStatus() { return status; }
+        public String getContentType() { return contentType; }
+        public String getLocation() { return location; }
+        public byte[] getBody() { return body; }
+    }
+}
@@ -0,0 +1,348 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.StartupCacheWarmup;
+import com.bbbrewery.backend.dto.StockAlertDTO;
+import com.bbbrewery.backend.event.ProductChangedEvent;
+import com.bbbrewery.backend.event.ProductStockChangedEvent;
+import com.bbbrewery.backend.repository.StockLevelRepository;
+import com.bbbrewery.backend.repository.StockLevelRepository.StockLevelItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flux Server-Sent Events des franchissements du seuil de stock faible (stock <= seuil).
+ * Le stock des produits actifs est suivi en mémoire ; chaque modification committée
+ * (ProductService, réservation du stock au passage de commande) est comparée à l'état précédent.
+ * Chaque abonné a un tampon borné : un abonné trop lent est déconnecté et reprend
+ * au dernier événement reçu (en-tête Last-Event-ID) grâce aux N derniers événements conservés.
+ */
+@Component
+public class LowStockFeed implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockFeed.class);
+
+    private static final int MAX_IN_LIST = 1000;
+    private static final Object HEARTBEAT = new Object();
+
+    private final StockLevelRepository stockLevelRepository;
+    private final StartupCacheWarmup startupCacheWarmup;
+    private final int threshold;
+    private final int replaySize;
+    private final int subscriberBufferSize;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMs;
+
+    // Stock connu des produits actifs et derniers événements ; modifiés sous le verrou de l'instance
+    private final Map<Long, TrackedProduct> tracked = new HashMap<>();
+    private final Deque<StockAlertDTO> history = new ArrayDeque<>();
+    private long sequence;
+    private volatile boolean loaded;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong droppedSubscribers = new AtomicLong();
+
+    public LowStockFeed(StockLevelRepository stockLevelRepository,
+                        StartupCacheWarmup startupCacheWarmup,
+                        @Value("${stock.feed.threshold:5}") int threshold,
+                        @Value("${stock.feed.replay-size:100}") int replaySize,
+                        @Value("${stock.feed.subscriber-buffer-size:256}") int subscriberBufferSize,
+                        @Value("${stock.feed.max-subscribers:200}") int maxSubscribers,
+                        @Value("${stock.feed.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                        @Value("${stock.feed.sender-threads:2}") int senderThreads) {
+        this.stockLevelRepository = stockLevelRepository;
+        this.startupCacheWarmup = startupCacheWarmup;
+        this.threshold = threshold;
+        this.replaySize = replaySize;
+        // Le tampon doit pouvoir contenir la relecture complète
+        this.subscriberBufferSize = Math.max(subscriberBufferSize, replaySize + 1);
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-feed-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        startupCacheWarmup.load("lowStockFeed", () -> resync(false));
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    /**
+     * Relecture complète du stock : rattrape les modifications faites hors de cette instance
+     */
+    @Scheduled(initialDelayString = "${stock.feed.resync-interval-ms:300000}",
+            fixedDelayString = "${stock.feed.resync-interval-ms:300000}")
+    public void scheduledResync() {
+        resync(true);
+    }
+
+    private void resync(boolean emit) {
+        try {
+            List<StockLevelItem> products = stockLevelRepository.findActiveStockLevels();
+            synchronized (this) {
+                Set<Long> seen = new HashSet<>();
+                for (StockLevelItem product : products) {
+                    seen.add(product.getProductId());
+                    update(product, emit);
+                }
+                tracked.keySet().retainAll(seen);
+                loaded = true;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Lecture du stock impossible pour le flux de stock faible : {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        if (event instanceof ProductStockChangedEvent stockChanged) {
+            applyStockDelta(stockChanged.getProductId(), stockChanged.getStockDelta());
+        } else if (event.isFullReload()) {
+            resync(true);
+        } else {
+            refresh(event.getProductIds());
+        }
+    }
+
+    /**
+     * Abonne un client au flux ; vide si le nombre maximal d'abonnés est atteint
+     */
+    public Optional<SseEmitter> subscribe(Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, subscriberBufferSize);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+
+        // Relecture et inscription sous le même verrou : aucun événement perdu ni doublé
+        synchronized (this) {
+            for (StockAlertDTO alert : history) {
+                if (lastEventId == null || lastEventId > sequence || alert.getSequence() > lastEventId) {
+                    subscriber.queue.offer(alert);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return Optional.of(emitter);
+    }
+
+    @Scheduled(fixedDelayString = "${stock.feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // Un tampon plein signale déjà un abonné en retard : le battement est simplement omis
+            if (subscriber.queue.offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    // ========== LECTURES ==========
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * État du flux
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("loaded", loaded);
+        statistics.put("threshold", threshold);
+        statistics.put("trackedProducts", tracked.size());
+        statistics.put("lowStockProducts", tracked.values().stream().filter(product -> isLow(product.stock)).count());
+        statistics.put("subscribers", subscribers.size());
+        statistics.put("maxSubscribers", maxSubscribers);
+        statistics.put("lastSequence", sequence);
+        statistics.put("published", published.get());
+        statistics.put("droppedSubscribers", droppedSubscribers.get());
+        return statistics;
+    }
+
+    // ========== SUIVI DU STOCK ==========
+
+    private void refresh(List<Long> productIds) {
+        try {
+            List<StockLevelItem> products = new ArrayList<>(productIds.size());
+            for (int from = 0; from < productIds.size(); from += MAX_IN_LIST) {
+                products.addAll(stockLevelRepository.findStockLevels(
+                        productIds.subList(from, Math.min(from + MAX_IN_LIST, productIds.size()))));
+            }
+            synchronized (this) {
+                Set<Long> found = new HashSet<>();
+                for (StockLevelItem product : products) {
+                    found.add(product.getProductId());
+                    update(product, true);
+                }
+                // Produits supprimés
+                productIds.stream().filter(id -> !found.contains(id)).forEach(tracked::remove);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Relecture du stock impossible pour {} : {}", productIds, e.getMessage());
+        }
+    }
+
+    private synchronized void applyStockDelta(Long productId, int stockDelta) {
+        TrackedProduct current = tracked.get(productId);
+        if (current != null) {
+            transition(productId, current, new TrackedProduct(current.productName, current.stock + stockDelta), true);
+        }
+    }
+
+    private void update(StockLevelItem product, boolean emit) {
+        Long productId = product.getProductId();
+        if (!product.isActive()) {
+            tracked.remove(productId);
+            return;
+        }
+        transition(productId, tracked.get(productId), new TrackedProduct(product.getProductName(), product.getStock()), emit);
+    }
+
+    private void transition(Long productId, TrackedProduct previous, TrackedProduct current, boolean emit) {
+        tracked.put(productId, current);
+        if (!emit) {
+            return;
+        }
+        // Un produit nouveau ou réactivé compte comme « au-dessus du seuil » avant la modification
+        boolean wasLow = previous != null && isLow(previous.stock);
+        boolean isLow = isLow(current.stock);
+        if (wasLow != isLow) {
+            int previousStock = previous != null ? previous.stock : current.stock;
+            publish(new StockAlertDTO(++sequence, isLow ? StockAlertDTO.LOW_STOCK : StockAlertDTO.RESTOCKED,
+                    productId, current.productName, previousStock, current.stock, threshold, LocalDateTime.now()));
+        }
+    }
+
+    private boolean isLow(int stock) {
+        return stock <= threshold;
+    }
+
+    // ========== DIFFUSION ==========
+
+    // Appelé sous le verrou : l'ordre des événements est le même pour tous les abonnés.
+    // La fermeture d'un abonné trop lent écrit sur sa connexion : elle est confiée aux
+    // threads d'envoi pour ne jamais bloquer le verrou sur un client.
+    private void publish(StockAlertDTO alert) {
+        history.addLast(alert);
+        while (history.size() > replaySize) {
+            history.removeFirst();
+        }
+        published.incrementAndGet();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(alert)) {
+                schedule(subscriber);
+            } else {
+                // Abonné trop lent : déconnecté, il reprendra via Last-Event-ID
+                droppedSubscribers.incrementAndGet();
+                close(subscriber);
+                completeLater(subscriber);
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.closed && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void completeLater(Subscriber subscriber) {
+        try {
+            senders.execute(subscriber.emitter::complete);
+        } catch (RejectedExecutionException e) {
+            // Arrêt en cours : plus de threads d'envoi, fermeture directe
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Object item;
+            while (!subscriber.closed && (item = subscriber.queue.poll()) != null) {
+                if (item == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    StockAlertDTO alert = (StockAlertDTO) item;
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(alert.getSequence()))
+                            .name(alert.getType())
+                            .data(alert, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté
+            close(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.closed && !subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+    }
+
+    private static final class TrackedProduct {
+        private final String productName;
+        private final int stock;
+
+        private TrackedProduct(String productName, int stock) {
+            this.productName = productName;
+            this.stock = stock;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.PayloadFormats;
+import com.bbbrewery.backend.config.SparseFieldset;
+import com.bbbrewery.backend.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Mesure taille et temps de sérialisation du catalogue en mémoire selon le format
+ * (JSON, Smile, CBOR), complet ou réduit par fields=. Aucun accès à la base.
+ */
+@Component
+public class PayloadBenchmark {
+
+    @Autowired
+    private PayloadFormats payloadFormats;
+
+    @Autowired
+    private EffectivePriceEngine effectivePriceEngine;
+
+    public Map<String, Object> run(Set<String> fields, int iterations) {
+        List<Product> products = effectivePriceEngine.getCatalog();
+        int warmup = Math.max(5, iterations / 4);
+
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("json", payloadFormats.getJsonMapper());
+        formats.put("smile", payloadFormats.getSmileMapper());
+        formats.put("cbor", payloadFormats.getCborMapper());
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("full", measure(formats, products, Collections.emptySet(), warmup, iterations));
+        if (!fields.isEmpty()) {
+            results.put("fields", measure(formats, products, fields, warmup, iterations));
+        }
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("products", products.size());
+        statistics.put("iterations", iterations);
+        statistics.put("fields", fields);
+        statistics.put("results", results);
+        return statistics;
+    }
+
+    private Map<String, Object> measure(Map<String, ObjectMapper> formats, List<Product> products,
+                                        Set<String> fields, int warmup, int iterations) {
+        SimpleFilterProvider filters = new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+        if (!fields.isEmpty()) {
+            filters.addFilter(SparseFieldset.FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+        }
+
+        Map<String, Object> byFormat = new LinkedHashMap<>();
+        long jsonBytes = 0;
+        for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+            ObjectWriter writer = format.getValue().writer(filters);
+            try {
+                for (int i = 0; i < warmup; i++) {
+                    writer.writeValueAsBytes(products);
+                }
+                int bytes = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    bytes = writer.writeValueAsBytes(products).length;
+                }
+                long averageNanos = (System.nanoTime() - start) / Math.max(1, iterations);
+                if (jsonBytes == 0) {
+                    jsonBytes = bytes;
+                }
+
+                Map<String, Object> result = new HashMap<>();
+                result.put("bytes", bytes);
+                result.put("averageMicros", averageNanos / 1000);
+                result.put("sizeVsJson", jsonBytes > 0 ? (double) bytes / jsonBytes : 1.0);
+                byFormat.put(format.getKey(), result);
+            } catch (JsonProcessingException e) {
+                byFormat.put(format.getKey(), Map.of("error", e.getOriginalMessage()));
+            }
+        }
+        return byFormat;
+    }
+}
@@ -0,0 +1,266 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.dto.ProcedureItemDTO;
+import com.bbbrewery.backend.dto.ProductDTO;
+import com.bbbrewery.backend.event.ProductChangedEvent;
+import com.bbbrewery.backend.model.BasketStatus;
+import com.bbbrewery.backend.repository.ProcedureBatchRepository;
+import com.bbbrewery.backend.repository.ProcedureBatchRepository.ProcedureItemLine;
+import com.bbbrewery.backend.repository.ProcedureBatchRepository.ProcedureProductLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Appels groupés des procédures basket_add_sp et prod_add_sp.
+ * Les lignes sont pré-validées en masse (une requête par tranche de 1000 IDs),
+ * puis envoyées par blocs PL/SQL de plusieurs appels : un aller-retour par bloc.
+ * Un bloc en échec est rejoué ligne par ligne pour isoler les lignes fautives.
+ */
+@Service
+public class ProcedureBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcedureBatchService.class);
+
+    @Autowired
+    private ProcedureBatchRepository procedureBatchRepository;
+
+    @Autowired
+    private BasketLockRegistry basketLockRegistry;
+
+    @Autowired
+    private BasketSummaryCache basketSummaryCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final int callsPerBlock;
+
+    public ProcedureBatchService(@Value("${procedure.batch.calls-per-block:100}") int callsPerBlock) {
+        this.callsPerBlock = Math.max(1, callsPerBlock);
+    }
+
+    /**
+     * Ajoute des articles aux paniers via basket_add_sp, par blocs
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProcedureBatchResult addItems(List<ProcedureItemDTO> items) {
+        long start = System.currentTimeMillis();
+        List<LineError> errors = new ArrayList<>();
+
+        // Pré-validation en masse : prix courant des produits et statut des paniers
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> basketIds = new HashSet<>();
+        for (ProcedureItemDTO item : items) {
+            if (item.getProductId() != null) {
+                productIds.add(item.getProductId());
+            }
+            if (item.getBasketId() != null) {
+                basketIds.add(item.getBasketId());
+            }
+        }
+        Map<Long, BigDecimal> prices = procedureBatchRepository.findCurrentPrices(productIds, LocalDateTime.now());
+        Map<Long, BasketStatus> basketStatuses = procedureBatchRepository.findBasketStatuses(basketIds);
+
+        List<Integer> indexes = new ArrayList<>(items.size());
+        List<ProcedureItemLine> lines = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            ProcedureItemDTO item = items.get(i);
+            String error;
+            if (item.getBasketId() == null || item.getProductId() == null) {
+                error = "Le panier et le produit sont obligatoires";
+            } else if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                error = "La quantité doit être positive";
+            } else if (!prices.containsKey(item.getProductId())) {
+                error = "Produit introuvable avec ID: " + item.getProductId();
+            } else if (!basketStatuses.containsKey(item.getBasketId())) {
+                error = "Panier introuvable avec ID: " + item.getBasketId();
+            } else if (basketStatuses.get(item.getBasketId()) != BasketStatus.ACTIVE) {
+                error = "Ce panier a déjà été finalisé, ses articles ne peuvent plus être modifiés";
+            } else {
+                indexes.add(i);
+                lines.add(new ProcedureItemLine(item.getBasketId(), item.getProductId(),
+                        prices.get(item.getProductId()), item.getQuantity()));
+                continue;
+            }
+            errors.add(new LineError(i, error));
+        }
+
+        Set<Long> touchedBaskets = new HashSet<>();
+        ProcedureBatchResult result = execute("basket_add_sp", items.size(), indexes, lines, errors, start,
+                block -> {
+                    Set<Long> blockBaskets = new HashSet<>();
+                    block.forEach(line -> blockBaskets.add(line.getBasketId()));
+                    basketLockRegistry.withLocks(blockBaskets, () -> new TransactionTemplate(transactionManager)
+                            .execute(status -> {
+                                procedureBatchRepository.addItemsViaProcedure(block);
+                                return null;
+                            }));
+                },
+                line -> touchedBaskets.add(line.getBasketId()));
+        basketSummaryCache.evictAll(touchedBaskets);
+        return result;
+    }
+
+    /**
+     * Crée des produits via prod_add_sp, par blocs
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProcedureBatchResult addProducts(List<ProductDTO> products) {
+        long start = System.currentTimeMillis();
+        List<LineError> errors = new ArrayList<>();
+
+        // Pré-validation en masse : noms déjà présents au catalogue
+        Set<String> names = new HashSet<>();
+        for (ProductDTO product : products) {
+            if (product.getProductName() != null && !product.getProductName().isBlank()) {
+                names.add(product.getProductName().trim());
+            }
+        }
+        Set<String> existingNames = procedureBatchRepository.findExistingProductNames(names);
+
+        Set<String> batchNames = new HashSet<>();
+        List<Integer> indexes = new ArrayList<>(products.size());
+        List<ProcedureProductLine> lines = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            ProductDTO product = products.get(i);
+            try {
+                ProductService.validateProductData(product);
+            } catch (IllegalArgumentException e) {
+                errors.add(new LineError(i, e.getMessage()));
+                continue;
+            }
+            String name = product.getProductName().trim();
+            String key = name.toUpperCase(Locale.ROOT);
+            if (existingNames.contains(key)) {
+                errors.add(new LineError(i, "Un produit existe déjà avec le nom: " + name));
+            } else if (!batchNames.add(key)) {
+                errors.add(new LineError(i, "Nom de produit en double dans le lot: " + name));
+            } else {
+                indexes.add(i);
+                lines.add(new ProcedureProductLine(name, product.getPrice(), product.getDescription(), product.getStock()));
+            }
+        }
+
+        ProcedureBatchResult result = execute("prod_add_sp", products.size(), indexes, lines, errors, start,
+                block -> new TransactionTemplate(transactionManager).execute(status -> {
+                    procedureBatchRepository.addProductsViaProcedure(block);
+                    return null;
+                }),
+                line -> {});
+        if (result.getExecuted() > 0) {
+            // Les IDs sont attribués par la procédure : les caches rechargent le catalogue
+            eventPublisher.publishEvent(ProductChangedEvent.unknownProducts());
+        }
+        return result;
+    }
+
+    private <L> ProcedureBatchResult execute(String procedure, int requested, List<Integer> indexes, List<L> lines,
+                                             List<LineError> errors, long start,
+                                             Consumer<List<L>> runBlock, Consumer<L> onExecuted) {
+        int executed = 0;
+        int roundTrips = 0;
+        for (int from = 0; from < lines.size(); from += callsPerBlock) {
+            int to = Math.min(from + callsPerBlock, lines.size());
+            List<L> block = lines.subList(from, to);
+            try {
+                roundTrips++;
+                runBlock.accept(block);
+                executed += block.size();
+                block.forEach(onExecuted);
+            } catch (DataAccessException e) {
+                // Bloc annulé en entier : rejeu ligne par ligne pour isoler les erreurs
+                log.warn("Bloc {} en échec ({} appels), rejeu ligne par ligne : {}",
+                        procedure, block.size(), e.getMostSpecificCause().getMessage());
+                for (int i = from; i < to; i++) {
+                    L line = lines.get(i);
+                    try {
+                        roundTrips++;
+                        runBlock.accept(List.of(line));
+                        executed++;
+                        onExecuted.accept(line);
+                    } catch (DataAccessException lineError) {
+                        errors.add(new LineError(indexes.get(i), lineError.getMostSpecificCause().getMessage()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Verrous des paniers indisponibles : le bloc n'a pas été envoyé
+                for (int i = from; i < to; i++) {
+                    errors.add(new LineError(indexes.get(i), e.getMessage()));
+                }
+            }
+        }
+
+        errors.sort(Comparator.comparingInt(LineError::getIndex));
+        ProcedureBatchResult result = new ProcedureBatchResult(procedure, requested, lines.size(), executed,
+                roundTrips, errors, System.currentTimeMillis() - start);
+        log.info("Appels groupés {} : {} lignes, {} exécutées, {} en erreur, {} allers-retours en {} ms",
+                procedure, requested, executed, errors.size(), roundTrips, result.getDurationMs());
+        return result;
+    }
+
+    /**
+     * Résultat d'un appel groupé
+     */
+    public static class ProcedureBatchResult {
+        private final String procedure;
+        private final int requested;
+        private final int accepted;
+        private final int executed;
+        private final int roundTrips;
+        private final List<LineError> errors;
+        private final long durationMs;
+
+        ProcedureBatchResult(String procedure, int requested, int accepted, int executed, int roundTrips,
+                             List<LineError> errors, long durationMs) {
+            this.procedure = procedure;
+            this.requested = requested;
+            this.accepted = accepted;
+            this.executed = executed;
+            this.roundTrips = roundTrips;
+            this.errors = errors;
+            this.durationMs = durationMs;
+        }
+
+        public String getProcedure() { return procedure; }
+        public int getRequested() { return requested; }
+        public int getAccepted() { return accepted; }
+        public int getExecuted() { return executed; }
+        public int getFailed() { return errors.size(); }
+        public int getRoundTrips() { return roundTrips; }
+        public List<LineError> getErrors() { return errors; }
+        public long getDurationMs() { return durationMs; }
+    }
+
+    /**
+     * Erreur d'une ligne (index dans la requête)
+     */
+    public static class LineError {
+        private final int index;
+        private final String message;
+
+        LineError(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public int getIndex() { return index; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,188 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.RequestDeadline;
+import com.bbbrewery.backend.model.Product;
+import com.bbbrewery.backend.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Regroupe les lectures de produit par ID des requêtes concurrentes : les ID demandés
+ * pendant une courte fenêtre (window-micros) sont dédupliqués et lus en une seule
+ * requête WHERE IDPRODUCT IN (...), puis chaque appelant reçoit son résultat.
+ * Les produits retournés sont détachés et partagés entre appelants : lecture seule.
+ * La requête du lot est bornée par l'échéance la plus tardive de ses appelants
+ * (RequestDeadline), chacun n'attendant lui-même que jusqu'à sa propre échéance.
+ * À appeler hors transaction, pour ne pas garder une connexion du pool pendant l'attente.
+ */
+@Component
+public class ProductBatchLoader {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${product.loader.window-micros:1500}")
+    private long windowMicros;
+
+    @Value("${product.loader.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${product.loader.threads:2}")
+    private int threadCount;
+
+    @Value("${product.loader.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    private ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<Optional<Product>>> pending = new HashMap<>();
+    private long batchOpenedAt;
+    private RequestDeadline batchDeadline;
+    private long generation;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong loadedIds = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong maxBatch = new AtomicLong();
+    private final AtomicLong totalWaitMicros = new AtomicLong();
+    private final AtomicLong maxWaitMicros = new AtomicLong();
+    private final AtomicLong totalQueryMicros = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newScheduledThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "product-batch-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Demande un produit ; le future est complété à la fin du lot qui le contient
+     */
+    public CompletableFuture<Optional<Product>> load(Long id) {
+        if (id == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        requests.incrementAndGet();
+        RequestDeadline deadline = RequestDeadline.current();
+        synchronized (lock) {
+            CompletableFuture<Optional<Product>> existing = pending.get(id);
+            if (existing != null) {
+                deduplicated.incrementAndGet();
+                batchDeadline = RequestDeadline.latest(batchDeadline, deadline);
+                return existing;
+            }
+            CompletableFuture<Optional<Product>> future = new CompletableFuture<>();
+            pending.put(id, future);
+            long batch = generation;
+            if (pending.size() == 1) {
+                batchOpenedAt = System.nanoTime();
+                batchDeadline = deadline;
+                scheduler.schedule(() -> flush(batch), windowMicros, TimeUnit.MICROSECONDS);
+            } else {
+                batchDeadline = RequestDeadline.latest(batchDeadline, deadline);
+                if (pending.size() >= maxBatchSize) {
+                    scheduler.execute(() -> flush(batch));
+                }
+            }
+            return future;
+        }
+    }
+
+    /**
+     * Lecture bloquante d'un produit, bornée par l'échéance de la requête HTTP
+     */
+    public Optional<Product> find(Long id) {
+        RequestDeadline deadline = RequestDeadline.current();
+        long timeoutMs = deadline != null ? Math.min(waitTimeoutMs, deadline.getRemainingMillis()) : waitTimeoutMs;
+        try {
+            return load(id).get(Math.max(1, timeoutMs), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Lecture du produit " + id + " impossible", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Lecture du produit " + id + " trop longue (" + timeoutMs + " ms)", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lecture du produit " + id + " interrompue", e);
+        }
+    }
+
+    /**
+     * Statistiques des lots : taille, attente des appelants, durée des requêtes
+     */
+    public Map<String, Object> getStatistics() {
+        long batchCount = batches.get();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("windowMicros", windowMicros);
+        statistics.put("maxBatchSize", maxBatchSize);
+        statistics.put("requests", requests.get());
+        statistics.put("deduplicated", deduplicated.get());
+        statistics.put("batches", batchCount);
+        statistics.put("failedBatches", failedBatches.get());
+        statistics.put("averageBatchSize", batchCount > 0 ? (double) loadedIds.get() / batchCount : 0.0);
+        statistics.put("largestBatch", maxBatch.get());
+        statistics.put("averageWaitMicros", batchCount > 0 ? totalWaitMicros.get() / batchCount : 0);
+        statistics.put("maxWaitMicros", maxWaitMicros.get());
+        statistics.put("averageQueryMicros", batchCount > 0 ? totalQueryMicros.get() / batchCount : 0);
+        return statistics;
+    }
+
+    // Lot ouvert à la génération attendue : un lot déjà parti (taille maximale atteinte) n'est pas relu
+    private void flush(long expectedGeneration) {
+        Map<Long, CompletableFuture<Optional<Product>>> batch;
+        long openedAt;
+        RequestDeadline deadline;
+        synchronized (lock) {
+            if (generation != expectedGeneration || pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            openedAt = batchOpenedAt;
+            deadline = batchDeadline;
+            batchDeadline = null;
+            pending = new HashMap<>();
+            generation++;
+        }
+
+        long queryStart = System.nanoTime();
+        Map<Long, Product> products = new HashMap<>();
+        Runnable query = () -> productRepository.findAllById(batch.keySet())
+                .forEach(product -> products.put(product.getId(), product));
+        try {
+            (deadline != null ? deadline.bind(query) : query).run();
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            batch.values().forEach(future -> future.completeExceptionally(e));
+            return;
+        }
+        long completedAt = System.nanoTime();
+        batch.forEach((id, future) -> future.complete(Optional.ofNullable(products.get(id))));
+
+        long waitMicros = TimeUnit.NANOSECONDS.toMicros(completedAt - openedAt);
+        batches.incrementAndGet();
+        loadedIds.addAndGet(batch.size());
+        maxBatch.accumulateAndGet(batch.size(), Math::max);
+        totalWaitMicros.addAndGet(waitMicros);
+        maxWaitMicros.accumulateAndGet(waitMicros, Math::max);
+        totalQueryMicros.addAndGet(TimeUnit.NANOSECONDS.toMicros(completedAt - queryStart));
+    }
+}
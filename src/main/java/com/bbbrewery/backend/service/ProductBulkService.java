@@ -0,0 +1,300 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.RequestDeadline;
+import com.bbbrewery.backend.dto.BulkProductUpdateDTO;
+import com.bbbrewery.backend.event.ProductChangedEvent;
+import com.bbbrewery.backend.repository.ProductBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Modifications du catalogue en masse (statut, prix, promotion, catégorie).
+ * Les IDs sont découpés en lots ; chaque lot est un batch JDBC dans sa propre
+ * transaction, exécuté en séquence ou en parallèle sur plusieurs connexions.
+ * Un lot en échec n'annule pas les autres : le résultat détaille chaque lot.
+ */
+@Service
+public class ProductBulkService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBulkService.class);
+
+    // Au-delà, les caches rechargent tout le catalogue plutôt que de relire chaque produit
+    private static final int FULL_RELOAD_THRESHOLD = 5000;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Autowired
+    private ProductBulkRepository productBulkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final int chunkSize;
+    private final ExecutorService workers;
+
+    public ProductBulkService(@Value("${product.bulk.chunk-size:500}") int chunkSize,
+                              @Value("${product.bulk.parallelism:2}") int parallelism) {
+        this.chunkSize = chunkSize;
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "product-bulk");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Active/désactive des produits en masse
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateResult updateStatus(BulkProductUpdateDTO request, boolean parallel) {
+        if (request.getActive() == null) {
+            throw new IllegalArgumentException("Le statut (active) est requis");
+        }
+        boolean active = request.getActive();
+        return execute("status", request.getProductIds(), parallel,
+                (ids, now) -> productBulkRepository.updateStatus(ids, active, now));
+    }
+
+    /**
+     * Fixe ou ajuste en pourcentage le prix de base
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateResult updatePrice(BulkProductUpdateDTO request, boolean parallel) {
+        if ((request.getPrice() == null) == (request.getPriceChangePercent() == null)) {
+            throw new IllegalArgumentException("Indiquer soit price, soit priceChangePercent");
+        }
+        if (request.getPrice() != null) {
+            BigDecimal price = request.getPrice();
+            return execute("price", request.getProductIds(), parallel,
+                    (ids, now) -> productBulkRepository.updatePrice(ids, price, now));
+        }
+        BigDecimal factor = BigDecimal.ONE.add(request.getPriceChangePercent().divide(HUNDRED, MathContext.DECIMAL64));
+        return execute("price", request.getProductIds(), parallel,
+                (ids, now) -> productBulkRepository.scalePrice(ids, factor, now));
+    }
+
+    /**
+     * Fixe la promotion (prix fixe ou remise) et sa période, ou la supprime
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateResult updateSale(BulkProductUpdateDTO request, boolean parallel) {
+        if (Boolean.TRUE.equals(request.getClearSale())) {
+            return execute("sale", request.getProductIds(), parallel,
+                    (ids, now) -> productBulkRepository.clearSale(ids, now));
+        }
+        if ((request.getSalePrice() == null) == (request.getSaleDiscountPercent() == null)) {
+            throw new IllegalArgumentException("Indiquer soit salePrice, soit saleDiscountPercent");
+        }
+        LocalDateTime start = request.getSaleStartDate();
+        LocalDateTime end = request.getSaleEndDate();
+        if (start == null || end == null || !end.isAfter(start)) {
+            throw new IllegalArgumentException("La période de promotion est invalide");
+        }
+        if (request.getSalePrice() != null) {
+            BigDecimal salePrice = request.getSalePrice();
+            return execute("sale", request.getProductIds(), parallel,
+                    (ids, now) -> productBulkRepository.updateSale(ids, salePrice, start, end, now));
+        }
+        BigDecimal factor = BigDecimal.ONE.subtract(request.getSaleDiscountPercent().divide(HUNDRED, MathContext.DECIMAL64));
+        return execute("sale", request.getProductIds(), parallel,
+                (ids, now) -> productBulkRepository.updateSaleFromPrice(ids, factor, start, end, now));
+    }
+
+    /**
+     * Change la catégorie de produits en masse
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateResult updateCategory(BulkProductUpdateDTO request, boolean parallel) {
+        String category = request.getCategory();
+        if (category == null || category.isBlank()) {
+            throw new IllegalArgumentException("La catégorie est requise");
+        }
+        return execute("category", request.getProductIds(), parallel,
+                (ids, now) -> productBulkRepository.updateCategory(ids, category, now));
+    }
+
+    private BulkUpdateResult execute(String operation, List<Long> productIds, boolean parallel, ChunkUpdate update) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        ids.removeIf(Objects::isNull);
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+
+        List<Callable<ChunkResult>> tasks = new ArrayList<>();
+        for (int from = 0, index = 0; from < ids.size(); from += chunkSize, index++) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            int chunkIndex = index;
+            // Les workers appliquent l'échéance de la requête aux lots qu'ils écrivent
+            tasks.add(RequestDeadline.wrap(() -> runChunk(chunkIndex, chunk, now, update)));
+        }
+
+        List<ChunkResult> chunks = new ArrayList<>(tasks.size());
+        boolean complete = false;
+        try {
+            if (parallel && tasks.size() > 1) {
+                for (Future<ChunkResult> future : workers.invokeAll(tasks)) {
+                    chunks.add(future.get());
+                }
+            } else {
+                for (Callable<ChunkResult> task : tasks) {
+                    chunks.add(task.call());
+                }
+            }
+            complete = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Mise à jour en masse interrompue");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Échec de la mise à jour en masse", e.getCause());
+        } catch (Exception e) {
+            throw new RuntimeException("Échec de la mise à jour en masse", e);
+        } finally {
+            // Des lots ont pu être validés avant l'interruption : les caches sont prévenus dans tous les cas
+            publishChanges(chunks, complete);
+        }
+
+        BulkUpdateResult result = new BulkUpdateResult(operation, ids.size(), chunks, System.currentTimeMillis() - start);
+        log.info("Mise à jour en masse '{}' : {} produits, {} modifiés, {} lots en échec en {} ms",
+                operation, result.getRequested(), result.getUpdated(), result.getFailedChunks(), result.getDurationMs());
+        return result;
+    }
+
+    // Hors transaction : les caches se mettent à jour immédiatement. Si tous les lots n'ont
+    // pas rendu leur résultat, les produits modifiés sont inconnus : rechargement complet.
+    private void publishChanges(List<ChunkResult> chunks, boolean complete) {
+        List<Long> updatedIds = new ArrayList<>();
+        chunks.stream().filter(ChunkResult::isSucceeded).forEach(chunk -> updatedIds.addAll(chunk.updatedIds));
+        if (!complete || updatedIds.size() > FULL_RELOAD_THRESHOLD) {
+            eventPublisher.publishEvent(ProductChangedEvent.unknownProducts());
+        } else if (!updatedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(updatedIds));
+        }
+    }
+
+    // Un lot = une transaction = un batch JDBC
+    private ChunkResult runChunk(int index, List<Long> chunk, LocalDateTime now, ChunkUpdate update) {
+        long start = System.currentTimeMillis();
+        try {
+            int[] counts = new TransactionTemplate(transactionManager).execute(status -> update.apply(chunk, now));
+            List<Long> updatedIds = new ArrayList<>(chunk.size());
+            List<Long> notFoundIds = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                int count = counts != null && i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO;
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    updatedIds.add(chunk.get(i));
+                } else {
+                    notFoundIds.add(chunk.get(i));
+                }
+            }
+            return new ChunkResult(index, chunk.get(0), chunk.get(chunk.size() - 1), chunk.size(),
+                    updatedIds, notFoundIds, null, System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            log.warn("Lot {} en échec ({} produits) : {}", index, chunk.size(), e.getMostSpecificCause().getMessage());
+            return new ChunkResult(index, chunk.get(0), chunk.get(chunk.size() - 1), chunk.size(),
+                    List.of(), List.of(), e.getMostSpecificCause().getMessage(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            // Erreur hors accès aux données (transaction, conversion) : le lot échoue seul
+            log.warn("Lot {} en échec ({} produits)", index, chunk.size(), e);
+            return new ChunkResult(index, chunk.get(0), chunk.get(chunk.size() - 1), chunk.size(),
+                    List.of(), List.of(), String.valueOf(e.getMessage()), System.currentTimeMillis() - start);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkUpdate {
+        int[] apply(List<Long> productIds, LocalDateTime updateTime);
+    }
+
+    /**
+     * Résultat d'une mise à jour en masse
+     */
+    public static class BulkUpdateResult {
+        private final String operation;
+        private final int requested;
+        private final List<ChunkResult> chunks;
+        private final long durationMs;
+
+        BulkUpdateResult(String operation, int requested, List<ChunkResult> chunks, long durationMs) {
+            this.operation = operation;
+            this.requested = requested;
+            this.chunks = chunks;
+            this.durationMs = durationMs;
+        }
+
+        public String getOperation() { return operation; }
+        public int getRequested() { return requested; }
+        public List<ChunkResult> getChunks() { return chunks; }
+        public long getDurationMs() { return durationMs; }
+
+        public int getUpdated() {
+            return chunks.stream().mapToInt(chunk -> chunk.updatedIds.size()).sum();
+        }
+
+        public int getNotFound() {
+            return chunks.stream().mapToInt(chunk -> chunk.notFoundIds.size()).sum();
+        }
+
+        public long getFailedChunks() {
+            return chunks.stream().filter(chunk -> !chunk.isSucceeded()).count();
+        }
+    }
+
+    /**
+     * Résultat d'un lot
+     */
+    public static class ChunkResult {
+        private final int index;
+        private final Long firstProductId;
+        private final Long lastProductId;
+        private final int size;
+        private final List<Long> updatedIds;
+        private final List<Long> notFoundIds;
+        private final String error;
+        private final long durationMs;
+
+        ChunkResult(int index, Long firstProductId, Long lastProductId, int size,
+                    List<Long> updatedIds, List<Long> notFoundIds, String error, long durationMs) {
+            this.index = index;
+            this.firstProductId = firstProductId;
+            this.lastProductId = lastProductId;
+            this.size = size;
+            this.updatedIds = updatedIds;
+            this.notFoundIds = notFoundIds;
+            this.error = error;
+            this.durationMs = durationMs;
+        }
+
+        public boolean isSucceeded() { return error == null; }
+        public int getIndex() { return index; }
+        public Long getFirstProductId() { return firstProductId; }
+        public Long getLastProductId() { return lastProductId; }
+        public int getSize() { return size; }
+        public int getUpdated() { return updatedIds.size(); }
+        public List<Long> getNotFoundIds() { return notFoundIds; }
+        public String getError() { return error; }
+        public long getDurationMs() { return durationMs; }
+    }
+}
@@ -0,0 +1,555 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.RequestDeadline;
+import com.bbbrewery.backend.dto.ProductImportRowDTO;
+import com.bbbrewery.backend.event.ProductChangedEvent;
+import com.bbbrewery.backend.repository.ProductImportRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+/**
+ * Import en masse de produits depuis un flux CSV (avec en-tête) ou NDJSON.
+ * Le flux est lu ligne par ligne et découpé en lots ; chaque lot est validé en parallèle
+ * puis écrit par batch JDBC (INSERT avec IDs réservés par blocs, UPDATE si l'ID est fourni)
+ * pendant que le lot suivant est lu. Une ligne invalide ou rejetée par la base est
+ * signalée sans interrompre l'import ; l'échéance de la requête dépassée l'interrompt
+ * en revanche (les lots déjà committés restent écrits). Un ID fourni désigne un produit existant : les
+ * créations prennent toujours leur ID dans BB_PRODID_SEQ, jamais dans le fichier.
+ */
+@Service
+public class ProductImportService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final int FULL_RELOAD_THRESHOLD = 5000;
+
+    @Autowired
+    private ProductImportRepository productImportRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final ForkJoinPool validationPool;
+    // Un seul écrivain : les lots sont écrits dans l'ordre du flux, un à la fois
+    private final ExecutorService writer;
+
+    public ProductImportService(@Value("${product.import.batch-size:1000}") int batchSize,
+                                @Value("${product.import.max-reported-errors:1000}") int maxReportedErrors,
+                                @Value("${product.import.validation-threads:4}") int validationThreads) {
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.validationPool = new ForkJoinPool(validationThreads);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-import-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        validationPool.shutdownNow();
+        writer.shutdownNow();
+    }
+
+    /**
+     * Importe un flux de produits ; les lots sont committés au fil de l'eau
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResult importProducts(InputStream input, String format) throws IOException {
+        ImportResult result = new ImportResult(maxReportedErrors);
+        long start = System.currentTimeMillis();
+        RowReader reader = FORMAT_NDJSON.equalsIgnoreCase(format)
+                ? new NdjsonRowReader(input, objectMapper.readerFor(ProductImportRowDTO.class))
+                : new CsvRowReader(input);
+
+        // Un seul lot en écriture à la fois : la lecture et la validation du lot suivant se chevauchent avec lui
+        CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
+        try {
+            List<ProductImportRowDTO> batch = new ArrayList<>(batchSize);
+            ProductImportRowDTO row;
+            while (!result.isAborted() && (row = reader.next(result)) != null) {
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    pendingWrite = submit(batch, pendingWrite, result);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                pendingWrite = submit(batch, pendingWrite, result);
+            }
+        } finally {
+            try {
+                awaitWrite(pendingWrite);
+            } finally {
+                // Les lots déjà committés sont signalés aux caches même si l'import échoue ensuite
+                publishWritten(result);
+            }
+        }
+
+        result.finished(System.currentTimeMillis() - start);
+        if (result.isAborted()) {
+            log.warn("Import de produits interrompu : {}", result.getAbortReason());
+        }
+        log.info("Import de produits : {} lignes lues, {} créés, {} mis à jour, {} en erreur en {} ms",
+                result.getRowsRead(), result.getInserted(), result.getUpdated(), result.getFailed(), result.getDurationMs());
+        return result;
+    }
+
+    private CompletableFuture<Void> submit(List<ProductImportRowDTO> batch, CompletableFuture<Void> pendingWrite,
+                                           ImportResult result) {
+        List<ProductImportRowDTO> valid = validate(batch, result);
+        awaitWrite(pendingWrite);
+        if (result.isAborted()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // L'écriture reste bornée par l'échéance de la requête d'import
+        return CompletableFuture.runAsync(RequestDeadline.wrap(() -> write(valid, result)), writer);
+    }
+
+    private void publishWritten(ImportResult result) {
+        List<Long> writtenIds = result.writtenIds();
+        if (!writtenIds.isEmpty()) {
+            eventPublisher.publishEvent(writtenIds.size() > FULL_RELOAD_THRESHOLD
+                    ? ProductChangedEvent.unknownProducts()
+                    : new ProductChangedEvent(writtenIds));
+        }
+    }
+
+    private void awaitWrite(CompletableFuture<Void> pendingWrite) {
+        try {
+            pendingWrite.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Échec de l'écriture d'un lot d'import", e.getCause());
+        }
+    }
+
+    // ========== VALIDATION ==========
+
+    private List<ProductImportRowDTO> validate(List<ProductImportRowDTO> batch, ImportResult result) {
+        String[] errors = new String[batch.size()];
+        try {
+            validationPool.submit(() -> IntStream.range(0, batch.size()).parallel()
+                    .forEach(i -> errors[i] = validate(batch.get(i)))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrompu");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Échec de la validation d'un lot d'import", e.getCause());
+        }
+
+        List<ProductImportRowDTO> valid = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] != null) {
+                result.rowFailed(batch.get(i).getLineNumber(), errors[i]);
+            } else {
+                valid.add(batch.get(i));
+            }
+        }
+        return valid;
+    }
+
+    private String validate(ProductImportRowDTO row) {
+        Set<ConstraintViolation<ProductImportRowDTO>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            StringJoiner message = new StringJoiner("; ");
+            violations.forEach(violation -> message.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+            return message.toString();
+        }
+        try {
+            ProductService.validateProductData(row);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    // ========== ÉCRITURE ==========
+
+    private void write(List<ProductImportRowDTO> rows, ImportResult result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<ProductImportRowDTO> inserts = new ArrayList<>();
+        List<ProductImportRowDTO> updates = new ArrayList<>();
+        rows.forEach(row -> (row.getId() == null ? inserts : updates).add(row));
+        LocalDateTime now = LocalDateTime.now();
+
+        try {
+            // IDs réservés une fois pour tout le lot ; un ID perdu sur rollback est sans conséquence
+            assignIds(inserts);
+            int[] counts = transactionTemplate().execute(status -> {
+                productImportRepository.insertAll(inserts, now);
+                return productImportRepository.updateAll(updates, now);
+            });
+            result.written(inserts, existing(updates, counts, result));
+        } catch (DataAccessException e) {
+            if (abortIfExpired(rows.get(0), result)) {
+                return;
+            }
+            // Lot rejeté : réécriture ligne par ligne pour isoler les lignes fautives
+            log.debug("Lot d'import rejeté, reprise ligne par ligne : {}", e.getMostSpecificCause().getMessage());
+            for (ProductImportRowDTO row : inserts) {
+                if (!writeOne(row, true, now, result)) {
+                    return;
+                }
+            }
+            for (ProductImportRowDTO row : updates) {
+                if (!writeOne(row, false, now, result)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Échéance dépassée : chaque instruction suivante échouerait, inutile de reprendre ligne par ligne
+    private static boolean abortIfExpired(ProductImportRowDTO firstUnwritten, ImportResult result) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null || deadline.getRemainingMillis() > 0) {
+            return false;
+        }
+        result.aborted("Échéance de la requête dépassée à la ligne " + firstUnwritten.getLineNumber()
+                + " : lignes suivantes non importées");
+        return true;
+    }
+
+    // Lignes effectivement mises à jour ; un ID inconnu est une erreur de la ligne, pas une création
+    private List<ProductImportRowDTO> existing(List<ProductImportRowDTO> updates, int[] counts, ImportResult result) {
+        List<ProductImportRowDTO> updated = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            int count = counts != null && i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO;
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                updated.add(updates.get(i));
+            } else {
+                result.rowFailed(updates.get(i).getLineNumber(), "Produit introuvable avec ID: " + updates.get(i).getId());
+            }
+        }
+        return updated;
+    }
+
+    // Un ID réservé pour le lot rejeté est conservé : la ligne reste une création.
+    // Faux si l'import est interrompu (échéance dépassée)
+    private boolean writeOne(ProductImportRowDTO row, boolean insert, LocalDateTime now, ImportResult result) {
+        try {
+            if (insert && row.getId() == null) {
+                assignIds(List.of(row));
+            }
+            if (insert) {
+                transactionTemplate().executeWithoutResult(status -> productImportRepository.insertAll(List.of(row), now));
+                result.written(List.of(row), List.of());
+            } else {
+                int[] counts = transactionTemplate().execute(status -> productImportRepository.updateAll(List.of(row), now));
+                result.written(List.of(), existing(List.of(row), counts, result));
+            }
+        } catch (DataAccessException e) {
+            if (abortIfExpired(row, result)) {
+                return false;
+            }
+            result.rowFailed(row.getLineNumber(), e.getMostSpecificCause().getMessage());
+        }
+        return true;
+    }
+
+    private void assignIds(List<ProductImportRowDTO> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Iterator<Long> ids = productImportRepository.nextProductIds(rows.size()).iterator();
+        rows.forEach(row -> row.setId(ids.next()));
+    }
+
+    private TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    // ========== LECTURE DU FLUX ==========
+
+    private interface RowReader {
+        /**
+         * Ligne suivante, null en fin de flux ; une ligne illisible est signalée et ignorée
+         */
+        ProductImportRowDTO next(ImportResult result) throws IOException;
+    }
+
+    private static final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final ObjectReader rowReader;
+        private long lineNumber;
+
+        private NdjsonRowReader(InputStream input, ObjectReader rowReader) {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            this.rowReader = rowReader;
+        }
+
+        @Override
+        public ProductImportRowDTO next(ImportResult result) throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                result.rowRead();
+                try {
+                    ProductImportRowDTO row = rowReader.readValue(line);
+                    row.setLineNumber(lineNumber);
+                    return row;
+                } catch (JsonProcessingException e) {
+                    result.rowFailed(lineNumber, "JSON invalide : " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * CSV RFC 4180 : séparateur virgule, champs entre guillemets (guillemets doublés, retours
+     * à la ligne permis), première ligne = noms des colonnes (insensibles à la casse)
+     */
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+        private Map<String, Integer> columns;
+
+        private CsvRowReader(InputStream input) {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public ProductImportRowDTO next(ImportResult result) throws IOException {
+            if (columns == null) {
+                List<String> header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                columns = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+            }
+            List<String> values;
+            while ((values = readRecord()) != null) {
+                if (values.size() == 1 && values.get(0).isBlank()) {
+                    continue;
+                }
+                result.rowRead();
+                try {
+                    ProductImportRowDTO row = toRow(values);
+                    row.setLineNumber(lineNumber);
+                    return row;
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    result.rowFailed(lineNumber, e.getMessage());
+                }
+            }
+            return null;
+        }
+
+        private ProductImportRowDTO toRow(List<String> values) {
+            ProductImportRowDTO row = new ProductImportRowDTO();
+            String id = value(values, "id");
+            row.setId(id != null ? Long.valueOf(id) : null);
+            row.setProductName(value(values, "productname"));
+            row.setDescription(value(values, "description"));
+            row.setPrice(decimal(value(values, "price")));
+            String stock = value(values, "stock");
+            row.setStock(stock != null ? Integer.valueOf(stock) : null);
+            String active = value(values, "active");
+            row.setActive(active == null || active.equals("1") || active.equalsIgnoreCase("true"));
+            row.setSalePrice(decimal(value(values, "saleprice")));
+            row.setSaleStartDate(dateTime(value(values, "salestartdate")));
+            row.setSaleEndDate(dateTime(value(values, "saleenddate")));
+            row.setCategory(value(values, "category"));
+            row.setType(value(values, "type"));
+            row.setImageUrl(value(values, "imageurl"));
+            return row;
+        }
+
+        private String value(List<String> values, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static BigDecimal decimal(String value) {
+            return value != null ? new BigDecimal(value) : null;
+        }
+
+        // Date-heure ISO (2025-06-01T00:00:00) ou date seule (2025-06-01)
+        private static LocalDateTime dateTime(String value) {
+            if (value == null) {
+                return null;
+            }
+            return value.length() <= 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        }
+
+        private List<String> readRecord() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        values.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                // Champ entre guillemets sur plusieurs lignes
+                line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                lineNumber++;
+                field.append('\n');
+            }
+            values.add(field.toString());
+            return values;
+        }
+    }
+
+    // ========== RÉSULTAT ==========
+
+    /**
+     * Résultat d'un import : compteurs et erreurs par ligne (bornées)
+     */
+    public static class ImportResult {
+        private final int maxReportedErrors;
+        private final List<RowError> errors = new ArrayList<>();
+        private final List<Long> writtenIds = new ArrayList<>();
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long failed;
+        private long durationMs;
+        private String abortReason;
+
+        ImportResult(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        synchronized void rowRead() {
+            rowsRead++;
+        }
+
+        synchronized void rowFailed(long lineNumber, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(lineNumber, message));
+            }
+        }
+
+        synchronized void written(List<ProductImportRowDTO> insertedRows, List<ProductImportRowDTO> updatedRows) {
+            inserted += insertedRows.size();
+            updated += updatedRows.size();
+            insertedRows.forEach(row -> writtenIds.add(row.getId()));
+            updatedRows.forEach(row -> writtenIds.add(row.getId()));
+        }
+
+        synchronized void aborted(String reason) {
+            if (abortReason == null) {
+                abortReason = reason;
+            }
+        }
+
+        synchronized void finished(long durationMs) {
+            this.durationMs = durationMs;
+        }
+
+        synchronized List<Long> writtenIds() {
+            return new ArrayList<>(writtenIds);
+        }
+
+        public synchronized long getRowsRead() { return rowsRead; }
+        public synchronized long getInserted() { return inserted; }
+        public synchronized long getUpdated() { return updated; }
+        public synchronized long getFailed() { return failed; }
+        public synchronized long getDurationMs() { return durationMs; }
+        public synchronized boolean isErrorsTruncated() { return failed > errors.size(); }
+        public synchronized List<RowError> getErrors() { return new ArrayList<>(errors); }
+        public synchronized boolean isAborted() { return abortReason != null; }
+        public synchronized String getAbortReason() { return abortReason; }
+    }
+
+    /**
+     * Erreur d'une ligne importée
+     */
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,257 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.StartupCacheWarmup;
+import com.bbbrewery.backend.event.BasketStatusChangedEvent;
+import com.bbbrewery.backend.event.BasketStatusChangedEvent.SoldLine;
+import com.bbbrewery.backend.repository.ProductSalesRepository;
+import com.bbbrewery.backend.repository.ProductSalesRepository.ProductSalesItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Unités vendues et chiffre d'affaires par produit, tenus en mémoire.
+ * Chargés en une requête au démarrage, puis ajustés à chaque commande passée
+ * ou annulée/remboursée (BasketStatus.countsAsPurchase). Un classement trié
+ * par unités vendues sert le top-k sans requête. Les compteurs modifiés sont
+ * écrits périodiquement dans BB_PRODUCT_SALES si la table existe.
+ */
+@Component
+public class ProductSalesCounters implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSalesCounters.class);
+
+    @Autowired
+    private ProductSalesRepository productSalesRepository;
+
+    @Autowired
+    private StartupCacheWarmup startupCacheWarmup;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    // Unités décroissantes puis ID croissant : le début de l'ensemble est le top-k
+    private final NavigableSet<Rank> ranking = new ConcurrentSkipListSet<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    private volatile boolean persistent;
+    private volatile LocalDateTime lastSnapshotAt;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        startupCacheWarmup.load("productSalesCounters", this::load);
+    }
+
+    /**
+     * Recalcule tous les compteurs en une requête et écrit un instantané complet
+     */
+    public synchronized void load() {
+        try {
+            long start = System.currentTimeMillis();
+            List<ProductSalesItem> items = productSalesRepository.aggregateSalesByProduct();
+
+            counters.clear();
+            ranking.clear();
+            for (ProductSalesItem item : items) {
+                add(item.getProductId(), item.getUnitsSold(), toCents(item.getRevenue()));
+            }
+            dirty.clear();
+            loaded = true;
+
+            persistent = productSalesRepository.salesTableExists();
+            if (persistent) {
+                productSalesRepository.saveAll(items);
+                lastSnapshotAt = LocalDateTime.now();
+            }
+            log.info("Compteurs de ventes chargés : {} produits en {} ms (persistance {})",
+                    items.size(), System.currentTimeMillis() - start, persistent ? "active" : "inactive");
+        } catch (DataAccessException e) {
+            loaded = false;
+            log.warn("Chargement des compteurs de ventes impossible, repli sur les requêtes en base : {}", e.getMessage());
+        }
+    }
+
+    // Après commit seulement : une commande annulée par rollback ne compte pas
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBasketStatusChanged(BasketStatusChangedEvent event) {
+        int sign = event.getOrderCountDelta();
+        if (sign == 0 || !awaitLoad()) {
+            return;
+        }
+        for (SoldLine line : event.getLines()) {
+            add(line.getProductId(), (long) sign * line.getQuantity(), sign * toCents(line.getAmount()));
+        }
+    }
+
+    // Chargement en arrière-plan (startup.async-cache-warmup) : une commande validée pendant
+    // le chargement attend sa fin, sinon elle manquerait à la fois à la requête et aux compteurs
+    private boolean awaitLoad() {
+        if (loaded) {
+            return true;
+        }
+        synchronized (this) {
+            return loaded;
+        }
+    }
+
+    /**
+     * Écrit les compteurs modifiés depuis le dernier instantané
+     */
+    @Scheduled(initialDelayString = "${product.sales.snapshot-interval-ms:60000}",
+            fixedDelayString = "${product.sales.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (!persistent || dirty.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(dirty);
+        productIds.forEach(dirty::remove);
+
+        List<ProductSalesItem> items = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            items.add(new ProductSalesItem(productId, getUnitsSold(productId), getRevenue(productId)));
+        }
+        try {
+            productSalesRepository.saveAll(items);
+            lastSnapshotAt = LocalDateTime.now();
+        } catch (DataAccessException e) {
+            dirty.addAll(productIds);
+            log.warn("Écriture de BB_PRODUCT_SALES impossible ({} produits) : {}", productIds.size(), e.getMessage());
+        }
+    }
+
+    // ========== LECTURES ==========
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * IDs des produits par unités vendues décroissantes (parcours paresseux du classement)
+     */
+    public Iterator<Long> rankedProductIds() {
+        Iterator<Rank> ranks = ranking.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ranks.hasNext();
+            }
+
+            @Override
+            public Long next() {
+                return ranks.next().productId;
+            }
+        };
+    }
+
+    /**
+     * Les k produits les plus vendus
+     */
+    public List<Long> getTopProductIds(int limit) {
+        List<Long> productIds = new ArrayList<>(Math.min(limit, 256));
+        for (Rank rank : ranking) {
+            if (productIds.size() >= limit) {
+                break;
+            }
+            productIds.add(rank.productId);
+        }
+        return productIds;
+    }
+
+    public long getUnitsSold(Long productId) {
+        Counter counter = counters.get(productId);
+        return counter != null ? counter.units.sum() : 0L;
+    }
+
+    public BigDecimal getRevenue(Long productId) {
+        Counter counter = counters.get(productId);
+        return BigDecimal.valueOf(counter != null ? counter.revenueCents.sum() : 0L, 2);
+    }
+
+    /**
+     * État des compteurs
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("loaded", loaded);
+        statistics.put("persistent", persistent);
+        statistics.put("products", counters.size());
+        statistics.put("pendingSnapshot", dirty.size());
+        statistics.put("lastSnapshotAt", lastSnapshotAt);
+        return statistics;
+    }
+
+    // ========== MISE À JOUR ==========
+
+    private void add(Long productId, long units, long revenueCents) {
+        if (productId == null) {
+            return;
+        }
+        Counter counter = counters.computeIfAbsent(productId, id -> new Counter());
+        counter.units.add(units);
+        counter.revenueCents.add(revenueCents);
+        dirty.add(productId);
+
+        // Repositionnement dans le classement : O(log n), sérialisé par produit
+        synchronized (counter) {
+            long total = counter.units.sum();
+            if (counter.rank == null ? total > 0 : counter.rank.units != total) {
+                if (counter.rank != null) {
+                    ranking.remove(counter.rank);
+                }
+                // Un produit entièrement remboursé sort du classement
+                counter.rank = total > 0 ? new Rank(total, productId) : null;
+                if (counter.rank != null) {
+                    ranking.add(counter.rank);
+                }
+            }
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0L;
+    }
+
+    private static final class Counter {
+        private final LongAdder units = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+        private Rank rank;
+    }
+
+    private static final class Rank implements Comparable<Rank> {
+        private final long units;
+        private final long productId;
+
+        private Rank(long units, long productId) {
+            this.units = units;
+            this.productId = productId;
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            int byUnits = Long.compare(other.units, units);
+            return byUnits != 0 ? byUnits : Long.compare(productId, other.productId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Rank other && units == other.units && productId == other.productId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(units) * 31 + Long.hashCode(productId);
+        }
+    }
+}
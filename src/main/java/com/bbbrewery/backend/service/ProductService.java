@@ -1,24 +1,55 @@
 package com.bbbrewery.backend.service;
 
 import com.bbbrewery.backend.dto.ProductDTO;
+import com.bbbrewery.backend.event.ProductChangedEvent;
+import com.bbbrewery.backend.event.ProductStockChangedEvent;
 import com.bbbrewery.backend.model.Product;
+import com.bbbrewery.backend.repository.ProductProjectionRepository;
 import com.bbbrewery.backend.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class ProductService {
 
+    private static final int TOP_SELLING_CHUNK_SIZE = 500;
+    private static final int MAX_IN_LIST = 1000;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductProjectionRepository productProjectionRepository;
+
+    @Autowired
+    private EffectivePriceEngine effectivePriceEngine;
+
+    @Autowired
+    private ProductBatchLoader productBatchLoader;
+
+    @Autowired
+    private ProductSalesCounters productSalesCounters;
+
+    @Autowired
+    private CatalogStatistics catalogStatistics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // =================== CONSULTATION DES PRODUITS ===================
 
     /**
@@ -37,6 +68,18 @@ public class ProductService {
         return productRepository.findByActiveTrue();
     }
 
+    /**
+     * Tous les produits (ou les actifs), réduits aux colonnes des propriétés demandées
+     * (paramètre fields=) ; sans propriété connue, produits complets
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getProducts(Set<String> fields, boolean activeOnly) {
+        if (fields.isEmpty() || !productProjectionRepository.supports(fields)) {
+            return activeOnly ? productRepository.findByActiveTrue() : productRepository.findAll();
+        }
+        return productProjectionRepository.findProducts(fields, activeOnly);
+    }
+
     /**
      * Récupère tous les produits inactifs
      */
@@ -48,9 +91,9 @@ public class ProductService {
     /**
      * Récupère un produit par son ID
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productBatchLoader.find(id);
     }
 
     /**
@@ -128,8 +171,11 @@ public class ProductService {
     /**
      * Récupère les produits en promotion
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<Product> getProductsOnSale() {
+        if (effectivePriceEngine.isLoaded()) {
+            return effectivePriceEngine.getProductsOnSale();
+        }
         return productRepository.findProductsOnSale(LocalDateTime.now());
     }
 
@@ -154,7 +200,39 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<Product> getTopSellingProducts() {
-        return productRepository.findTopSellingProducts();
+        return getTopSellingProducts(null);
+    }
+
+    /**
+     * Récupère les k produits actifs les plus vendus (tous si limit est null)
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getTopSellingProducts(Integer limit) {
+        if (!productSalesCounters.isLoaded()) {
+            List<Product> products = productRepository.findTopSellingProducts();
+            return limit != null && products.size() > limit ? products.subList(0, limit) : products;
+        }
+
+        // Parcours du classement par lots : les produits inactifs sont écartés sans tout charger
+        int wanted = limit != null ? limit : Integer.MAX_VALUE;
+        List<Product> topSelling = new ArrayList<>();
+        Iterator<Long> ranked = productSalesCounters.rankedProductIds();
+        while (topSelling.size() < wanted && ranked.hasNext()) {
+            int chunkSize = (int) Math.min(Math.max(wanted - topSelling.size(), 10), TOP_SELLING_CHUNK_SIZE);
+            List<Long> chunk = new ArrayList<>(chunkSize);
+            while (chunk.size() < chunkSize && ranked.hasNext()) {
+                chunk.add(ranked.next());
+            }
+            Map<Long, Product> byId = new HashMap<>();
+            productRepository.findAllById(chunk).forEach(product -> byId.put(product.getId(), product));
+            for (Long productId : chunk) {
+                Product product = byId.get(productId);
+                if (product != null && product.isActive() && topSelling.size() < wanted) {
+                    topSelling.add(product);
+                }
+            }
+        }
+        return topSelling;
     }
 
     // =================== GESTION DES PRODUITS ===================
@@ -167,7 +245,9 @@ public class ProductService {
         product.setActive(true);
         product.setCreatedDate(LocalDateTime.now());
         product.setUpdatedDate(LocalDateTime.now());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(saved.getId()));
+        return saved;
     }
 
     /**
@@ -179,6 +259,7 @@ public class ProductService {
             Product product = existingProduct.get();
             updateProductFromDTO(product, productDTO);
             product.setUpdatedDate(LocalDateTime.now());
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
             return productRepository.save(product);
         }
         throw new RuntimeException("Produit non trouvé avec l'ID: " + id);
@@ -193,6 +274,7 @@ public class ProductService {
             Product product = existingProduct.get();
             updateProductFromDTOPartial(product, productDTO);
             product.setUpdatedDate(LocalDateTime.now());
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
             return productRepository.save(product);
         }
         throw new RuntimeException("Produit non trouvé avec l'ID: " + id);
@@ -204,6 +286,7 @@ public class ProductService {
     public void deleteProduct(Long id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
         } else {
             throw new RuntimeException("Produit non trouvé avec l'ID: " + id);
         }
@@ -218,6 +301,7 @@ public class ProductService {
             Product product = existingProduct.get();
             product.setActive(!product.getActive());
             product.setUpdatedDate(LocalDateTime.now());
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
             return productRepository.save(product);
         }
         throw new RuntimeException("Produit non trouvé avec l'ID: " + id);
@@ -227,7 +311,15 @@ public class ProductService {
      * Active/désactive plusieurs produits
      */
     public int updateProductsStatus(List<Long> productIds, Boolean status) {
-        return productRepository.updateProductsStatus(productIds, status, LocalDateTime.now());
+        // Oracle limite les listes IN à 1000 éléments : découpage dans la même transaction
+        LocalDateTime now = LocalDateTime.now();
+        int updated = 0;
+        for (int from = 0; from < productIds.size(); from += MAX_IN_LIST) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + MAX_IN_LIST, productIds.size()));
+            updated += productRepository.updateProductsStatus(chunk, status, now);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(productIds));
+        return updated;
     }
 
     // =================== GESTION DU STOCK ===================
@@ -241,6 +333,7 @@ public class ProductService {
             Product product = existingProduct.get();
             product.setStock(newStock);
             product.setUpdatedDate(LocalDateTime.now());
+            eventPublisher.publishEvent(ProductChangedEvent.of(id));
             return productRepository.save(product);
         }
         throw new RuntimeException("Produit non trouvé avec l'ID: " + id);
@@ -251,6 +344,9 @@ public class ProductService {
      */
     public boolean decreaseStock(Long productId, int quantity) {
         int updated = productRepository.decreaseStock(productId, quantity, LocalDateTime.now());
+        if (updated > 0) {
+            eventPublisher.publishEvent(new ProductStockChangedEvent(productId, -quantity));
+        }
         return updated > 0;
     }
 
@@ -259,6 +355,9 @@ public class ProductService {
      */
     public boolean increaseStock(Long productId, int quantity) {
         int updated = productRepository.increaseStock(productId, quantity, LocalDateTime.now());
+        if (updated > 0) {
+            eventPublisher.publishEvent(new ProductStockChangedEvent(productId, quantity));
+        }
         return updated > 0;
     }
 
@@ -278,6 +377,7 @@ public class ProductService {
      */
     public void updateProductDescription(Long productId, String newDescription) {
         productRepository.updateProductDescription(productId, newDescription);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
     }
 
     /**
@@ -285,6 +385,8 @@ public class ProductService {
      */
     public void addProductViaProcedure(String name, BigDecimal price, String description, int stock) {
         productRepository.addProductViaProcedure(name, price, description, stock);
+        // L'ID attribué par la procédure n'est pas connu ici
+        eventPublisher.publishEvent(ProductChangedEvent.unknownProducts());
     }
 
     // =================== VÉRIFICATIONS ===================
@@ -292,18 +394,17 @@ public class ProductService {
     /**
      * Vérifie si un produit existe
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public boolean productExists(Long id) {
-        return productRepository.existsById(id);
+        return productBatchLoader.find(id).isPresent();
     }
 
     /**
      * Vérifie si un produit existe et est actif
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public boolean productExistsAndActive(Long id) {
-        Boolean result = productRepository.existsByIdAndActiveTrue(id);
-        return result != null && result;
+        return productBatchLoader.find(id).map(Product::isActive).orElse(false);
     }
 
     // =================== STATISTIQUES ===================
@@ -311,43 +412,74 @@ public class ProductService {
     /**
      * Obtient le nombre de produits actifs
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Long getActiveProductsCount() {
+        if (catalogStatistics.isLoaded()) {
+            return catalogStatistics.getActiveProductsCount();
+        }
         return productRepository.countActiveProducts();
     }
 
     /**
      * Obtient la quantité totale en stock
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Long getTotalStockQuantity() {
+        if (catalogStatistics.isLoaded()) {
+            return catalogStatistics.getTotalStockQuantity();
+        }
         return productRepository.getTotalStockQuantity();
     }
 
     /**
      * Obtient le prix moyen des produits
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public BigDecimal getAverageProductPrice() {
+        if (catalogStatistics.isLoaded()) {
+            return catalogStatistics.getAverageProductPrice();
+        }
         return productRepository.getAverageProductPrice();
     }
 
     /**
      * Obtient le nombre de produits par catégorie
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<Object[]> getProductCountByCategory() {
+        if (catalogStatistics.isLoaded()) {
+            return catalogStatistics.getProductCountByCategory();
+        }
         return productRepository.countProductsByCategory();
     }
 
     /**
      * Obtient la valeur totale du stock
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public BigDecimal getTotalStockValue() {
+        if (catalogStatistics.isLoaded()) {
+            return catalogStatistics.getTotalStockValue();
+        }
         return productRepository.getTotalStockValue();
     }
 
+    /**
+     * Obtient les statistiques globales des produits (un seul instantané cohérent)
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Map<String, Object> getProductStatistics() {
+        if (catalogStatistics.isLoaded()) {
+            return catalogStatistics.getStatistics();
+        }
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("activeProductsCount", productRepository.countActiveProducts());
+        statistics.put("totalStockQuantity", productRepository.getTotalStockQuantity());
+        statistics.put("averagePrice", productRepository.getAverageProductPrice());
+        statistics.put("totalStockValue", productRepository.getTotalStockValue());
+        return statistics;
+    }
+
     // =================== MÉTHODES UTILITAIRES PRIVÉES ===================
 
     /**
@@ -420,9 +552,9 @@ public class ProductService {
     // =================== MÉTHODES DE VALIDATION ===================
 
     /**
-     * Valide les données d'un produit avant création/modification
+     * Valide les données d'un produit avant création/modification (aussi utilisée par l'import en masse)
      */
-    private void validateProductData(ProductDTO dto) {
+    static void validateProductData(ProductDTO dto) {
         if (dto.getProductName() == null || dto.getProductName().trim().isEmpty()) {
             throw new IllegalArgumentException("Le nom du produit est obligatoire");
         }
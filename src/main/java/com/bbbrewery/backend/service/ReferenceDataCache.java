@@ -0,0 +1,208 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.StartupCacheWarmup;
+import com.bbbrewery.backend.event.ReferenceDataChangedEvent;
+import com.bbbrewery.backend.model.Shipping;
+import com.bbbrewery.backend.model.Tax;
+import com.bbbrewery.backend.repository.ShippingRepository;
+import com.bbbrewery.backend.repository.TaxRepository;
+import com.bbbrewery.backend.service.CatalogSnapshotStore.CatalogSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Configurations de taxe actives (par état) et tranches d'expédition tenues en mémoire.
+ * Au démarrage, les données viennent de l'instantané local s'il est valide, puis sont
+ * réconciliées avec la base en arrière-plan ; sinon elles sont lues en base.
+ * Rechargées après chaque modification et périodiquement.
+ */
+@Component
+public class ReferenceDataCache implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    @Autowired
+    private TaxRepository taxRepository;
+
+    @Autowired
+    private ShippingRepository shippingRepository;
+
+    @Autowired
+    private CatalogSnapshotStore catalogSnapshotStore;
+
+    @Autowired
+    private StartupCacheWarmup startupCacheWarmup;
+
+    private volatile ReferenceData data = ReferenceData.EMPTY;
+    private volatile boolean loaded;
+    // Faux tant que les données viennent de l'instantané et n'ont pas été relues en base
+    private volatile boolean reconciled;
+    private volatile LocalDateTime lastLoadedAt;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Optional<CatalogSnapshot> snapshot = catalogSnapshotStore.readStartupSnapshot();
+        if (snapshot.isPresent()) {
+            data = new ReferenceData(snapshot.get().getTaxes(), snapshot.get().getShippingRates());
+            lastLoadedAt = snapshot.get().getWrittenAt();
+            loaded = true;
+            CompletableFuture.runAsync(this::reload);
+        } else {
+            startupCacheWarmup.load("referenceDataCache", this::reload);
+        }
+    }
+
+    /**
+     * Recharge les taxes et tarifs depuis la base ; remplace entièrement les données en mémoire
+     */
+    @Scheduled(initialDelayString = "${reference.resync-interval-ms:600000}",
+            fixedDelayString = "${reference.resync-interval-ms:600000}")
+    public synchronized void reload() {
+        try {
+            List<Tax> taxes = taxRepository.findConfigurations().stream()
+                    .filter(Tax::isActive)
+                    .map(ReferenceDataCache::copyOf)
+                    .toList();
+            List<Shipping> rates = shippingRepository.findAllOrderedByLowWeight().stream()
+                    .filter(rate -> rate.getLow() != null && rate.getHigh() != null)
+                    .map(ReferenceDataCache::copyOf)
+                    .toList();
+            if (!reconciled && loaded) {
+                ReferenceData previous = data;
+                log.info("Taxes et tarifs réconciliés avec la base : {} taxes et {} tarifs (instantané : {} et {})",
+                        taxes.size(), rates.size(), previous.taxes.size(), previous.shippingRates.size());
+            }
+            data = new ReferenceData(taxes, rates);
+            loaded = true;
+            reconciled = true;
+            lastLoadedAt = LocalDateTime.now();
+        } catch (DataAccessException e) {
+            log.warn("Chargement des taxes et tarifs impossible, repli sur les requêtes en base : {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        reload();
+    }
+
+    // ========== LECTURES ==========
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean isReconciled() {
+        return reconciled;
+    }
+
+    /**
+     * Date de la dernière lecture en base (ou de l'instantané au démarrage)
+     */
+    public LocalDateTime getLastLoadedAt() {
+        return lastLoadedAt;
+    }
+
+    /**
+     * Configuration de taxe active d'un état (code en majuscules)
+     */
+    public Optional<Tax> findTaxConfiguration(String state) {
+        return Optional.ofNullable(data.taxesByState.get(state));
+    }
+
+    /**
+     * Premier tarif de la méthode couvrant le poids (tranches triées par poids minimal)
+     */
+    public Optional<Shipping> findShippingRate(Integer weight, String method) {
+        if (weight == null || method == null) {
+            return Optional.empty();
+        }
+        return data.shippingRates.stream()
+                .filter(rate -> covers(rate, weight) && method.equals(rate.getShippingMethod()))
+                .findFirst();
+    }
+
+    /**
+     * Tarifs couvrant le poids
+     */
+    public List<Shipping> findShippingRates(Integer weight) {
+        if (weight == null) {
+            return List.of();
+        }
+        return data.shippingRates.stream()
+                .filter(rate -> covers(rate, weight))
+                .toList();
+    }
+
+    public List<Tax> getTaxConfigurations() {
+        return data.taxes;
+    }
+
+    public List<Shipping> getShippingRates() {
+        return data.shippingRates;
+    }
+
+    private static boolean covers(Shipping rate, int weight) {
+        return weight >= rate.getLow() && weight <= rate.getHigh();
+    }
+
+    // Copies détachées : jamais modifiées par un contexte de persistance
+    private static Tax copyOf(Tax source) {
+        Tax copy = new Tax();
+        copy.setId(source.getId());
+        copy.setState(source.getState());
+        copy.setTaxRate(source.getTaxRate());
+        copy.setActive(source.getActive());
+        copy.setDescription(source.getDescription());
+        copy.setProvince(source.getProvince());
+        copy.setDateCreated(source.getDateCreated());
+        return copy;
+    }
+
+    private static Shipping copyOf(Shipping source) {
+        Shipping copy = new Shipping();
+        copy.setIdRange(source.getIdRange());
+        copy.setLow(source.getLow());
+        copy.setHigh(source.getHigh());
+        copy.setFee(source.getFee());
+        copy.setShipCost(source.getShipCost());
+        copy.setShippingMethod(source.getShippingMethod());
+        copy.setDateCreated(source.getDateCreated());
+        return copy;
+    }
+
+    /**
+     * Instantané immuable des données de référence
+     */
+    private static final class ReferenceData {
+        static final ReferenceData EMPTY = new ReferenceData(List.of(), List.of());
+
+        private final List<Tax> taxes;
+        private final Map<String, Tax> taxesByState;
+        private final List<Shipping> shippingRates;
+
+        private ReferenceData(List<Tax> taxes, List<Shipping> shippingRates) {
+            this.taxes = List.copyOf(taxes);
+            Map<String, Tax> byState = new HashMap<>();
+            taxes.stream()
+                    .filter(tax -> tax.getState() != null)
+                    .sorted(Comparator.comparing(Tax::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .forEach(tax -> byState.putIfAbsent(tax.getState(), tax));
+            this.taxesByState = Map.copyOf(byState);
+            List<Shipping> sorted = new ArrayList<>(shippingRates);
+            sorted.sort(Comparator.comparing(Shipping::getLow));
+            this.shippingRates = List.copyOf(sorted);
+        }
+    }
+}
@@ -20,11 +20,21 @@ public class ReportService {
     @Autowired
     private ReportRepository reportRepository;
 
+    @Autowired
+    private ProductSalesCounters productSalesCounters;
+
     /**
      * Génère le rapport de stock - utilise la méthode du repository
      */
     public List<StockReportItem> generateStockReport() {
-        return reportRepository.getStockReport();
+        if (!productSalesCounters.isLoaded()) {
+            return reportRepository.getStockReport();
+        }
+        // TOTAL_SOLD lu dans les compteurs : la requête ne joint plus les lignes de panier
+        List<StockReportItem> items = reportRepository.getStockLevels();
+        items.forEach(item -> item.setTotalSold(
+                Math.toIntExact(productSalesCounters.getUnitsSold(item.getProductId()))));
+        return items;
     }
 
     /**
@@ -72,7 +82,7 @@ public class ReportService {
      */
     public List<StockReportItem> getLowStockProducts(int threshold) {
         // Utilise le rapport de stock et filtre
-        return reportRepository.getStockReport().stream()
+        return generateStockReport().stream()
                 .filter(item -> item.getCurrentStock() <= threshold)
                 .toList();
     }
@@ -1,9 +1,12 @@
 package com.bbbrewery.backend.service;
 
+import com.bbbrewery.backend.event.ReferenceDataChangedEvent;
 import com.bbbrewery.backend.model.Shipping;
 import com.bbbrewery.backend.repository.ShippingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -18,6 +21,12 @@ public class ShippingService {
     @Autowired
     private ShippingRepository shippingRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // ================== CRUD Operations ==================
 
     public List<Shipping> getAllShippingRates() {
@@ -32,11 +41,14 @@ public class ShippingService {
         if (shipping.getDateCreated() == null) {
             shipping.setDateCreated(LocalDateTime.now());
         }
-        return shippingRepository.save(shipping);
+        Shipping saved = shippingRepository.save(shipping);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("shipping"));
+        return saved;
     }
 
     public void deleteShippingRate(Long id) {
         shippingRepository.deleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("shipping"));
     }
 
     public Shipping updateShippingRate(Long id, Shipping updatedShipping) {
@@ -51,7 +63,9 @@ public class ShippingService {
                     shipping.setTrackingNumber(updatedShipping.getTrackingNumber());
                     shipping.setShipDateExpected(updatedShipping.getShipDateExpected());
                     shipping.setShipDateActual(updatedShipping.getShipDateActual());
-                    return shippingRepository.save(shipping);
+                    Shipping saved = shippingRepository.save(shipping);
+                    eventPublisher.publishEvent(new ReferenceDataChangedEvent("shipping"));
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Shipping rate not found with id: " + id));
     }
@@ -61,8 +75,11 @@ public class ShippingService {
     /**
      * Calcule le coût d'expédition pour un poids et une méthode donnés
      */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public BigDecimal calculateShippingCost(Integer weight, String method) {
-        Optional<Shipping> shippingRate = shippingRepository.findByWeightRangeAndMethod(weight, method);
+        Optional<Shipping> shippingRate = referenceDataCache.isLoaded()
+                ? referenceDataCache.findShippingRate(weight, method)
+                : shippingRepository.findByWeightRangeAndMethod(weight, method);
 
         if (shippingRate.isPresent()) {
             Shipping rate = shippingRate.get();
@@ -71,7 +88,7 @@ public class ShippingService {
         }
 
         // Si aucun tarif trouvé pour la méthode spécifique, chercher dans toutes les méthodes
-        List<Shipping> rates = shippingRepository.findByWeightRange(weight);
+        List<Shipping> rates = getApplicableRates(weight);
         if (!rates.isEmpty()) {
             Shipping rate = rates.get(0); // Prendre le premier trouvé
             return rate.getShipCost() != null ? rate.getShipCost() : rate.getFee();
@@ -84,7 +101,11 @@ public class ShippingService {
     /**
      * Trouve tous les tarifs applicables pour un poids donné
      */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<Shipping> getApplicableRates(Integer weight) {
+        if (referenceDataCache.isLoaded()) {
+            return referenceDataCache.findShippingRates(weight);
+        }
         return shippingRepository.findByWeightRange(weight);
     }
 
@@ -0,0 +1,330 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.StartupCacheWarmup;
+import com.bbbrewery.backend.event.ShopperChangedEvent;
+import com.bbbrewery.backend.repository.ShopperDirectoryRepository;
+import com.bbbrewery.backend.repository.ShopperDirectoryRepository.ShopperContactItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Index en mémoire email normalisé → client et téléphone normalisé → client,
+ * pour la connexion, l'unicité à l'inscription et le checkout invité.
+ * Chargé au démarrage par un parcours de BB_SHOPPER, puis tenu à jour après chaque
+ * écriture de ShopperService. Une clé absente de l'index est vérifiée une fois en base
+ * (client créé hors de l'application) ; le résultat négatif est gardé dans un cache borné,
+ * que les décisions d'unicité (findEmailOwner, findPhoneOwner) n'utilisent jamais.
+ */
+@Component
+public class ShopperDirectory implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopperDirectory.class);
+
+    @Autowired
+    private ShopperDirectoryRepository shopperDirectoryRepository;
+
+    @Autowired
+    private StartupCacheWarmup startupCacheWarmup;
+
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+    private final Map<String, Long> phones = new ConcurrentHashMap<>();
+    // Dernier contact indexé par client : une modification retire les anciennes clés
+    private final Map<Long, ShopperContactItem> contacts = new ConcurrentHashMap<>();
+    private final NegativeCache unknownEmails;
+    private final NegativeCache unknownPhones;
+    private volatile boolean loaded;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong databaseLookups = new AtomicLong();
+
+    public ShopperDirectory(@Value("${shopper.directory.negative-cache-size:10000}") int negativeCacheSize,
+                            @Value("${shopper.directory.negative-ttl-ms:300000}") long negativeTtlMs) {
+        this.unknownEmails = new NegativeCache(negativeCacheSize, negativeTtlMs);
+        this.unknownPhones = new NegativeCache(negativeCacheSize, negativeTtlMs);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        startupCacheWarmup.load("shopperDirectory", this::reload);
+    }
+
+    /**
+     * Reconstruit l'index depuis BB_SHOPPER
+     */
+    public synchronized void reload() {
+        try {
+            long start = System.currentTimeMillis();
+            Map<String, Long> freshEmails = new HashMap<>();
+            Map<String, Long> freshPhones = new HashMap<>();
+            Map<Long, ShopperContactItem> freshContacts = new HashMap<>();
+            shopperDirectoryRepository.scanContacts(contact -> {
+                freshContacts.put(contact.getShopperId(), contact);
+                // Parcours par ID croissant : en cas de doublon, le client le plus ancien l'emporte
+                String email = normalizeEmail(contact.getEmail());
+                if (email != null) {
+                    freshEmails.putIfAbsent(email, contact.getShopperId());
+                }
+                String phone = normalizePhone(contact.getPhone());
+                if (phone != null) {
+                    freshPhones.putIfAbsent(phone, contact.getShopperId());
+                }
+            });
+            emails.clear();
+            emails.putAll(freshEmails);
+            phones.clear();
+            phones.putAll(freshPhones);
+            contacts.clear();
+            contacts.putAll(freshContacts);
+            unknownEmails.clear();
+            unknownPhones.clear();
+            loaded = true;
+            log.info("Annuaire des clients chargé : {} emails, {} téléphones en {} ms",
+                    freshEmails.size(), freshPhones.size(), System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            loaded = false;
+            log.warn("Chargement de l'annuaire des clients impossible, repli sur les requêtes en base : {}",
+                    e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onShopperChanged(ShopperChangedEvent event) {
+        if (!loaded || event.getShopperId() == null) {
+            return;
+        }
+        try {
+            refresh(event.getShopperId());
+        } catch (DataAccessException e) {
+            log.warn("Mise à jour de l'annuaire impossible pour le client {} : {}", event.getShopperId(), e.getMessage());
+        }
+    }
+
+    // ========== LECTURES ==========
+
+    /**
+     * Client associé à un email (casse et espaces ignorés)
+     */
+    public Optional<Long> findShopperIdByEmail(String email) {
+        String key = normalizeEmail(email);
+        if (key == null) {
+            return Optional.empty();
+        }
+        return lookup(key, emails, unknownEmails, shopperDirectoryRepository::findShopperIdByNormalizedEmail);
+    }
+
+    /**
+     * Client associé à un téléphone (chiffres seulement)
+     */
+    public Optional<Long> findShopperIdByPhone(String phone) {
+        String key = normalizePhone(phone);
+        if (key == null) {
+            return Optional.empty();
+        }
+        return lookup(key, phones, unknownPhones, shopperDirectoryRepository::findShopperIdByNormalizedPhone);
+    }
+
+    /**
+     * Propriétaire d'un email pour une décision d'unicité (inscription, modification) :
+     * une clé absente de l'index est toujours vérifiée en base, le cache négatif est ignoré
+     */
+    public Optional<Long> findEmailOwner(String email) {
+        String key = normalizeEmail(email);
+        if (key == null) {
+            return Optional.empty();
+        }
+        return verify(key, emails, unknownEmails, shopperDirectoryRepository::findShopperIdByNormalizedEmail);
+    }
+
+    /**
+     * Propriétaire d'un téléphone pour une décision d'unicité, sans cache négatif
+     */
+    public Optional<Long> findPhoneOwner(String phone) {
+        String key = normalizePhone(phone);
+        if (key == null) {
+            return Optional.empty();
+        }
+        return verify(key, phones, unknownPhones, shopperDirectoryRepository::findShopperIdByNormalizedPhone);
+    }
+
+    public boolean emailExists(String email) {
+        return findShopperIdByEmail(email).isPresent();
+    }
+
+    public boolean phoneExists(String phone) {
+        return findShopperIdByPhone(phone).isPresent();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * État de l'annuaire
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("loaded", loaded);
+        statistics.put("emails", emails.size());
+        statistics.put("phones", phones.size());
+        statistics.put("unknownEmails", unknownEmails.size());
+        statistics.put("unknownPhones", unknownPhones.size());
+        statistics.put("hits", hits.get());
+        statistics.put("negativeHits", negativeHits.get());
+        statistics.put("databaseLookups", databaseLookups.get());
+        return statistics;
+    }
+
+    // ========== MISE À JOUR ==========
+
+    private Optional<Long> lookup(String key, Map<String, Long> index, NegativeCache unknown,
+                                  Function<String, Optional<Long>> database) {
+        if (loaded && !index.containsKey(key) && unknown.contains(key)) {
+            negativeHits.incrementAndGet();
+            return Optional.empty();
+        }
+        // Première demande pour cette clé : vérification unique en base
+        return verify(key, index, unknown, database);
+    }
+
+    // Index, sinon base ; le résultat de la base est reporté dans l'index ou le cache négatif
+    private Optional<Long> verify(String key, Map<String, Long> index, NegativeCache unknown,
+                                  Function<String, Optional<Long>> database) {
+        Long shopperId = loaded ? index.get(key) : null;
+        if (shopperId != null) {
+            hits.incrementAndGet();
+            return Optional.of(shopperId);
+        }
+        databaseLookups.incrementAndGet();
+        Optional<Long> found = database.apply(key);
+        if (!loaded) {
+            return found;
+        }
+        if (found.isPresent()) {
+            // Client créé hors de l'application : indexé avec son contact complet
+            refresh(found.get());
+        } else {
+            unknown.add(key);
+        }
+        return found;
+    }
+
+    private void refresh(Long shopperId) {
+        Optional<ShopperContactItem> contact = shopperDirectoryRepository.findContact(shopperId);
+        synchronized (this) {
+            unindex(shopperId);
+            contact.ifPresent(this::index);
+        }
+    }
+
+    private void index(ShopperContactItem contact) {
+        contacts.put(contact.getShopperId(), contact);
+        String email = normalizeEmail(contact.getEmail());
+        if (email != null) {
+            emails.putIfAbsent(email, contact.getShopperId());
+            unknownEmails.remove(email);
+        }
+        String phone = normalizePhone(contact.getPhone());
+        if (phone != null) {
+            phones.putIfAbsent(phone, contact.getShopperId());
+            unknownPhones.remove(phone);
+        }
+    }
+
+    private void unindex(Long shopperId) {
+        ShopperContactItem previous = contacts.remove(shopperId);
+        if (previous == null) {
+            return;
+        }
+        // Seulement si la clé désigne ce client (un doublon plus ancien reste indexé)
+        String email = normalizeEmail(previous.getEmail());
+        if (email != null) {
+            emails.remove(email, shopperId);
+        }
+        String phone = normalizePhone(previous.getPhone());
+        if (phone != null) {
+            phones.remove(phone, shopperId);
+        }
+    }
+
+    static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.length() > 0 ? digits.toString() : null;
+    }
+
+    /**
+     * Clés inconnues, bornées (les plus anciennes sont évincées) et expirées après un délai
+     */
+    private static final class NegativeCache {
+        private final long ttlNanos;
+        private final Map<String, Long> expiries;
+
+        private NegativeCache(int maxEntries, long ttlMs) {
+            this.ttlNanos = ttlMs * 1_000_000L;
+            this.expiries = new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized boolean contains(String key) {
+            Long expiry = expiries.get(key);
+            if (expiry == null) {
+                return false;
+            }
+            if (expiry - System.nanoTime() < 0) {
+                expiries.remove(key);
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void add(String key) {
+            expiries.remove(key);
+            expiries.put(key, System.nanoTime() + ttlNanos);
+        }
+
+        synchronized void remove(String key) {
+            expiries.remove(key);
+        }
+
+        synchronized void clear() {
+            expiries.clear();
+        }
+
+        synchronized int size() {
+            return expiries.size();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.StartupCacheWarmup;
+import com.bbbrewery.backend.event.BasketStatusChangedEvent;
+import com.bbbrewery.backend.repository.ShopperStatsRepository;
+import com.bbbrewery.backend.repository.ShopperStatsRepository.ShopperStatsItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Montant cumulé des achats et nombre de commandes par client, servis depuis la mémoire.
+ * Chargé en masse au démarrage depuis BB_BASKET, puis maintenu par les changements
+ * de statut publiés par BasketService. La table BB_SHOPPER_STATS, si elle existe,
+ * est mise à jour dans la même transaction que le changement de statut.
+ */
+@Component
+public class ShopperLifetimeValueCache implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopperLifetimeValueCache.class);
+
+    @Autowired
+    private ShopperStatsRepository shopperStatsRepository;
+
+    @Autowired
+    private StartupCacheWarmup startupCacheWarmup;
+
+    @Value("${shopper.ltv.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    private final Map<Long, LifetimeValue> values = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile boolean persistent;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (backfillOnStartup) {
+            startupCacheWarmup.load("shopperLifetimeValueCache", this::backfill);
+        }
+    }
+
+    /**
+     * Recalcule tous les agrégats en une requête et les réécrit dans BB_SHOPPER_STATS
+     */
+    public synchronized void backfill() {
+        try {
+            long start = System.currentTimeMillis();
+            List<ShopperStatsItem> items = shopperStatsRepository.aggregatePurchasesByShopper();
+
+            Map<Long, LifetimeValue> fresh = new HashMap<>();
+            for (ShopperStatsItem item : items) {
+                fresh.put(item.getShopperId(), new LifetimeValue(item.getTotalSpent(), item.getOrderCount()));
+            }
+            values.clear();
+            values.putAll(fresh);
+            loaded = true;
+
+            persistent = shopperStatsRepository.statsTableExists();
+            if (persistent) {
+                shopperStatsRepository.saveAll(items);
+            }
+            log.info("Agrégats clients chargés : {} clients en {} ms (persistance {})",
+                    items.size(), System.currentTimeMillis() - start, persistent ? "active" : "inactive");
+        } catch (DataAccessException e) {
+            loaded = false;
+            log.warn("Chargement des agrégats clients impossible, repli sur tot_purch_sf : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Agrégats d'un client ; vide tant que le chargement initial n'a pas réussi
+     */
+    public Optional<LifetimeValue> get(Long shopperId) {
+        if (!loaded) {
+            return Optional.empty();
+        }
+        return Optional.of(values.getOrDefault(shopperId, LifetimeValue.ZERO));
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Écriture dans la transaction du changement de statut : table et BB_BASKET restent cohérentes
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void persistDelta(BasketStatusChangedEvent event) {
+        if (!persistent || event.getShopperId() == null || isNoOp(event)) {
+            return;
+        }
+        try {
+            shopperStatsRepository.applyDelta(event.getShopperId(), event.getSpendDelta(), event.getOrderCountDelta());
+        } catch (DataAccessException e) {
+            // Une erreur d'instruction Oracle n'annule pas la transaction : la commande passe quand même
+            log.warn("Mise à jour de BB_SHOPPER_STATS impossible pour le client {} : {}",
+                    event.getShopperId(), e.getMessage());
+        }
+    }
+
+    // Mémoire mise à jour seulement après commit : une transaction annulée n'a aucun effet
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void applyDelta(BasketStatusChangedEvent event) {
+        if (event.getShopperId() == null || isNoOp(event) || !awaitBackfill()) {
+            return;
+        }
+        values.compute(event.getShopperId(), (id, current) ->
+                (current != null ? current : LifetimeValue.ZERO)
+                        .plus(event.getSpendDelta(), event.getOrderCountDelta()));
+    }
+
+    // Chargement en arrière-plan (startup.async-cache-warmup) : un changement validé pendant
+    // le chargement attend sa fin, sinon il manquerait à la fois à la requête et aux agrégats
+    private boolean awaitBackfill() {
+        if (loaded) {
+            return true;
+        }
+        synchronized (this) {
+            return loaded;
+        }
+    }
+
+    private boolean isNoOp(BasketStatusChangedEvent event) {
+        return event.getOrderCountDelta() == 0 && event.getSpendDelta().signum() == 0;
+    }
+
+    /**
+     * Agrégats immuables d'un client
+     */
+    public static class LifetimeValue {
+        static final LifetimeValue ZERO = new LifetimeValue(BigDecimal.ZERO, 0);
+
+        private final BigDecimal totalSpent;
+        private final long orderCount;
+
+        public LifetimeValue(BigDecimal totalSpent, long orderCount) {
+            this.totalSpent = totalSpent != null ? totalSpent : BigDecimal.ZERO;
+            this.orderCount = orderCount;
+        }
+
+        LifetimeValue plus(BigDecimal spendDelta, int orderCountDelta) {
+            return new LifetimeValue(totalSpent.add(spendDelta), orderCount + orderCountDelta);
+        }
+
+        public BigDecimal getTotalSpent() { return totalSpent; }
+        public long getOrderCount() { return orderCount; }
+    }
+}
@@ -0,0 +1,454 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.StartupCacheWarmup;
+import com.bbbrewery.backend.event.ShopperChangedEvent;
+import com.bbbrewery.backend.repository.ShopperDirectoryRepository;
+import com.bbbrewery.backend.repository.ShopperDirectoryRepository.ShopperSearchItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index de trigrammes sur le prénom, le nom, l'email, l'adresse et la ville des clients.
+ * Chaque trigramme est codé en entier (alphabet de 37 symboles) et pointe vers une liste
+ * de documents int[] triée. Une recherche fusionne les listes des trigrammes de la requête
+ * pour compter les trigrammes communs par document, puis classe par couverture de la
+ * requête et par similarité (Dice) : correspondances partielles et fautes de frappe
+ * légères sont tolérées, sans LIKE '%...%' en base.
+ * Un client modifié est réindexé sous un nouveau document ; l'ancien est marqué supprimé
+ * et l'index est compacté quand les documents supprimés deviennent trop nombreux.
+ */
+@Component
+public class ShopperSearchIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopperSearchIndex.class);
+
+    // Espace (bord de mot), a-z, 0-9
+    private static final int ALPHABET = 37;
+    private static final int TRIGRAMS = ALPHABET * ALPHABET * ALPHABET;
+    private static final int COMPACTION_MIN_DELETED = 1000;
+
+    @Autowired
+    private ShopperDirectoryRepository shopperDirectoryRepository;
+
+    @Autowired
+    private StartupCacheWarmup startupCacheWarmup;
+
+    private final double minCoverage;
+    private final int maxResults;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Listes de documents par trigramme, et leur taille utile
+    private int[][] postings = new int[TRIGRAMS][];
+    private int[] postingSizes = new int[TRIGRAMS];
+    // Par document : client, nombre de trigrammes distincts
+    private final List<ShopperSearchItem> documents = new ArrayList<>();
+    private int[] trigramCounts = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private final Map<Long, Integer> documentByShopper = new HashMap<>();
+    private volatile boolean loaded;
+
+    public ShopperSearchIndex(@Value("${shopper.search.min-coverage:0.5}") double minCoverage,
+                              @Value("${shopper.search.max-results:200}") int maxResults) {
+        this.minCoverage = minCoverage;
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        startupCacheWarmup.load("shopperSearchIndex", this::reload);
+    }
+
+    /**
+     * Reconstruit l'index depuis BB_SHOPPER
+     */
+    public void reload() {
+        try {
+            long start = System.currentTimeMillis();
+            List<ShopperSearchItem> items = new ArrayList<>();
+            shopperDirectoryRepository.scanSearchFields(items::add);
+            lock.writeLock().lock();
+            try {
+                rebuild(items);
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Index de recherche des clients chargé : {} clients en {} ms",
+                    items.size(), System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            loaded = false;
+            log.warn("Chargement de l'index de recherche des clients impossible, repli sur LIKE en base : {}",
+                    e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onShopperChanged(ShopperChangedEvent event) {
+        if (!loaded || event.getShopperId() == null) {
+            return;
+        }
+        try {
+            Optional<ShopperSearchItem> item = shopperDirectoryRepository.findSearchFields(event.getShopperId());
+            lock.writeLock().lock();
+            try {
+                Integer previous = documentByShopper.remove(event.getShopperId());
+                if (previous != null) {
+                    deleted.set(previous);
+                }
+                item.ifPresent(this::add);
+                if (deleted.cardinality() > Math.max(COMPACTION_MIN_DELETED, documents.size() / 4)) {
+                    compact();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Réindexation impossible pour le client {} : {}", event.getShopperId(), e.getMessage());
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Recherche floue : page de résultats classés, limitée aux max-results meilleurs ;
+     * totalMatches compte toutes les correspondances, même au-delà de max-results
+     */
+    public SearchPage search(String query, int page, int size) {
+        int[] queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0) {
+            return new SearchPage(page, size, 0, List.of());
+        }
+        int limit = Math.min((page + 1) * size, maxResults);
+        // Page au-delà de max-results : les correspondances sont comptées, aucune n'est classée
+        boolean ranked = limit > page * size;
+        int required = Math.max(1, (int) Math.ceil(queryTrigrams.length * minCoverage));
+
+        lock.readLock().lock();
+        try {
+            // Top-k par tas minimal : le pire résultat retenu est en tête
+            PriorityQueue<Hit> best = new PriorityQueue<>(Math.max(1, limit) + 1, Hit.BY_RANK.reversed());
+            int matches = 0;
+            PostingMerge merge = new PostingMerge(queryTrigrams);
+            while (merge.next()) {
+                int doc = merge.document();
+                int common = merge.count();
+                if (common < required || deleted.get(doc)) {
+                    continue;
+                }
+                matches++;
+                if (!ranked) {
+                    continue;
+                }
+                double coverage = (double) common / queryTrigrams.length;
+                double dice = 2.0 * common / (queryTrigrams.length + trigramCounts[doc]);
+                Hit hit = new Hit(documents.get(doc), coverage, dice);
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (Hit.BY_RANK.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(Hit.BY_RANK);
+            int from = Math.min(page * size, hits.size());
+            return new SearchPage(page, size, matches, new ArrayList<>(hits.subList(from, hits.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * État de l'index
+     */
+    public Map<String, Object> getStatistics() {
+        lock.readLock().lock();
+        try {
+            long postingEntries = 0;
+            int usedTrigrams = 0;
+            for (int size : postingSizes) {
+                postingEntries += size;
+                if (size > 0) {
+                    usedTrigrams++;
+                }
+            }
+            Map<String, Object> statistics = new HashMap<>();
+            statistics.put("loaded", loaded);
+            statistics.put("shoppers", documentByShopper.size());
+            statistics.put("documents", documents.size());
+            statistics.put("deletedDocuments", deleted.cardinality());
+            statistics.put("trigrams", usedTrigrams);
+            statistics.put("postingEntries", postingEntries);
+            return statistics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== CONSTRUCTION (sous le verrou d'écriture) ==========
+
+    private void rebuild(List<ShopperSearchItem> items) {
+        postings = new int[TRIGRAMS][];
+        postingSizes = new int[TRIGRAMS];
+        documents.clear();
+        trigramCounts = new int[Math.max(1024, items.size())];
+        deleted.clear();
+        documentByShopper.clear();
+        items.forEach(this::add);
+    }
+
+    private void compact() {
+        List<ShopperSearchItem> live = new ArrayList<>(documentByShopper.size());
+        for (int doc = 0; doc < documents.size(); doc++) {
+            if (!deleted.get(doc)) {
+                live.add(documents.get(doc));
+            }
+        }
+        rebuild(live);
+    }
+
+    private void add(ShopperSearchItem item) {
+        int doc = documents.size();
+        documents.add(item);
+        documentByShopper.put(item.getShopperId(), doc);
+
+        int[] keys = trigrams(item.getFirstName(), item.getLastName(), item.getEmail(),
+                item.getAddress(), item.getCity());
+        if (doc >= trigramCounts.length) {
+            trigramCounts = Arrays.copyOf(trigramCounts, trigramCounts.length * 2);
+        }
+        trigramCounts[doc] = keys.length;
+        for (int key : keys) {
+            int[] posting = postings[key];
+            int size = postingSizes[key];
+            if (posting == null) {
+                posting = postings[key] = new int[4];
+            } else if (size == posting.length) {
+                posting = postings[key] = Arrays.copyOf(posting, size * 2);
+            }
+            posting[size] = doc;
+            postingSizes[key] = size + 1;
+        }
+    }
+
+    /**
+     * Fusion des listes de documents des trigrammes de la requête (triées par document
+     * croissant) : chaque document présent est rendu une fois avec son nombre de trigrammes
+     * communs. Le coût suit la taille des listes parcourues, pas le nombre de documents.
+     * À utiliser sous le verrou de lecture.
+     */
+    private final class PostingMerge {
+        private final int[][] lists;
+        private final int[] sizes;
+        private final int[] cursors;
+        // Tas minimal des listes non épuisées, ordonné par document courant
+        private final int[] heap;
+        private int heapSize;
+        private int document;
+        private int count;
+
+        private PostingMerge(int[] trigrams) {
+            lists = new int[trigrams.length][];
+            sizes = new int[trigrams.length];
+            cursors = new int[trigrams.length];
+            heap = new int[trigrams.length];
+            for (int i = 0; i < trigrams.length; i++) {
+                lists[i] = postings[trigrams[i]];
+                sizes[i] = postingSizes[trigrams[i]];
+                if (sizes[i] > 0) {
+                    heap[heapSize] = i;
+                    siftUp(heapSize++);
+                }
+            }
+        }
+
+        boolean next() {
+            if (heapSize == 0) {
+                return false;
+            }
+            document = current(heap[0]);
+            count = 0;
+            while (heapSize > 0 && current(heap[0]) == document) {
+                count++;
+                int list = heap[0];
+                if (++cursors[list] == sizes[list]) {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(0);
+            }
+            return true;
+        }
+
+        int document() {
+            return document;
+        }
+
+        int count() {
+            return count;
+        }
+
+        private int current(int list) {
+            return lists[list][cursors[list]];
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (current(heap[parent]) <= current(heap[index])) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < heapSize && current(heap[left]) < current(heap[smallest])) {
+                    smallest = left;
+                }
+                if (right < heapSize && current(heap[right]) < current(heap[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int list = heap[i];
+            heap[i] = heap[j];
+            heap[j] = list;
+        }
+    }
+
+    // ========== TRIGRAMMES ==========
+
+    /**
+     * Trigrammes distincts et triés des mots des textes (mots bordés d'espaces : "  ab", " ab", "ab ")
+     */
+    static int[] trigrams(String... texts) {
+        int[] keys = new int[32];
+        int count = 0;
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            String folded = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+            int a = 0;
+            int b = 0;
+            for (int i = 0; i <= folded.length(); i++) {
+                int c = i < folded.length() ? symbol(folded.charAt(i)) : 0;
+                if (c < 0) {
+                    // Accent combinant : ignoré
+                    continue;
+                }
+                if (c == 0 && b == 0) {
+                    // Séparateur répété ou fin après un séparateur
+                    a = 0;
+                    continue;
+                }
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, count * 2);
+                }
+                keys[count++] = (a * ALPHABET + b) * ALPHABET + c;
+                a = c == 0 ? 0 : b;
+                b = c;
+            }
+        }
+        int[] sorted = Arrays.copyOf(keys, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    // 0 = séparateur, 1-26 = lettres, 27-36 = chiffres, -1 = marque diacritique
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        if (Character.getType(c) == Character.NON_SPACING_MARK) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * Résultat de recherche
+     */
+    public static class Hit {
+        static final Comparator<Hit> BY_RANK = Comparator.comparingDouble(Hit::getCoverage).reversed()
+                .thenComparing(Comparator.comparingDouble(Hit::getSimilarity).reversed())
+                .thenComparing(Hit::getShopperId);
+
+        private final ShopperSearchItem shopper;
+        private final double coverage;
+        private final double similarity;
+
+        Hit(ShopperSearchItem shopper, double coverage, double similarity) {
+            this.shopper = shopper;
+            this.coverage = coverage;
+            this.similarity = similarity;
+        }
+
+        public Long getShopperId() { return shopper.getShopperId(); }
+        public String getFirstName() { return shopper.getFirstName(); }
+        public String getLastName() { return shopper.getLastName(); }
+        public String getEmail() { return shopper.getEmail(); }
+        public String getAddress() { return shopper.getAddress(); }
+        public String getCity() { return shopper.getCity(); }
+        public double getCoverage() { return coverage; }
+        public double getSimilarity() { return similarity; }
+    }
+
+    /**
+     * Page de résultats
+     */
+    public static class SearchPage {
+        private final int page;
+        private final int size;
+        private final int totalMatches;
+        private final List<Hit> results;
+
+        SearchPage(int page, int size, int totalMatches, List<Hit> results) {
+            this.page = page;
+            this.size = size;
+            this.totalMatches = totalMatches;
+            this.results = results;
+        }
+
+        public int getPage() { return page; }
+        public int getSize() { return size; }
+        public int getTotalMatches() { return totalMatches; }
+        public List<Hit> getResults() { return results; }
+    }
+}
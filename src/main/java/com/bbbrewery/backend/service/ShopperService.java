@@ -0,0 +1,308 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.dto.ShopperDTO;
+import com.bbbrewery.backend.event.ShopperChangedEvent;
+import com.bbbrewery.backend.model.Shopper;
+import com.bbbrewery.backend.repository.BasketRepository;
+import com.bbbrewery.backend.repository.ShopperDirectoryRepository.ShopperSearchItem;
+import com.bbbrewery.backend.repository.ShopperRepository;
+import com.bbbrewery.backend.service.ShopperSearchIndex.Hit;
+import com.bbbrewery.backend.service.ShopperSearchIndex.SearchPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class ShopperService {
+
+    @Autowired
+    private ShopperRepository shopperRepository;
+
+    @Autowired
+    private ShopperDirectory shopperDirectory;
+
+    @Autowired
+    private ShopperSearchIndex shopperSearchIndex;
+
+    @Autowired
+    private ShopperVisitTracker shopperVisitTracker;
+
+    @Autowired
+    private ShopperStatistics shopperStatistics;
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Récupère un client par ID
+     */
+    @Transactional(readOnly = true)
+    public Optional<ShopperDTO> getShopperById(Long id) {
+        return shopperRepository.findById(id).map(this::toDTOWithPendingVisit);
+    }
+
+    /**
+     * Récupère un client par email (résolution par l'annuaire, puis lecture par clé primaire)
+     */
+    @Transactional(readOnly = true)
+    public Optional<ShopperDTO> getShopperByEmail(String email) {
+        return shopperDirectory.findShopperIdByEmail(email)
+                .flatMap(shopperRepository::findById)
+                .map(this::toDTOWithPendingVisit);
+    }
+
+    /**
+     * ID du client associé à un email (connexion, checkout invité), sans requête
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<Long> findShopperIdByEmail(String email) {
+        return shopperDirectory.findShopperIdByEmail(email);
+    }
+
+    /**
+     * ID du client associé à un téléphone, sans requête
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<Long> findShopperIdByPhone(String phone) {
+        return shopperDirectory.findShopperIdByPhone(phone);
+    }
+
+    /**
+     * Vérifie si un email est déjà utilisé (insensible à la casse)
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public boolean emailExists(String email) {
+        return shopperDirectory.emailExists(email);
+    }
+
+    /**
+     * Vérifie si un téléphone est déjà utilisé
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public boolean phoneExists(String phone) {
+        return shopperDirectory.phoneExists(phone);
+    }
+
+    /**
+     * Recherche floue par nom, email ou adresse (index de trigrammes, sinon LIKE en base)
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public SearchPage searchShoppers(String query, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("Pagination invalide");
+        }
+        if (shopperSearchIndex.isLoaded()) {
+            return shopperSearchIndex.search(query, page, size);
+        }
+        List<Shopper> shoppers = shopperRepository.searchByName(query.trim());
+        List<Hit> results = shoppers.stream()
+                .skip((long) page * size)
+                .limit(size)
+                .map(shopper -> new Hit(new ShopperSearchItem(shopper.getId(), shopper.getFirstName(),
+                        shopper.getLastName(), shopper.getEmail(), shopper.getAddress(), shopper.getCity()), 1.0, 1.0))
+                .collect(Collectors.toList());
+        return new SearchPage(page, size, shoppers.size(), results);
+    }
+
+    /**
+     * Enregistre une visite du client (DTLAST écrit en différé)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void recordVisit(Long shopperId) {
+        shopperVisitTracker.recordVisit(shopperId);
+    }
+
+    /**
+     * Clients venus depuis une date (visites en attente écrites avant la requête)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ShopperDTO> getShoppersVisitedSince(LocalDateTime since) {
+        shopperVisitTracker.flush();
+        return shopperRepository.findByDateLastVisitAfter(since).stream()
+                .map(ShopperService::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Clients sans visite depuis une date (visites en attente écrites avant la requête)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ShopperDTO> getShoppersInactiveSince(LocalDateTime since) {
+        shopperVisitTracker.flush();
+        return shopperRepository.findByDateLastVisitBefore(since).stream()
+                .map(ShopperService::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    // ========== STATISTIQUES ==========
+
+    /**
+     * Nombre de clients par état, du plus grand au plus petit
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<Object[]> countShoppersByState() {
+        return shopperStatistics.isLoaded()
+                ? shopperStatistics.getCountByState()
+                : shopperRepository.countShoppersByState();
+    }
+
+    /**
+     * Nombre de clients par ville, du plus grand au plus petit
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<Object[]> countShoppersByCity() {
+        return shopperStatistics.isLoaded()
+                ? shopperStatistics.getCountByCity()
+                : shopperRepository.countShoppersByCity();
+    }
+
+    /**
+     * Inscriptions par mois [année, mois, nombre]
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<Object[]> getRegistrationStatistics() {
+        return shopperStatistics.isLoaded()
+                ? shopperStatistics.getRegistrationStatistics()
+                : shopperRepository.getRegistrationStatistics();
+    }
+
+    /**
+     * Totaux : clients, nouveaux clients du mois et de l'année
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Map<String, Long> getShopperTotals() {
+        if (shopperStatistics.isLoaded()) {
+            return Map.of(
+                    "totalShoppers", shopperStatistics.getTotalShoppers(),
+                    "newThisMonth", shopperStatistics.getNewShoppersThisMonth(),
+                    "newThisYear", shopperStatistics.getNewShoppersThisYear());
+        }
+        int year = LocalDateTime.now().getYear();
+        long newThisYear = shopperRepository.getRegistrationStatistics().stream()
+                .filter(row -> row[0] != null && ((Number) row[0]).intValue() == year)
+                .mapToLong(row -> ((Number) row[2]).longValue())
+                .sum();
+        return Map.of(
+                "totalShoppers", shopperRepository.getTotalShoppersCount(),
+                "newThisMonth", shopperRepository.getNewShoppersThisMonth(),
+                "newThisYear", newThisYear);
+    }
+
+    /**
+     * Inscrit un client (email et téléphone uniques)
+     */
+    public ShopperDTO registerShopper(ShopperDTO dto) {
+        if (dto.getEmail() != null && shopperDirectory.findEmailOwner(dto.getEmail()).isPresent()) {
+            throw new IllegalStateException("Un client existe déjà avec l'email: " + dto.getEmail());
+        }
+        if (dto.getPhone() != null && shopperDirectory.findPhoneOwner(dto.getPhone()).isPresent()) {
+            throw new IllegalStateException("Un client existe déjà avec le téléphone: " + dto.getPhone());
+        }
+
+        Shopper shopper = new Shopper(dto.getFirstName(), dto.getLastName(), trim(dto.getEmail()));
+        applyContact(shopper, dto);
+        Shopper saved = shopperRepository.save(shopper);
+        eventPublisher.publishEvent(new ShopperChangedEvent(saved.getId()));
+        return toDTO(saved);
+    }
+
+    /**
+     * Met à jour un client ; un nouvel email ou téléphone doit rester unique
+     */
+    public ShopperDTO updateShopper(Long id, ShopperDTO dto) {
+        Shopper shopper = shopperRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Client introuvable avec ID: " + id));
+
+        if (dto.getEmail() != null) {
+            shopperDirectory.findEmailOwner(dto.getEmail())
+                    .filter(owner -> !Objects.equals(owner, id))
+                    .ifPresent(owner -> {
+                        throw new IllegalStateException("Un client existe déjà avec l'email: " + dto.getEmail());
+                    });
+            shopper.setEmail(trim(dto.getEmail()));
+        }
+        if (dto.getPhone() != null) {
+            shopperDirectory.findPhoneOwner(dto.getPhone())
+                    .filter(owner -> !Objects.equals(owner, id))
+                    .ifPresent(owner -> {
+                        throw new IllegalStateException("Un client existe déjà avec le téléphone: " + dto.getPhone());
+                    });
+        }
+        if (dto.getFirstName() != null) {
+            shopper.setFirstName(dto.getFirstName());
+        }
+        if (dto.getLastName() != null) {
+            shopper.setLastName(dto.getLastName());
+        }
+        applyContact(shopper, dto);
+        Shopper saved = shopperRepository.save(shopper);
+        eventPublisher.publishEvent(new ShopperChangedEvent(saved.getId()));
+        return toDTO(saved);
+    }
+
+    /**
+     * Supprime un client sans panier
+     */
+    public void deleteShopper(Long id) {
+        if (!shopperRepository.existsById(id)) {
+            throw new RuntimeException("Client introuvable avec ID: " + id);
+        }
+        if (basketRepository.existsByShopperId(id)) {
+            throw new IllegalStateException("Le client " + id + " a des paniers et ne peut pas être supprimé");
+        }
+        shopperRepository.deleteById(id);
+        eventPublisher.publishEvent(new ShopperChangedEvent(id));
+    }
+
+    // Champs optionnels : seuls les champs fournis sont modifiés
+    private static void applyContact(Shopper shopper, ShopperDTO dto) {
+        if (dto.getPhone() != null) shopper.setPhone(trim(dto.getPhone()));
+        if (dto.getAddress() != null) shopper.setAddress(dto.getAddress());
+        if (dto.getCity() != null) shopper.setCity(dto.getCity());
+        if (dto.getState() != null) shopper.setState(dto.getState());
+        if (dto.getZipCode() != null) shopper.setZipCode(dto.getZipCode());
+        if (dto.getProvince() != null) shopper.setProvince(dto.getProvince());
+        if (dto.getCountry() != null) shopper.setCountry(dto.getCountry());
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    // DTLAST en base peut avoir un intervalle d'écriture de retard sur la mémoire
+    private ShopperDTO toDTOWithPendingVisit(Shopper shopper) {
+        ShopperDTO dto = toDTO(shopper);
+        shopperVisitTracker.getPendingVisit(shopper.getId())
+                .filter(visit -> dto.getDateLastVisit() == null || visit.isAfter(dto.getDateLastVisit()))
+                .ifPresent(dto::setDateLastVisit);
+        return dto;
+    }
+
+    static ShopperDTO toDTO(Shopper shopper) {
+        ShopperDTO dto = new ShopperDTO(shopper.getFirstName(), shopper.getLastName(), shopper.getEmail());
+        dto.setId(shopper.getId());
+        dto.setPhone(shopper.getPhone());
+        dto.setAddress(shopper.getAddress());
+        dto.setCity(shopper.getCity());
+        dto.setState(shopper.getState());
+        dto.setZipCode(shopper.getZipCode());
+        dto.setProvince(shopper.getProvince());
+        dto.setCountry(shopper.getCountry());
+        dto.setDateCreated(shopper.getDateCreated());
+        dto.setDateLastVisit(shopper.getDateLastVisit());
+        return dto;
+    }
+}
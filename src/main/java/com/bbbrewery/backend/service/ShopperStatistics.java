@@ -0,0 +1,249 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.config.StartupCacheWarmup;
+import com.bbbrewery.backend.event.ShopperChangedEvent;
+import com.bbbrewery.backend.repository.ShopperStatisticsRepository;
+import com.bbbrewery.backend.repository.ShopperStatisticsRepository.ShopperProfileItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nombre de clients par état, par ville et par mois d'inscription, tenus en mémoire.
+ * La contribution de chaque client est conservée : une création, une modification ou
+ * une suppression retire l'ancienne contribution et ajoute la nouvelle. Les lecteurs
+ * voient un instantané immuable. Une reconstruction nocturne repart de BB_SHOPPER.
+ */
+@Component
+public class ShopperStatistics implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopperStatistics.class);
+
+    // Clé des clients sans état ou sans ville (Map.copyOf refuse null)
+    private static final String UNKNOWN = "";
+
+    @Autowired
+    private ShopperStatisticsRepository shopperStatisticsRepository;
+
+    @Autowired
+    private StartupCacheWarmup startupCacheWarmup;
+
+    // Contributions des clients ; modifiées sous le verrou de l'instance
+    private final Map<Long, ShopperProfileItem> contributions = new HashMap<>();
+    private final Map<String, Long> states = new HashMap<>();
+    private final Map<String, Long> cities = new HashMap<>();
+    private final Map<YearMonth, Long> months = new HashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded;
+
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicLong driftsDetected = new AtomicLong();
+    private volatile LocalDateTime lastReconciledAt;
+    private volatile String lastDrift;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        startupCacheWarmup.load("shopperStatistics", this::reload);
+    }
+
+    /**
+     * Recharge toutes les contributions depuis BB_SHOPPER
+     */
+    public synchronized void reload() {
+        try {
+            List<ShopperProfileItem> shoppers = new ArrayList<>();
+            shopperStatisticsRepository.scanProfiles(shoppers::add);
+            contributions.clear();
+            states.clear();
+            cities.clear();
+            months.clear();
+            shoppers.forEach(this::put);
+            publish();
+            loaded = true;
+        } catch (DataAccessException e) {
+            loaded = false;
+            log.warn("Chargement des statistiques clients impossible, repli sur les requêtes en base : {}",
+                    e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onShopperChanged(ShopperChangedEvent event) {
+        if (!loaded || event.getShopperId() == null) {
+            return;
+        }
+        refresh(event.getShopperId());
+    }
+
+    // Lecture et application sous le même verrou : une lecture ancienne ne peut pas
+    // remplacer une lecture plus récente du même client
+    private synchronized void refresh(Long shopperId) {
+        try {
+            // Absent en base : client supprimé, sa contribution est seulement retirée
+            Optional<ShopperProfileItem> profile = shopperStatisticsRepository.findProfile(shopperId);
+            remove(shopperId);
+            profile.ifPresent(this::put);
+            publish();
+        } catch (DataAccessException e) {
+            log.warn("Rafraîchissement des statistiques impossible pour le client {} : {}",
+                    shopperId, e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruction nocturne depuis BB_SHOPPER ; un écart avec les compteurs
+     * maintenus en mémoire est journalisé (écriture hors application, événement perdu)
+     */
+    @Scheduled(cron = "${shopper.statistics.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        Snapshot before = snapshot;
+        boolean wasLoaded = loaded;
+        reload();
+        if (!loaded) {
+            return;
+        }
+        reconciliations.incrementAndGet();
+        lastReconciledAt = LocalDateTime.now();
+        Snapshot after = snapshot;
+        if (wasLoaded && !(before.states.equals(after.states) && before.cities.equals(after.cities)
+                && before.months.equals(after.months))) {
+            driftsDetected.incrementAndGet();
+            lastDrift = "clients : mémoire " + before.total + ", base " + after.total;
+            log.warn("Écart des statistiques clients corrigé par la reconstruction : {}", lastDrift);
+        }
+    }
+
+    // ========== LECTURES ==========
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long getTotalShoppers() {
+        return snapshot.total;
+    }
+
+    /**
+     * Nombre de clients par état, au format [état, nombre], du plus grand au plus petit
+     */
+    public List<Object[]> getCountByState() {
+        return ranked(snapshot.states);
+    }
+
+    /**
+     * Nombre de clients par ville, au format [ville, nombre], du plus grand au plus petit
+     */
+    public List<Object[]> getCountByCity() {
+        return ranked(snapshot.cities);
+    }
+
+    /**
+     * Inscriptions par mois, au format [année, mois, nombre], du plus récent au plus ancien
+     */
+    public List<Object[]> getRegistrationStatistics() {
+        List<Object[]> rows = new ArrayList<>(snapshot.months.size());
+        snapshot.months.descendingMap().forEach((month, count) ->
+                rows.add(new Object[]{month.getYear(), month.getMonthValue(), count}));
+        return rows;
+    }
+
+    public long getNewShoppersThisMonth() {
+        return snapshot.months.getOrDefault(YearMonth.now(), 0L);
+    }
+
+    public long getNewShoppersThisYear() {
+        int year = YearMonth.now().getYear();
+        return snapshot.months.subMap(YearMonth.of(year, 1), true, YearMonth.of(year, 12), true)
+                .values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * État de la reconstruction
+     */
+    public Map<String, Object> getReconciliationStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("loaded", loaded);
+        status.put("shoppers", snapshot.total);
+        status.put("reconciliations", reconciliations.get());
+        status.put("driftsDetected", driftsDetected.get());
+        status.put("lastReconciledAt", lastReconciledAt);
+        status.put("lastDrift", lastDrift);
+        return status;
+    }
+
+    // ========== MISE À JOUR ==========
+
+    private void put(ShopperProfileItem shopper) {
+        contributions.put(shopper.getShopperId(), shopper);
+        states.merge(key(shopper.getState()), 1L, Long::sum);
+        cities.merge(key(shopper.getCity()), 1L, Long::sum);
+        if (shopper.getDateCreated() != null) {
+            months.merge(YearMonth.from(shopper.getDateCreated()), 1L, Long::sum);
+        }
+    }
+
+    private void remove(Long shopperId) {
+        ShopperProfileItem previous = contributions.remove(shopperId);
+        if (previous == null) {
+            return;
+        }
+        decrement(states, key(previous.getState()));
+        decrement(cities, key(previous.getCity()));
+        if (previous.getDateCreated() != null) {
+            decrement(months, YearMonth.from(previous.getDateCreated()));
+        }
+    }
+
+    private static <K> void decrement(Map<K, Long> counts, K key) {
+        counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    // Les lecteurs voient un instantané immuable, jamais un état intermédiaire
+    private void publish() {
+        snapshot = new Snapshot(contributions.size(), Map.copyOf(states), Map.copyOf(cities),
+                Collections.unmodifiableNavigableMap(new TreeMap<>(months)));
+    }
+
+    private static List<Object[]> ranked(Map<String, Long> counts) {
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> rows.add(new Object[]{entry.getKey().equals(UNKNOWN) ? null : entry.getKey(),
+                        entry.getValue()}));
+        return rows;
+    }
+
+    private static String key(String value) {
+        return value != null ? value : UNKNOWN;
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, Map.of(), Map.of(),
+                Collections.unmodifiableNavigableMap(new TreeMap<>()));
+
+        private final long total;
+        private final Map<String, Long> states;
+        private final Map<String, Long> cities;
+        private final NavigableMap<YearMonth, Long> months;
+
+        private Snapshot(long total, Map<String, Long> states, Map<String, Long> cities,
+                         NavigableMap<YearMonth, Long> months) {
+            this.total = total;
+            this.states = states;
+            this.cities = cities;
+            this.months = months;
+        }
+    }
+}
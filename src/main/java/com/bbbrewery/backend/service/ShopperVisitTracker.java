@@ -0,0 +1,108 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.repository.ShopperVisitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dernière visite des clients (DTLAST), enregistrée en mémoire à chaque visite
+ * et écrite périodiquement dans BB_SHOPPER : seuls les clients vus depuis la
+ * dernière écriture sont mis à jour, en UPDATE groupés. Le retard de DTLAST
+ * en base est borné par l'intervalle d'écriture ; les requêtes d'activité
+ * écrivent les visites en attente avant de lire.
+ */
+@Component
+public class ShopperVisitTracker implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopperVisitTracker.class);
+
+    @Autowired
+    private ShopperVisitRepository shopperVisitRepository;
+
+    // Visites non encore écrites : une seule entrée par client, la plus récente
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final long flushIntervalMs;
+    private final AtomicLong visitsRecorded = new AtomicLong();
+    private final AtomicLong shoppersFlushed = new AtomicLong();
+    private volatile LocalDateTime lastFlushAt;
+
+    public ShopperVisitTracker(@Value("${shopper.visits.flush-interval-ms:30000}") long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    /**
+     * Enregistre une visite, sans écriture en base
+     */
+    public void recordVisit(Long shopperId) {
+        if (shopperId == null) {
+            return;
+        }
+        // Précision de DTLAST (DATE Oracle) : la seconde
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        pending.merge(shopperId, now, (current, visit) -> visit.isAfter(current) ? visit : current);
+        visitsRecorded.incrementAndGet();
+    }
+
+    /**
+     * Dernière visite pas encore écrite en base
+     */
+    public Optional<LocalDateTime> getPendingVisit(Long shopperId) {
+        return Optional.ofNullable(pending.get(shopperId));
+    }
+
+    /**
+     * Écrit les visites en attente (planifié, et avant les requêtes d'activité)
+     */
+    @Scheduled(initialDelayString = "${shopper.visits.flush-interval-ms:30000}",
+            fixedDelayString = "${shopper.visits.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, LocalDateTime>> visits = new ArrayList<>(pending.size());
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            visits.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        try {
+            shopperVisitRepository.updateLastVisits(visits);
+            // Une visite arrivée pendant l'écriture reste en attente
+            visits.forEach(visit -> pending.remove(visit.getKey(), visit.getValue()));
+            shoppersFlushed.addAndGet(visits.size());
+            lastFlushAt = LocalDateTime.now();
+        } catch (DataAccessException e) {
+            log.warn("Écriture des dernières visites impossible ({} clients), nouvel essai au prochain cycle : {}",
+                    visits.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * État du suivi des visites
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("pendingShoppers", pending.size());
+        statistics.put("visitsRecorded", visitsRecorded.get());
+        statistics.put("shoppersFlushed", shoppersFlushed.get());
+        statistics.put("flushIntervalMs", flushIntervalMs);
+        statistics.put("lastFlushAt", lastFlushAt);
+        return statistics;
+    }
+}
@@ -1,9 +1,12 @@
 package com.bbbrewery.backend.service;
 
+import com.bbbrewery.backend.event.ReferenceDataChangedEvent;
 import com.bbbrewery.backend.model.Tax;
 import com.bbbrewery.backend.repository.TaxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -19,6 +22,12 @@ public class TaxService {
     @Autowired
     private TaxRepository taxRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // ================== CRUD Operations ==================
 
     public List<Tax> getAllTaxes() {
@@ -33,11 +42,14 @@ public class TaxService {
         if (tax.getDateCreated() == null) {
             tax.setDateCreated(LocalDateTime.now());
         }
-        return taxRepository.save(tax);
+        Tax saved = taxRepository.save(tax);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("tax"));
+        return saved;
     }
 
     public void deleteTax(Long idState) {
         taxRepository.deleteById(idState);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("tax"));
     }
 
     public Tax updateTax(Long idState, Tax updatedTax) {
@@ -50,7 +62,9 @@ public class TaxService {
                     tax.setProvince(updatedTax.getProvince());
                     tax.setTaxAmount(updatedTax.getTaxAmount());
                     tax.setIdBasket(updatedTax.getIdBasket());
-                    return taxRepository.save(tax);
+                    Tax saved = taxRepository.save(tax);
+                    eventPublisher.publishEvent(new ReferenceDataChangedEvent("tax"));
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Tax configuration not found with id: " + idState));
     }
@@ -67,7 +81,11 @@ public class TaxService {
     /**
      * Obtient la configuration de taxe pour un état
      */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<Tax> getTaxConfigurationByState(String state) {
+        if (referenceDataCache.isLoaded()) {
+            return referenceDataCache.findTaxConfiguration(state.toUpperCase());
+        }
         return taxRepository.findActiveConfigurationByState(state.toUpperCase());
     }
 
@@ -93,7 +111,9 @@ public class TaxService {
         tax.setActive(1); // 1 = actif
         tax.setIdBasket(null); // Configuration, pas appliquée à un panier
 
-        return taxRepository.save(tax);
+        Tax saved = taxRepository.save(tax);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent("tax"));
+        return saved;
     }
 
     /**
@@ -103,7 +123,9 @@ public class TaxService {
         return taxRepository.findById(idState)
                 .map(tax -> {
                     tax.setActive(active ? 1 : 0);
-                    return taxRepository.save(tax);
+                    Tax saved = taxRepository.save(tax);
+                    eventPublisher.publishEvent(new ReferenceDataChangedEvent("tax"));
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Tax configuration not found with id: " + idState));
     }
@@ -0,0 +1,3 @@
+-- Index du balayage des paniers abandonnés (statut + date de création + curseur IDBASKET)
+-- Optionnel : évite un parcours complet de BB_BASKET à chaque lot
+CREATE INDEX BB_BASKET_STATUS_CREATED_IX ON BB_BASKET (ORDERPLACED, DTCREATED, IDBASKET);
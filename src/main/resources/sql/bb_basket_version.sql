@@ -0,0 +1,3 @@
+-- Verrouillage optimiste des paniers (colonne VERSION de Basket)
+-- A executer une fois avant le deploiement (ddl-auto=validate)
+ALTER TABLE BB_BASKET ADD (VERSION NUMBER(10) DEFAULT 0 NOT NULL);
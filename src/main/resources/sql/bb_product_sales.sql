@@ -0,0 +1,8 @@
+-- Instantanés des compteurs de ventes par produit (unités vendues, chiffre d'affaires)
+-- Optionnel : sans cette table, les compteurs restent en mémoire uniquement
+CREATE TABLE BB_PRODUCT_SALES (
+    IDPRODUCT    NUMBER PRIMARY KEY REFERENCES BB_PRODUCT (IDPRODUCT),
+    UNITS_SOLD   NUMBER(12) DEFAULT 0 NOT NULL,
+    REVENUE      NUMBER(14,2) DEFAULT 0 NOT NULL,
+    DTUPDATED    DATE DEFAULT SYSDATE NOT NULL
+);
@@ -0,0 +1,5 @@
+-- Index des recherches de client par email et téléphone normalisés (annuaire, unicité à l'inscription)
+-- Optionnel : sans ces index, chaque vérification d'une clé absente parcourt BB_SHOPPER.
+-- Les expressions doivent rester identiques à celles de ShopperDirectoryRepository.
+CREATE INDEX BB_SHOPPER_EMAIL_NORM_IX ON BB_SHOPPER (LOWER(TRIM(EMAIL)));
+CREATE INDEX BB_SHOPPER_PHONE_NORM_IX ON BB_SHOPPER (REGEXP_REPLACE(PHONE, '[^0-9]', ''));
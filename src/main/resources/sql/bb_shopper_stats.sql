@@ -0,0 +1,8 @@
+-- Agrégats d'achats par client (montant cumulé, nombre de commandes)
+-- Optionnel : sans cette table, les agrégats restent en mémoire uniquement
+CREATE TABLE BB_SHOPPER_STATS (
+    IDSHOPPER    NUMBER PRIMARY KEY REFERENCES BB_SHOPPER (IDSHOPPER),
+    TOTAL_SPENT  NUMBER(12,2) DEFAULT 0 NOT NULL,
+    ORDER_COUNT  NUMBER(10) DEFAULT 0 NOT NULL,
+    DTUPDATED    DATE DEFAULT SYSDATE NOT NULL
+);
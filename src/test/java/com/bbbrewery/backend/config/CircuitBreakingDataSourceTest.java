@@ -0,0 +1,136 @@
+package com.bbbrewery.backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * DataSource derrière le disjoncteur : refus immédiat quand le circuit est ouvert,
+ * échecs de connexion et d'exécution remontés au disjoncteur, échéance de la requête
+ * appliquée aux instructions.
+ */
+class CircuitBreakingDataSourceTest {
+
+    private static final String SQL = "SELECT 1 FROM DUAL";
+
+    private DataSource target;
+    private Connection connection;
+    private PreparedStatement statement;
+    private DatabaseCircuitBreaker breaker;
+    private CircuitBreakingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        breaker = new DatabaseCircuitBreaker(2, 60_000);
+        dataSource = new CircuitBreakingDataSource(target, breaker);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void openCircuitRejectsWithoutTouchingPool() throws SQLException {
+        when(target.getConnection()).thenThrow(networkError());
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLRecoverableException.class);
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLRecoverableException.class);
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        verify(target, times(2)).getConnection();
+        assertThat(breaker.isOpen()).isTrue();
+    }
+
+    @Test
+    void networkErrorsDuringExecutionOpenCircuit() throws SQLException {
+        when(statement.executeQuery()).thenThrow(networkError());
+
+        for (int i = 0; i < 2; i++) {
+            PreparedStatement ps = dataSource.getConnection().prepareStatement(SQL);
+            assertThatThrownBy(ps::executeQuery).isInstanceOf(SQLRecoverableException.class);
+        }
+
+        assertThat(breaker.isOpen()).isTrue();
+    }
+
+    @Test
+    void probeConnectionClosesCircuit() throws Exception {
+        DatabaseCircuitBreaker shortBreaker = new DatabaseCircuitBreaker(1, 50);
+        CircuitBreakingDataSource probed = new CircuitBreakingDataSource(target, shortBreaker);
+        shortBreaker.recordFailure(networkError());
+        assertThatThrownBy(probed::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        Thread.sleep(100);
+
+        probed.getConnection();
+
+        assertThat(shortBreaker.isDegraded()).isFalse();
+        verify(target, times(1)).getConnection();
+    }
+
+    @Test
+    void ordinarySqlErrorsLeaveCircuitClosed()throws SQLException {
+        when(statement.executeQuery()).thenThrow(new SQLSyntaxErrorException("ORA-00942", "42000", 942));
+
+        for (int i = 0; i < 3; i++) {
+            PreparedStatement ps = dataSource.getConnection().prepareStatement(SQL);
+            assertThatThrownBy(ps::executeQuery).isInstanceOf(SQLSyntaxErrorException.class);
+        }
+
+        assertThat(breaker.isDegraded()).isFalse();
+    }
+
+    @Test
+    void deadlineBoundsStatementAndCancellationIsNotAnOutage() throws SQLException {
+        RequestDeadline.EndpointCounters counters = new RequestDeadline.EndpointCounters();
+        RequestDeadline.start(new RequestDeadline("GET /api/products", 2_500, counters));
+        when(statement.executeQuery()).thenThrow(new SQLException("ORA-01013: user requested cancel", "72000", 1013));
+
+        for (int i = 0; i < 3; i++) {
+            PreparedStatement ps = dataSource.getConnection().prepareStatement(SQL);
+            assertThatThrownBy(ps::executeQuery).isInstanceOf(SQLException.class);
+        }
+
+        verify(statement, times(3)).setQueryTimeout(3);
+        assertThat(counters.cancelled.get()).isEqualTo(3);
+        assertThat(breaker.isDegraded()).isFalse();
+    }
+
+    @Test
+    void expiredDeadlineSendsNothingToDatabase() throws SQLException {
+        RequestDeadline.EndpointCounters counters = new RequestDeadline.EndpointCounters();
+        RequestDeadline.start(new RequestDeadline("GET /api/products", 0, counters));
+
+        PreparedStatement ps = dataSource.getConnection().prepareStatement(SQL);
+
+        assertThatThrownBy(ps::executeQuery).isInstanceOf(SQLException.class);
+        verify(statement, never()).executeQuery();
+        assertThat(counters.expired.get()).isEqualTo(1);
+    }
+
+    private static SQLException networkError() {
+        return new SQLRecoverableException("IO Error: Connection reset", "08006", 17002);
+    }
+}
@@ -0,0 +1,114 @@
+package com.bbbrewery.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Transitions du disjoncteur : fermé, ouvert après failure-threshold échecs de connexion,
+ * semi-ouvert après open-ms avec une seule sonde, refermé ou rouvert selon la sonde.
+ */
+class DatabaseCircuitBreakerTest {
+
+    private static final long OPEN_MS = 100;
+
+    private final DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker(3, OPEN_MS);
+
+    @Test
+    void opensAfterConsecutiveConnectivityFailures() throws SQLException {
+        breaker.recordFailure(networkError());
+        breaker.recordFailure(networkError());
+        assertThat(state()).isEqualTo("CLOSED");
+        breaker.acquirePermission();
+
+        breaker.recordFailure(networkError());
+
+        assertThat(state()).isEqualTo("OPEN");
+        assertThat(breaker.isOpen()).isTrue();
+        assertThatThrownBy(breaker::acquirePermission)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .extracting(e -> ((SQLException) e).getSQLState()).isEqualTo("08001");
+        assertThat(breaker.getStatistics().get("rejectedConnections")).isEqualTo(1L);
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        breaker.recordFailure(networkError());
+        breaker.recordFailure(networkError());
+        breaker.recordSuccess();
+        breaker.recordFailure(networkError());
+        breaker.recordFailure(networkError());
+
+        assertThat(state()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void ordinarySqlErrorsDoNotCount() {
+        for (int i = 0; i < 5; i++) {
+            breaker.recordFailure(new SQLSyntaxErrorException("ORA-00942: table or view does not exist", "42000", 942));
+        }
+
+        assertThat(state()).isEqualTo("CLOSED");
+        assertThat(breaker.getStatistics().get("consecutiveFailures")).isEqualTo(0);
+    }
+
+    @Test
+    void sqlStateClassZeroEightIsConnectivityFailure() {
+        assertThat(DatabaseCircuitBreaker.isConnectivityFailure(new SQLException("IO Error", "08006"))).isTrue();
+        assertThat(DatabaseCircuitBreaker.isConnectivityFailure(
+                new SQLException("wrapper", null, new SQLRecoverableException("Closed Connection")))).isTrue();
+        assertThat(DatabaseCircuitBreaker.isConnectivityFailure(new SQLException("ORA-00001", "23000", 1))).isFalse();
+    }
+
+    @Test
+    void halfOpenLetsSingleProbeThroughAndClosesOnSuccess() throws Exception {
+        open();
+        Thread.sleep(OPEN_MS + 50);
+
+        assertThat(breaker.isOpen()).isFalse();
+        breaker.acquirePermission();
+        assertThat(state()).isEqualTo("HALF_OPEN");
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(SQLTransientConnectionException.class);
+
+        breaker.recordSuccess();
+
+        assertThat(state()).isEqualTo("CLOSED");
+        assertThat(breaker.isDegraded()).isFalse();
+        assertThatCode(breaker::acquirePermission).doesNotThrowAnyException();
+    }
+
+    @Test
+    void failedProbeReopensCircuit() throws Exception {
+        open();
+        Thread.sleep(OPEN_MS + 50);
+        breaker.acquirePermission();
+
+        breaker.recordFailure(networkError());
+
+        assertThat(state()).isEqualTo("OPEN");
+        assertThat(breaker.getStatistics().get("openings")).isEqualTo(2L);
+        assertThatThrownBy(breaker::acquirePermission).isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure(networkError());
+        }
+        assertThat(state()).isEqualTo("OPEN");
+    }
+
+    private String state() {
+        return (String) breaker.getStatistics().get("state");
+    }
+
+    private static SQLException networkError() {
+        return new SQLRecoverableException("IO Error: The Network Adapter could not establish the connection", "08006", 17002);
+    }
+}
@@ -0,0 +1,51 @@
+package com.bbbrewery.backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Budget de l'échéance : délai de l'endpoint, que l'en-tête X-Request-Timeout-Ms
+ * peut réduire mais pas dépasser.
+ */
+class RequestDeadlineInterceptorTest {
+
+    private final RequestDeadlineInterceptor interceptor = new RequestDeadlineInterceptor(
+            10_000, 60_000, new String[] {"/api/products/import:30000"});
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void headerCannotExceedEndpointBudget() {
+        assertThat(budgetFor("/api/products/import", "600000")).isEqualTo(30_000L);
+        assertThat(budgetFor("/api/products", "60000")).isEqualTo(10_000L);
+    }
+
+    @Test
+    void headerShortensEndpointBudget() {
+        assertThat(budgetFor("/api/products/import", "2000")).isEqualTo(2_000L);
+    }
+
+    @Test
+    void invalidHeaderFallsBackToEndpointBudget() {
+        assertThat(budgetFor("/api/products/import", "abc")).isEqualTo(30_000L);
+        assertThat(budgetFor("/api/products/import", "0")).isEqualTo(30_000L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long budgetFor(String path, String header) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.addHeader(RequestDeadlineInterceptor.TIMEOUT_HEADER, header);
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        Map<String, Object> endpoints = (Map<String, Object>) interceptor.getStatistics().get("endpoints");
+        return (long) ((Map<String, Object>) endpoints.get("POST " + path)).get("budgetMs");
+    }
+}
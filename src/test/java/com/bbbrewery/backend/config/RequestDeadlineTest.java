@@ -0,0 +1,61 @@
+package com.bbbrewery.backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Propagation de l'échéance aux tâches confiées à un pool de threads.
+ */
+class RequestDeadlineTest {
+
+    private final RequestDeadline.EndpointCounters counters = new RequestDeadline.EndpointCounters();
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void wrapCapturesDeadlineAtSubmitTime() throws Exception {
+        RequestDeadline deadline = new RequestDeadline("POST /api/products/import", 5_000, counters);
+        RequestDeadline.start(deadline);
+        Callable<RequestDeadline> task = RequestDeadline.wrap(RequestDeadline::current);
+        RequestDeadline.clear();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThat(executor.submit(task).get()).isSameAs(deadline);
+            assertThat(executor.submit(RequestDeadline::current).get()).isNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void bindRestoresPreviousDeadline() {
+        RequestDeadline outer = new RequestDeadline("GET /api/products", 5_000, counters);
+        RequestDeadline inner = new RequestDeadline("GET /api/products/1", 1_000, counters);
+        RequestDeadline.start(outer);
+
+        Runnable task = () -> assertThat(RequestDeadline.current()).isSameAs(inner);
+        inner.bind(task).run();
+
+        assertThat(RequestDeadline.current()).isSameAs(outer);
+    }
+
+    @Test
+    void latestKeepsLongestDeadlineAndNullIsUnbounded() {
+        RequestDeadline shorter = new RequestDeadline("GET /api/products/1", 1_000, counters);
+        RequestDeadline longer = new RequestDeadline("GET /api/products/2", 9_000, counters);
+
+        assertThat(RequestDeadline.latest(shorter, longer)).isSameAs(longer);
+        assertThat(RequestDeadline.latest(longer, shorter)).isSameAs(longer);
+        assertThat(RequestDeadline.latest(shorter, null)).isNull();
+    }
+}
@@ -0,0 +1,80 @@
+package com.bbbrewery.backend.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark de contention des verrous de panier (hors Spring, hors base).
+ * Compare le débit de N threads qui modifient le même panier avec N threads
+ * qui modifient chacun leur propre panier.
+ *
+ * Exécution : mvn test-compile puis
+ * java -cp target/classes:target/test-classes com.bbbrewery.backend.service.BasketLockContentionBenchmark [threads] [secondes]
+ */
+public class BasketLockContentionBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        BasketLockRegistry registry = new BasketLockRegistry(64, 5000);
+
+        // Préchauffage JIT
+        run(registry, threads, 1, false);
+
+        double oneBasket = run(registry, threads, seconds, false);
+        double manyBaskets = run(registry, threads, seconds, true);
+
+        System.out.printf("Threads: %d, stripes: %d, durée: %ds%n", threads, registry.getStripeCount(), seconds);
+        System.out.printf("1 panier  : %,.0f mutations/s%n", oneBasket);
+        System.out.printf("%d paniers : %,.0f mutations/s%n", threads, manyBaskets);
+        System.out.printf("Ratio     : x%.1f%n", manyBaskets / oneBasket);
+    }
+
+    private static double run(BasketLockRegistry registry, int threads, int seconds, boolean distinctBaskets)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] totals = new long[threads];
+
+        for (int t = 0; t < threads; t++) {
+            final long basketId = distinctBaskets ? 1000L + t : 1000L;
+            final int slot = t;
+            Thread worker = new Thread(() -> {
+                ready.countDown();
+                while (running.get()) {
+                    registry.withLock(basketId, () -> {
+                        // Lecture-modification-écriture simulée d'un panier
+                        totals[slot] += simulatedWork(basketId);
+                        return null;
+                    });
+                    operations.increment();
+                }
+                done.countDown();
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        ready.await();
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+        return operations.sum() / elapsed;
+    }
+
+    private static long simulatedWork(long seed) {
+        long x = seed;
+        for (int i = 0; i < 200; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        return x & 1;
+    }
+}
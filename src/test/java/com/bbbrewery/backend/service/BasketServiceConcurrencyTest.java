@@ -0,0 +1,261 @@
+package com.bbbrewery.backend.service;
+
+import com.bbbrewery.backend.model.Basket;
+import com.bbbrewery.backend.model.BasketFetchPlan;
+import com.bbbrewery.backend.model.BasketItem;
+import com.bbbrewery.backend.model.BasketStatus;
+import com.bbbrewery.backend.model.Product;
+import com.bbbrewery.backend.repository.BasketRepository;
+import com.bbbrewery.backend.repository.ProductBulkRepository;
+import com.bbbrewery.backend.repository.ProductRepository;
+import com.bbbrewery.backend.service.BasketLockRegistry.BasketBusyException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mutations concurrentes d'un même panier via BasketService : verrou par panier,
+ * relance sur conflit de version, et refus réessayable quand le verrou n'est pas obtenu.
+ * La base est simulée par un panier stocké dont la version est vérifiée à l'écriture.
+ */
+class BasketServiceConcurrencyTest {
+
+    private static final Long BASKET_ID = 1L;
+    private static final Long PRODUCT_ID = 10L;
+
+    private BasketService basketService;
+    private BasketRepository basketRepository;
+    private BasketLockRegistry basketLockRegistry;
+    private ProductBulkRepository productBulkRepository;
+    private StoredBasket store;
+
+    @BeforeEach
+    void setUp() {
+        store = new StoredBasket();
+        basketRepository = mock(BasketRepository.class);
+        when(basketRepository.findById(eq(BASKET_ID), any(BasketFetchPlan.class)))
+                .thenAnswer(invocation -> Optional.of(store.load()));
+        when(basketRepository.save(any(Basket.class)))
+                .thenAnswer(invocation -> store.save(invocation.getArgument(0)));
+        when(basketRepository.findAllByIdWithItemsAndProducts(List.of(BASKET_ID)))
+                .thenAnswer(invocation -> List.of(store.load()));
+        productBulkRepository = mock(ProductBulkRepository.class);
+
+        Product product = new Product("Kona", "Café", new BigDecimal("10.00"), 100_000);
+        product.setId(PRODUCT_ID);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        basketLockRegistry = new BasketLockRegistry(64, 200);
+        basketService = new BasketService();
+        ReflectionTestUtils.setField(basketService, "basketRepository", basketRepository);
+        ReflectionTestUtils.setField(basketService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(basketService, "productBulkRepository", productBulkRepository);
+        ReflectionTestUtils.setField(basketService, "basketLockRegistry", basketLockRegistry);
+        ReflectionTestUtils.setField(basketService, "basketSummaryCache", mock(BasketSummaryCache.class));
+        ReflectionTestUtils.setField(basketService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(basketService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(basketService, "entityManager", mock(EntityManager.class));
+        ReflectionTestUtils.setField(basketService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(basketService, "backoffMs", 1L);
+    }
+
+    @Test
+    void concurrentAddsToSameBasketAreAllApplied() throws Exception {
+        int threads = 8;
+        int addsPerThread = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 1);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Basket basket = store.load();
+        assertThat(basket.getBasketItems()).hasSize(1);
+        assertThat(basket.getBasketItems().get(0).getQuantity()).isEqualTo(threads * addsPerThread);
+        assertThat(basket.getQuantity()).isEqualTo(threads * addsPerThread);
+        assertThat(basket.getSubtotal()).isEqualByComparingTo(new BigDecimal("2000.00"));
+        // Le verrou sérialise les mutations du nœud : aucun conflit de version
+        assertThat(store.conflicts.get()).isZero();
+    }
+
+    @Test
+    void versionConflictFromAnotherNodeIsRetriedOnFreshState() {
+        basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 1);
+        // Écriture d'un autre nœud entre la lecture et l'écriture suivantes
+        store.failNextSaves(1);
+
+        basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 2);
+
+        assertThat(store.load().getBasketItems().get(0).getQuantity()).isEqualTo(3);
+        assertThat(store.conflicts.get()).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedConflictsAreReportedAsBusy() {
+        store.failNextSaves(3);
+
+        assertThatThrownBy(() -> basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 1))
+                .isInstanceOf(BasketBusyException.class);
+        assertThat(store.load().getBasketItems()).isEmpty();
+    }
+
+    @Test
+    void itemsOfSubmittedBasketAreNotChanged() {
+        basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 2);
+        store.submit();
+
+        assertThatThrownBy(() -> basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 1))
+                .hasMessageContaining("finalisé");
+        assertThatThrownBy(() -> basketService.clearBasket(BASKET_ID))
+                .hasMessageContaining("finalisé");
+        assertThat(store.load().getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void checkoutFailsWhenStockReservationIsRefused() {
+        basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 2);
+        // Une autre commande a pris les dernières unités : l'UPDATE conditionnel ne modifie rien
+        when(productBulkRepository.reserveStock(any(), any())).thenReturn(new int[]{0});
+
+        assertThatThrownBy(() -> basketService.checkoutBasket(BASKET_ID))
+                .hasMessage("Stock insuffisant pour le produit: Kona");
+        assertThat(store.load().getOrderPlaced()).isEqualTo(BasketStatus.ACTIVE);
+    }
+
+    @Test
+    void batchCheckoutReservesCumulatedDemand() {
+        basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 2);
+        when(productBulkRepository.reserveStock(any(), any())).thenReturn(new int[]{1});
+
+        BasketService.BatchCheckoutResult result = basketService.checkoutBaskets(List.of(BASKET_ID));
+
+        assertThat(result.getSucceeded()).containsExactly(BASKET_ID);
+        SortedMap<Long, Integer> demand = new TreeMap<>(Map.of(PRODUCT_ID, 2));
+        verify(productBulkRepository).reserveStock(eq(demand), any());
+    }
+
+    @Test
+    void batchCheckoutReportsBasketWithoutStock() {
+        basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 2);
+        when(productBulkRepository.reserveStock(any(), any())).thenReturn(new int[]{0});
+
+        BasketService.BatchCheckoutResult result = basketService.checkoutBaskets(List.of(BASKET_ID));
+
+        assertThat(result.getSucceeded()).isEmpty();
+        assertThat(result.getFailures()).containsEntry(BASKET_ID, "Stock insuffisant pour le produit: Kona");
+    }
+
+    @Test
+    void lockTimeoutIsReportedAsBusy() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> basketLockRegistry.withLock(BASKET_ID, () -> {
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        locked.await();
+        try {
+            assertThatThrownBy(() -> basketService.addItemToBasket(BASKET_ID, PRODUCT_ID, 1))
+                    .isInstanceOf(BasketBusyException.class);
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertThat(store.load().getBasketItems()).isEmpty();
+    }
+
+    /**
+     * Panier « en base » : chaque lecture retourne une copie, chaque écriture vérifie la version
+     */
+    private static class StoredBasket {
+        private Basket stored = newBasket();
+        private int failingSaves;
+        final AtomicInteger conflicts = new AtomicInteger();
+
+        synchronized Basket load() {
+            return copy(stored);
+        }
+
+        synchronized Basket save(Basket basket) {
+            if (failingSaves > 0 || !basket.getVersion().equals(stored.getVersion())) {
+                failingSaves = Math.max(0, failingSaves - 1);
+                conflicts.incrementAndGet();
+                throw new ObjectOptimisticLockingFailureException(Basket.class, basket.getId());
+            }
+            stored = copy(basket);
+            stored.setVersion(basket.getVersion() + 1);
+            return basket;
+        }
+
+        synchronized void submit() {
+            stored.setOrderPlaced(BasketStatus.SUBMITTED);
+        }
+
+        synchronized void failNextSaves(int count) {
+            failingSaves = count;
+        }
+
+        private static Basket newBasket() {
+            Basket basket = new Basket();
+            basket.setId(BASKET_ID);
+            basket.setVersion(0L);
+            return basket;
+        }
+
+        private static Basket copy(Basket source) {
+            Basket copy = newBasket();
+            copy.setVersion(source.getVersion());
+            copy.setOrderPlaced(source.getOrderPlaced());
+            for (BasketItem item : source.getBasketItems()) {
+                copy.addBasketItem(new BasketItem(copy, item.getProduct(), item.getQuantity(), item.getPrice()));
+            }
+            copy.updateTotals();
+            return copy;
+        }
+    }
+}
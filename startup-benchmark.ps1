@@ -0,0 +1,78 @@
+# Mesure du temps de demarrage : mode normal vs profil faststart + archive CDS
+# Usage : .\startup-benchmark.ps1 [-Runs 5] [-SkipBuild]
+param(
+    [int]$Runs = 5,
+    [switch]$SkipBuild
+)
+
+Write-Host "=== Benchmark de demarrage BBBrewery ===" -ForegroundColor Green
+
+$jar = "target/backend-0.0.1-SNAPSHOT.jar"
+$extracted = "target/faststart"
+$archive = "$extracted/application.jsa"
+
+# Construction du jar
+if (-not $SkipBuild) {
+    Write-Host "`n--- Construction du jar ---" -ForegroundColor Yellow
+    & .\mvnw.cmd -q -DskipTests package
+    if ($LASTEXITCODE -ne 0) {
+        Write-Host "Echec de la construction" -ForegroundColor Red
+        exit 1
+    }
+}
+
+# Jar extrait : requis par CDS (classpath de jars, pas de jar imbrique)
+Write-Host "`n--- Extraction du jar ---" -ForegroundColor Yellow
+if (Test-Path $extracted) { Remove-Item -Recurse -Force $extracted }
+java "-Djarmode=tools" -jar $jar extract --destination $extracted
+$appJar = Get-ChildItem "$extracted/*.jar" | Select-Object -First 1
+
+# Execution d'entrainement : les classes chargees jusqu'a la fin du rafraichissement
+# du contexte sont ecrites dans l'archive CDS
+Write-Host "`n--- Creation de l'archive CDS ---" -ForegroundColor Yellow
+java "-XX:ArchiveClassesAtExit=$archive" "-Dspring.context.exit=onRefresh" `
+    -jar $appJar.FullName --spring.profiles.active=faststart | Out-Null
+if (-not (Test-Path $archive)) {
+    Write-Host "Archive CDS non creee" -ForegroundColor Red
+    exit 1
+}
+Write-Host "Archive creee : $archive" -ForegroundColor Cyan
+
+# Temps jusqu'a la fin du rafraichissement du contexte (JVM + Spring + caches) ;
+# en faststart les caches sont charges apres le demarrage et sortent de la mesure
+function Measure-Startup {
+    param(
+        [string]$description,
+        [string[]]$javaArgs
+    )
+
+    $times = @()
+    for ($i = 1; $i -le $Runs; $i++) {
+        $elapsed = Measure-Command {
+            java @javaArgs | Out-Null
+        }
+        $times += $elapsed.TotalMilliseconds
+        Write-Host ("  {0} #{1} : {2:N0} ms" -f $description, $i, $elapsed.TotalMilliseconds) -ForegroundColor White
+    }
+    # Premiere execution ecartee (cache disque du systeme)
+    $measured = if ($times.Count -gt 1) { $times | Select-Object -Skip 1 } else { $times }
+    return ($measured | Measure-Object -Average -Minimum -Maximum)
+}
+
+Write-Host "`n--- Mode normal ---" -ForegroundColor Yellow
+$before = Measure-Startup "normal" @("-Dspring.context.exit=onRefresh", "-jar", $jar)
+
+Write-Host "`n--- Profil faststart + CDS ---" -ForegroundColor Yellow
+$after = Measure-Startup "faststart" @("-XX:SharedArchiveFile=$archive", "-Dspring.context.exit=onRefresh",
+    "-jar", $appJar.FullName, "--spring.profiles.active=faststart")
+
+Write-Host "`nRESULTATS ($Runs executions, premiere ecartee)" -ForegroundColor Green
+Write-Host ("Normal    : moyenne {0:N0} ms (min {1:N0}, max {2:N0})" -f $before.Average, $before.Minimum, $before.Maximum) -ForegroundColor White
+Write-Host ("Faststart : moyenne {0:N0} ms (min {1:N0}, max {2:N0})" -f $after.Average, $after.Minimum, $after.Maximum) -ForegroundColor White
+if ($before.Average -gt 0) {
+    $gain = (1 - $after.Average / $before.Average) * 100
+    Write-Host ("Gain      : {0:N1} %" -f $gain) -ForegroundColor Cyan
+}
+
+Write-Host "`nDemarrage en production :" -ForegroundColor Cyan
+Write-Host "java -XX:SharedArchiveFile=$archive -jar $($appJar.FullName) --spring.profiles.active=faststart" -ForegroundColor White